@@ -5,18 +5,12 @@
 
 package org.wildfly.plugin.common;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
 
-import org.jboss.logging.Logger;
 import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
@@ -31,7 +25,6 @@ public class Environment {
             "--add-exports=jdk.unsupported/sun.misc=ALL-UNNAMED",
             "--add-modules=java.se",
     };
-    private static final Logger LOGGER = Logger.getLogger(Environment.class);
     private static final boolean WINDOWS;
 
     static {
@@ -40,52 +33,27 @@ public class Environment {
     }
 
     /**
-     * Checks to see if the {@code javaHome} is a modular JVM.
+     * Checks to see if the {@code javaHome} is a modular JVM. The JVM is only launched the first time it is checked,
+     * the result is cached for the Java Home.
      *
      * @param javaHome the Java Home if {@code null} an attempt to discover the Java Home will be done
      *
      * @return {@code true} if this is a modular environment
      */
     public static boolean isModularJvm(final Path javaHome) {
-        boolean result;
-        final List<String> cmd = new ArrayList<>();
-        cmd.add(getJavaCommand(javaHome));
-        cmd.add("--add-modules=java.se");
-        cmd.add("-version");
-        final ProcessBuilder builder = new ProcessBuilder(cmd);
-        Process process = null;
-        Path stdout = null;
-        try {
-            // Create a temporary file for stdout
-            stdout = Files.createTempFile("stdout", ".txt");
-            process = builder.redirectErrorStream(true)
-                    .redirectOutput(stdout.toFile()).start();
+        return probe(javaHome).isModular();
+    }
 
-            if (process.waitFor(1, TimeUnit.SECONDS)) {
-                result = process.exitValue() == 0;
-            } else {
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug(getStdoutMessage("The process timed out waiting for the response.", stdout));
-                }
-                result = false;
-            }
-        } catch (IOException | InterruptedException e) {
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug(getStdoutMessage("The process ended in error.", stdout), e);
-            }
-            result = false;
-        } finally {
-            if (process != null && process.isAlive()) {
-                process.destroyForcibly();
-            }
-            if (stdout != null) {
-                try {
-                    Files.deleteIfExists(stdout);
-                } catch (IOException ignore) {
-                }
-            }
-        }
-        return result;
+    /**
+     * Returns the feature version of the JVM, e.g. {@code 17}. The JVM may be launched the first time the version is
+     * requested, the result is cached for the Java Home.
+     *
+     * @param javaHome the Java Home if {@code null} an attempt to discover the Java Home will be done
+     *
+     * @return the feature version or {@code -1} if the version could not be determined
+     */
+    public static int getJavaVersion(final Path javaHome) {
+        return probe(javaHome).version();
     }
 
     /**
@@ -145,19 +113,8 @@ public class Environment {
         return null;
     }
 
-    private static String getStdoutMessage(final String message, final Path file) {
-        final StringBuilder result = new StringBuilder(message);
-        try {
-            final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
-            for (String line : lines) {
-                result.append(System.lineSeparator())
-                        .append(line);
-            }
-        } catch (IOException e) {
-            result.append(System.lineSeparator())
-                    .append("Failed to read the stdout: ")
-                    .append(e.getMessage());
-        }
-        return result.toString();
+    private static JvmProbes.Probe probe(final Path javaHome) {
+        final Path resolvedJavaHome = javaHome == null ? findJavaHome() : javaHome;
+        return JvmProbes.getInstance().probe(resolvedJavaHome, getJavaCommand(resolvedJavaHome));
     }
 }
@@ -0,0 +1,361 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.common;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jboss.logging.Logger;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * A cache of the results of probing a JVM, e.g. whether it is modular. Probing may require launching the JVM, so the
+ * results are kept in memory and in a file in the user cache directory, which allows each JVM to be probed only once.
+ * <p>
+ * The results are keyed by the real path of the Java Home and the hash of its {@code release} file, so a JDK which is
+ * updated in place is probed again. Results of probes which failed, e.g. because the JVM did not respond in time, are
+ * only kept in memory.
+ * </p>
+ */
+class JvmProbes {
+    private static final Logger LOGGER = Logger.getLogger(JvmProbes.class);
+    private static final Pattern VERSION_PATTERN = Pattern.compile("version \"([^\"]+)\"");
+    private static final Pattern RELEASE_VERSION_PATTERN = Pattern.compile("^JAVA_VERSION=\"?([^\"]+)\"?$",
+            Pattern.MULTILINE);
+    private static final String HOME = ".home";
+    private static final String VERSION = ".version";
+    private static final String MODULAR = ".modular";
+    private static final JvmProbes INSTANCE = new JvmProbes(defaultFile());
+
+    private final Path file;
+    private final Map<String, Probe> probes = new HashMap<>();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param file the file the results are stored in or {@code null} to only keep the results in memory
+     */
+    JvmProbes(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * The cache shared by all goals executed in this JVM.
+     *
+     * @return the cache
+     */
+    static JvmProbes getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the result of probing the JVM, the JVM is only launched if it was not yet probed.
+     *
+     * @param javaHome    the Java Home or {@code null} if unknown
+     * @param javaCommand the command to launch the JVM
+     *
+     * @return the result of the probe
+     */
+    synchronized Probe probe(final Path javaHome, final String javaCommand) {
+        final String id = id(javaHome);
+        final String key = id == null ? javaCommand : id;
+        Probe probe = probes.get(key);
+        if (probe != null) {
+            return probe;
+        }
+        if (id != null) {
+            probe = load(id);
+        }
+        if (probe == null) {
+            probe = execute(javaHome, javaCommand);
+            if (probe.persistent && id != null) {
+                store(id, javaHome, probe);
+            }
+        }
+        probes.put(key, probe);
+        return probe;
+    }
+
+    /**
+     * Parses the feature version of a Java version string, e.g. {@code 8} for {@code 1.8.0_292} and {@code 17} for
+     * {@code 17.0.2}.
+     *
+     * @param version the version string
+     *
+     * @return the feature version or {@code -1} if the version could not be parsed
+     */
+    static int parseVersion(final String version) {
+        final Matcher matcher = Pattern.compile("^(?:1\\.)?(\\d+)").matcher(version.trim());
+        if (matcher.find()) {
+            try {
+                return Integer.parseInt(matcher.group(1));
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        return -1;
+    }
+
+    private Probe load(final String id) {
+        final Properties properties = read();
+        final String modular = properties.getProperty(id + MODULAR);
+        final String version = properties.getProperty(id + VERSION);
+        if (modular == null || version == null) {
+            return null;
+        }
+        try {
+            return new Probe(Integer.parseInt(version), Boolean.parseBoolean(modular), true);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void store(final String id, final Path javaHome, final Probe probe) {
+        if (file == null) {
+            return;
+        }
+        // Read the file again, other builds may have probed other JVMs in the meantime
+        final Properties properties = read();
+        final String home = javaHome.toString();
+        final List<String> outdated = new ArrayList<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.endsWith(HOME) && home.equals(properties.getProperty(name))) {
+                outdated.add(name.substring(0, name.length() - HOME.length()));
+            }
+        }
+        for (String outdatedId : outdated) {
+            properties.remove(outdatedId + HOME);
+            properties.remove(outdatedId + VERSION);
+            properties.remove(outdatedId + MODULAR);
+        }
+        properties.setProperty(id + HOME, home);
+        properties.setProperty(id + VERSION, Integer.toString(probe.version));
+        properties.setProperty(id + MODULAR, Boolean.toString(probe.modular));
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = Files.createTempFile(file.getParent(), "jvm-probes", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.debugf(e, "Failed to store the JVM probes in %s", file);
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
+    private Properties read() {
+        final Properties properties = new Properties();
+        if (file != null && Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                // An unreadable file is treated like a missing file
+                LOGGER.debugf(e, "Failed to read the JVM probes from %s", file);
+                properties.clear();
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Launches the JVM with {@code --add-modules=java.se -version}, which fails if the JVM is not modular. The version
+     * is read from the {@code release} file of the Java Home, or from the output of the JVM.
+     */
+    private static Probe execute(final Path javaHome, final String javaCommand) {
+        final long start = System.nanoTime();
+        int version = javaHome == null ? -1 : readReleaseVersion(javaHome);
+        boolean modular;
+        boolean persistent = true;
+        final List<String> cmd = new ArrayList<>();
+        cmd.add(javaCommand);
+        cmd.add("--add-modules=java.se");
+        cmd.add("-version");
+        final ProcessBuilder builder = new ProcessBuilder(cmd);
+        Process process = null;
+        Path stdout = null;
+        try {
+            // Create a temporary file for stdout
+            stdout = Files.createTempFile("stdout", ".txt");
+            process = builder.redirectErrorStream(true)
+                    .redirectOutput(stdout.toFile()).start();
+
+            if (process.waitFor(1, TimeUnit.SECONDS)) {
+                modular = process.exitValue() == 0;
+                if (version < 0) {
+                    final Matcher matcher = VERSION_PATTERN.matcher(Files.readString(stdout, StandardCharsets.UTF_8));
+                    if (matcher.find()) {
+                        version = parseVersion(matcher.group(1));
+                    }
+                }
+            } else {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(getStdoutMessage("The process timed out waiting for the response.", stdout));
+                }
+                modular = false;
+                persistent = false;
+            }
+        } catch (IOException | InterruptedException e) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(getStdoutMessage("The process ended in error.", stdout), e);
+            }
+            modular = false;
+            persistent = false;
+        } finally {
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
+            }
+            if (stdout != null) {
+                try {
+                    Files.deleteIfExists(stdout);
+                } catch (IOException ignore) {
+                }
+            }
+        }
+        LOGGER.debugf("Probed the JVM %s in %d ms: version %d, modular %s", javaCommand,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), version, modular);
+        return new Probe(version, modular, persistent);
+    }
+
+    private static int readReleaseVersion(final Path javaHome) {
+        final Path release = javaHome.resolve("release");
+        if (Files.isRegularFile(release)) {
+            try {
+                final Matcher matcher = RELEASE_VERSION_PATTERN.matcher(Files.readString(release,
+                        StandardCharsets.ISO_8859_1));
+                if (matcher.find()) {
+                    return parseVersion(matcher.group(1));
+                }
+            } catch (IOException ignore) {
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates the key of the Java Home from its real path and the hash of its {@code release} file, or of the size and
+     * last modified time of the {@code java} executable if there is no {@code release} file.
+     *
+     * @return the key or {@code null} if the Java Home does not exist
+     */
+    private static String id(final Path javaHome) {
+        if (javaHome == null) {
+            return null;
+        }
+        try {
+            final Path realPath = javaHome.toRealPath();
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(realPath.toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            final Path release = realPath.resolve("release");
+            if (Files.isRegularFile(release)) {
+                digest.update(Files.readAllBytes(release));
+            } else {
+                final Path bin = realPath.resolve("bin");
+                final Path java = Files.exists(bin.resolve("java.exe")) ? bin.resolve("java.exe") : bin.resolve("java");
+                final BasicFileAttributes attributes = Files.readAttributes(java, BasicFileAttributes.class);
+                digest.update((attributes.size() + ":" + attributes.lastModifiedTime().toMillis())
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            final StringBuilder result = new StringBuilder();
+            for (byte b : digest.digest()) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (IOException e) {
+            LOGGER.debugf(e, "Failed to resolve the Java Home %s", javaHome);
+            return null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Path defaultFile() {
+        String cacheDir = WildFlySecurityManager.getEnvPropertyPrivileged("XDG_CACHE_HOME", null);
+        if (cacheDir == null || cacheDir.isBlank()) {
+            final String userHome = WildFlySecurityManager.getPropertyPrivileged("user.home", null);
+            if (userHome == null) {
+                return null;
+            }
+            cacheDir = Paths.get(userHome, ".cache").toString();
+        }
+        return Paths.get(cacheDir, "wildfly-maven-plugin", "jvm-probes.properties");
+    }
+
+    private static String getStdoutMessage(final String message, final Path file) {
+        final StringBuilder result = new StringBuilder(message);
+        if (file == null) {
+            return result.toString();
+        }
+        try {
+            final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                result.append(System.lineSeparator())
+                        .append(line);
+            }
+        } catch (IOException e) {
+            result.append(System.lineSeparator())
+                    .append("Failed to read the stdout: ")
+                    .append(e.getMessage());
+        }
+        return result.toString();
+    }
+
+    /**
+     * The result of probing a JVM.
+     */
+    static class Probe {
+        private final int version;
+        private final boolean modular;
+        private final boolean persistent;
+
+        private Probe(final int version, final boolean modular, final boolean persistent) {
+            this.version = version;
+            this.modular = modular;
+            this.persistent = persistent;
+        }
+
+        /**
+         * The feature version of the JVM, e.g. {@code 17}.
+         *
+         * @return the version or {@code -1} if unknown
+         */
+        int version() {
+            return version;
+        }
+
+        /**
+         * Indicates whether the JVM is modular, i.e. accepts {@code --add-modules}.
+         *
+         * @return {@code true} if the JVM is modular
+         */
+        boolean isModular() {
+            return modular;
+        }
+    }
+}
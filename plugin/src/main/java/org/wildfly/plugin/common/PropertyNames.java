@@ -16,6 +16,8 @@ public interface PropertyNames {
 
     String BATCH = "wildfly.batch";
 
+    String BOOT_TIMELINE = "wildfly.bootTimeline";
+
     String BOOTABLE_JAR = "wildfly.bootable.jar";
 
     String BOOTABLE_JAR_INSTALL_CLASSIFIER = "wildfly.bootable.jar.classifier";
@@ -26,6 +28,8 @@ public interface PropertyNames {
 
     String CHECK_PACKAGING = "wildfly.checkPackaging";
 
+    String CLASS_DATA_SHARING = "wildfly.classDataSharing";
+
     String COMMANDS = "wildfly.commands";
 
     String DEPLOY_FORCE = "deploy.force";
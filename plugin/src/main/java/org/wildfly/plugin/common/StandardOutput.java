@@ -9,10 +9,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.wildfly.plugin.tools.ConsoleConsumer;
 
@@ -185,6 +187,23 @@ public class StandardOutput {
         return Optional.ofNullable(thread);
     }
 
+    /**
+     * If the processes {@code stdout} should be consumed a thread which consumes it will be started. Each line of the
+     * output is also passed to the line consumer.
+     *
+     * @param process      the process to possibly start the thread for
+     * @param lineConsumer the consumer of each line of the output
+     *
+     * @return the optional thread
+     */
+    public Optional<Thread> startConsumer(final Process process, final Consumer<String> lineConsumer) {
+        Thread thread = null;
+        if (consumerStream != null) {
+            thread = ConsoleConsumer.start(process, new LineOutputStream(consumerStream, lineConsumer));
+        }
+        return Optional.ofNullable(thread);
+    }
+
     /**
      * The path to the file where the data was written.
      *
@@ -211,6 +230,49 @@ public class StandardOutput {
         return super.toString();
     }
 
+    /**
+     * An output stream which writes to the delegate and passes each line to the consumer.
+     */
+    private static class LineOutputStream extends OutputStream {
+        private static final int MAX_LINE_LENGTH = 8192;
+        private final OutputStream delegate;
+        private final Consumer<String> lineConsumer;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        private LineOutputStream(final OutputStream delegate, final Consumer<String> lineConsumer) {
+            this.delegate = delegate;
+            this.lineConsumer = lineConsumer;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            delegate.write(b);
+            append(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            delegate.write(b, off, len);
+            for (int i = off; i < off + len; i++) {
+                append(b[i]);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        private void append(final int b) {
+            if (b == '\n') {
+                lineConsumer.accept(line.toString(StandardCharsets.UTF_8));
+                line.reset();
+            } else if (line.size() < MAX_LINE_LENGTH) {
+                line.write(b);
+            }
+        }
+    }
+
     /**
      * An output stream that discards all written output.
      */
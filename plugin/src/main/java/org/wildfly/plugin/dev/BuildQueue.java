@@ -0,0 +1,114 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue of {@linkplain ChangeBatch change batches} between the thread watching for changes and the thread
+ * building and deploying the changes.
+ * <p>
+ * Batches which are waiting to be processed are merged when they are taken from the queue, or when the queue is full,
+ * as only the latest state of the sources needs to be built. A batch which is in-flight can be
+ * {@linkplain #requeue(ChangeBatch) requeued} when newer changes are waiting, which merges the batch with the newer
+ * changes. Each merged batch is counted as a superseded build.
+ * </p>
+ */
+class BuildQueue {
+    private final BlockingDeque<ChangeBatch> queue;
+    private final AtomicLong superseded = new AtomicLong();
+
+    /**
+     * Creates a new queue.
+     *
+     * @param capacity the maximum number of batches waiting to be processed
+     */
+    BuildQueue(final int capacity) {
+        this.queue = new LinkedBlockingDeque<>(capacity);
+    }
+
+    /**
+     * Adds the batch to the queue. If the queue is full, the batch is merged into the newest batch in the queue.
+     *
+     * @param batch the batch to add
+     */
+    synchronized void submit(final ChangeBatch batch) {
+        if (!queue.offerLast(batch)) {
+            final ChangeBatch last = queue.pollLast();
+            if (last != null) {
+                last.addAll(batch);
+                superseded.incrementAndGet();
+                queue.offerLast(last);
+            } else {
+                queue.offerLast(batch);
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest batch from the queue, waiting if no batch is available. All other batches waiting in the queue
+     * are merged into the returned batch.
+     *
+     * @return the batch to process
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    ChangeBatch take() throws InterruptedException {
+        final ChangeBatch batch = queue.takeFirst();
+        synchronized (this) {
+            ChangeBatch next;
+            while ((next = queue.pollFirst()) != null) {
+                batch.addAll(next);
+                superseded.incrementAndGet();
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Places a batch which was superseded by newer changes back in the queue. The batch is merged with the batches
+     * waiting in the queue and will be processed next.
+     *
+     * @param batch the superseded batch
+     */
+    synchronized void requeue(final ChangeBatch batch) {
+        superseded.incrementAndGet();
+        ChangeBatch next;
+        while ((next = queue.pollFirst()) != null) {
+            batch.addAll(next);
+        }
+        queue.offerFirst(batch);
+    }
+
+    /**
+     * Indicates whether newer changes are waiting to be processed.
+     *
+     * @return {@code true} if a batch is waiting in the queue
+     */
+    boolean hasPending() {
+        return !queue.isEmpty();
+    }
+
+    /**
+     * The number of batches waiting to be processed.
+     *
+     * @return the queue depth
+     */
+    int depth() {
+        return queue.size();
+    }
+
+    /**
+     * The number of builds which were superseded by newer changes.
+     *
+     * @return the number of superseded builds
+     */
+    long superseded() {
+        return superseded.get();
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The state of the last build of the deployment and of the provisioned server, which is kept between executions of
+ * the goal. When the goal is started again, only the stages whose inputs changed since the state was recorded need to
+ * be executed.
+ * <p>
+ * The build is up-to-date if the hash of the inputs, i.e. the paths, sizes and last modified times of the sources,
+ * resources and classpath, did not change and the deployment was not modified since the build was recorded. The
+ * provisioned server is up-to-date if the WildFly Glow fingerprint of the deployment or the key of the provisioning
+ * configuration did not change.
+ * </p>
+ * <p>
+ * The recorded build is {@linkplain #invalidateBuild() invalidated} as soon as a change is detected, so a goal which is
+ * stopped before the change was built does not consider the deployment up-to-date.
+ * </p>
+ */
+class BuildSnapshot {
+    private static final String BUILD_INPUTS = "build.inputs";
+    private static final String BUILD_DEPLOYMENT = "build.deployment";
+    private static final String GLOW_FINGERPRINT = "glow.fingerprint";
+    private static final String PROVISIONING_KEY = "provisioning.key";
+    private static final String PROVISIONING_HOME = "provisioning.home";
+
+    private final Path file;
+    private final Properties properties = new Properties();
+    private long generation;
+
+    private BuildSnapshot(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the snapshot from the file. If the file does not exist or cannot be read, the snapshot is empty.
+     *
+     * @param file the file the snapshot is stored in
+     *
+     * @return the snapshot
+     */
+    static BuildSnapshot load(final Path file) {
+        final BuildSnapshot snapshot = new BuildSnapshot(file);
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                snapshot.properties.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                // An unreadable snapshot is treated like a missing snapshot
+                snapshot.properties.clear();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Creates the hash of the inputs of the build.
+     *
+     * @param configuration the configuration which affects the build
+     * @param paths         the input files and directories, directories are hashed with all their files
+     *
+     * @return the hash of the inputs
+     *
+     * @throws IOException if the inputs could not be read
+     */
+    static String hashInputs(final String configuration, final Collection<Path> paths) throws IOException {
+        final MessageDigest digest = createDigest();
+        update(digest, configuration);
+        for (Path path : paths) {
+            update(digest, "input:" + path);
+            hashTree(digest, path);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Creates the hash of the deployment, which consists of the paths, sizes and last modified times of the files.
+     *
+     * @param deployment the exploded deployment or the deployment archive
+     *
+     * @return the hash or {@code null} if the deployment does not exist
+     *
+     * @throws IOException if the deployment could not be read
+     */
+    static String hashDeployment(final Path deployment) throws IOException {
+        if (Files.notExists(deployment)) {
+            return null;
+        }
+        final MessageDigest digest = createDigest();
+        hashTree(digest, deployment);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Indicates whether the deployment was built from the inputs and not modified since.
+     *
+     * @param inputs     the {@linkplain #hashInputs(String, Collection) hash of the current inputs}
+     * @param deployment the exploded deployment or the deployment archive
+     *
+     * @return {@code true} if the deployment does not need to be built
+     *
+     * @throws IOException if the deployment could not be read
+     */
+    synchronized boolean isBuildUpToDate(final String inputs, final Path deployment) throws IOException {
+        final String deploymentHash = properties.getProperty(BUILD_DEPLOYMENT);
+        return inputs.equals(properties.getProperty(BUILD_INPUTS)) && deploymentHash != null
+                && deploymentHash.equals(hashDeployment(deployment));
+    }
+
+    /**
+     * The generation of the recorded build, which changes each time the build is invalidated.
+     *
+     * @return the generation
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Records the build of the deployment. If the build was invalidated after the generation was retrieved, i.e. a
+     * change was detected while the inputs were hashed, the build is not recorded.
+     *
+     * @param generation the generation retrieved before the inputs were hashed
+     * @param inputs     the hash of the inputs the deployment was built from
+     * @param deployment the exploded deployment or the deployment archive
+     *
+     * @throws IOException if the snapshot could not be stored
+     */
+    synchronized void recordBuild(final long generation, final String inputs, final Path deployment)
+            throws IOException {
+        if (this.generation != generation) {
+            return;
+        }
+        final String deploymentHash = hashDeployment(deployment);
+        if (deploymentHash == null) {
+            return;
+        }
+        properties.setProperty(BUILD_INPUTS, inputs);
+        properties.setProperty(BUILD_DEPLOYMENT, deploymentHash);
+        store();
+    }
+
+    /**
+     * Invalidates the recorded build, e.g. because a change was detected.
+     *
+     * @throws IOException if the snapshot could not be stored
+     */
+    synchronized void invalidateBuild() throws IOException {
+        generation++;
+        if (properties.remove(BUILD_INPUTS) != null | properties.remove(BUILD_DEPLOYMENT) != null) {
+            store();
+        }
+    }
+
+    /**
+     * The WildFly Glow fingerprint of the deployment the server was provisioned for.
+     *
+     * @return the fingerprint or {@code null} if the layers were not discovered
+     */
+    synchronized String glowFingerprint() {
+        return properties.getProperty(GLOW_FINGERPRINT);
+    }
+
+    /**
+     * The key of the provisioning configuration of the provisioned server.
+     *
+     * @return the key or {@code null} if no server was recorded
+     */
+    synchronized String provisioningKey() {
+        return properties.getProperty(PROVISIONING_KEY);
+    }
+
+    /**
+     * The provisioned server if the provisioning completed and the server still exists.
+     *
+     * @return the directory of the server or {@code null}
+     */
+    synchronized Path serverHome() {
+        final String home = properties.getProperty(PROVISIONING_HOME);
+        if (home == null) {
+            return null;
+        }
+        final Path serverHome = Path.of(home);
+        return Files.isDirectory(serverHome.resolve("standalone")) ? serverHome : null;
+    }
+
+    /**
+     * Records the provisioned server.
+     *
+     * @param key             the key of the provisioning configuration
+     * @param serverHome      the directory of the server
+     * @param glowFingerprint the WildFly Glow fingerprint of the deployment the layers were discovered for or
+     *                            {@code null}
+     *
+     * @throws IOException if the snapshot could not be stored
+     */
+    synchronized void recordProvisioning(final String key, final Path serverHome, final String glowFingerprint)
+            throws IOException {
+        properties.setProperty(PROVISIONING_KEY, key);
+        properties.setProperty(PROVISIONING_HOME, serverHome.toAbsolutePath().toString());
+        setOrRemove(GLOW_FINGERPRINT, glowFingerprint);
+        store();
+    }
+
+    /**
+     * Records that the discovered layers did not change for the deployment with the fingerprint.
+     *
+     * @param glowFingerprint the WildFly Glow fingerprint of the deployment
+     *
+     * @throws IOException if the snapshot could not be stored
+     */
+    synchronized void recordGlowFingerprint(final String glowFingerprint) throws IOException {
+        if (properties.containsKey(PROVISIONING_KEY)) {
+            setOrRemove(GLOW_FINGERPRINT, glowFingerprint);
+            store();
+        }
+    }
+
+    /**
+     * Invalidates the recorded server, e.g. because it is about to be deleted.
+     *
+     * @throws IOException if the snapshot could not be stored
+     */
+    synchronized void invalidateProvisioning() throws IOException {
+        properties.remove(PROVISIONING_KEY);
+        properties.remove(PROVISIONING_HOME);
+        properties.remove(GLOW_FINGERPRINT);
+        store();
+    }
+
+    private void setOrRemove(final String key, final String value) {
+        if (value == null) {
+            properties.remove(key);
+        } else {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private void store() throws IOException {
+        Files.createDirectories(file.getParent());
+        final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void hashTree(final MessageDigest digest, final Path root) throws IOException {
+        if (Files.notExists(root)) {
+            return;
+        }
+        final List<Path> files;
+        try (Stream<Path> stream = Files.walk(root)) {
+            files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            update(digest, root.relativize(file).toString().replace('\\', '/') + ":" + attributes.size() + ":"
+                    + attributes.lastModifiedTime().toMillis());
+        }
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the results of the changes which happened within the quiet period of the watcher. The flags of each
+ * {@linkplain WatchHandler.Result result} are merged, which allows the compile, resources, repackage and redeploy work
+ * to be done once for the whole batch rather than once per changed file.
+ */
+class ChangeBatch implements WatchHandler.Result {
+    private int events;
+    private int deletes;
+    private int rebuildDeletes;
+    private int recompiles;
+    private int copyResources;
+    private int repackages;
+    private int redeploys;
+    private boolean recompile;
+    private boolean copyResource;
+    private boolean repackage;
+    private boolean redeploy;
+    private boolean compileAll;
+    private boolean hotSwap = true;
+    private final Set<Path> dirtySources = new LinkedHashSet<>();
+    private final Set<Path> deletedSources = new LinkedHashSet<>();
+    private final DevLoopMetrics.Timings timings = new DevLoopMetrics.Timings();
+
+    /**
+     * Merges the result of a handled change into this batch.
+     *
+     * @param result the result of the handled change
+     */
+    void add(final WatchHandler.Result result) {
+        events++;
+        merge(result);
+        if (result.requiresRecompile()) {
+            recompiles++;
+        }
+        if (result.requiresCopyResources()) {
+            copyResources++;
+        }
+        if (result.requiresRepackage()) {
+            repackages++;
+        }
+        if (result.requiresRedeploy()) {
+            redeploys++;
+        }
+    }
+
+    /**
+     * Records that a file has been deleted. Unless the handler {@linkplain WatchHandler.Result#handlesDelete() removed
+     * the file from the deployment} itself, the deployment needs to be rebuilt. The result is still merged in case the
+     * deployment cannot be rebuilt.
+     *
+     * @param result the result of the handled change
+     */
+    void deleted(final WatchHandler.Result result) {
+        events++;
+        deletes++;
+        if (!result.handlesDelete()) {
+            rebuildDeletes++;
+        }
+        merge(result);
+    }
+
+    /**
+     * Merges all changes of the other batch into this batch. This is used when a newer batch supersedes a batch which
+     * has not yet been, or was not completely, processed.
+     *
+     * @param other the batch to merge into this batch
+     */
+    void addAll(final ChangeBatch other) {
+        events += other.events;
+        deletes += other.deletes;
+        rebuildDeletes += other.rebuildDeletes;
+        recompiles += other.recompiles;
+        copyResources += other.copyResources;
+        repackages += other.repackages;
+        redeploys += other.redeploys;
+        recompile |= other.recompile;
+        copyResource |= other.copyResource;
+        repackage |= other.repackage;
+        redeploy |= other.redeploy;
+        compileAll |= other.compileAll;
+        hotSwap &= other.hotSwap;
+        dirtySources.addAll(other.dirtySources);
+        deletedSources.addAll(other.deletedSources);
+        timings.addAll(other.timings);
+    }
+
+    /**
+     * The timings of the phases of the dev loop for this batch.
+     *
+     * @return the timings
+     */
+    DevLoopMetrics.Timings timings() {
+        return timings;
+    }
+
+    /**
+     * Indicates whether a file was deleted in this batch which requires the deployment to be rebuilt.
+     *
+     * @return {@code true} if a file was deleted and the deployment needs to be rebuilt
+     */
+    boolean requiresRebuild() {
+        return rebuildDeletes > 0;
+    }
+
+    /**
+     * The number of changes collected in this batch.
+     *
+     * @return the number of changes
+     */
+    int size() {
+        return events;
+    }
+
+    boolean isEmpty() {
+        return events == 0;
+    }
+
+    @Override
+    public boolean requiresRecompile() {
+        return recompile;
+    }
+
+    @Override
+    public boolean requiresRedeploy() {
+        return redeploy;
+    }
+
+    @Override
+    public boolean requiresCopyResources() {
+        return copyResource;
+    }
+
+    @Override
+    public boolean requiresRepackage() {
+        return repackage;
+    }
+
+    /**
+     * The merged source files which need to be compiled. If any change in the batch requires all sources to be
+     * compiled, an empty set is returned.
+     *
+     * @return the source files to compile
+     */
+    @Override
+    public Set<Path> dirtySources() {
+        return compileAll ? Set.of() : Collections.unmodifiableSet(dirtySources);
+    }
+
+    /**
+     * The merged deleted source files whose compiled classes need to be removed.
+     *
+     * @return the deleted source files
+     */
+    @Override
+    public Set<Path> deletedSources() {
+        return Collections.unmodifiableSet(deletedSources);
+    }
+
+    /**
+     * Indicates whether all changes in the batch only affect compiled classes. A batch with deleted files or changes
+     * which require resources to be copied or the deployment to be repackaged cannot be hot swapped.
+     *
+     * @return {@code true} if the changed classes may be hot swapped
+     */
+    @Override
+    public boolean allowsHotSwap() {
+        return hotSwap && deletes == 0 && !copyResource && !repackage;
+    }
+
+    /**
+     * Describes the work which was not executed as the changes were handled as a single batch. Handling each change
+     * on its own would have executed each required step once per change.
+     *
+     * @param rebuilt {@code true} if the deployment was fully rebuilt, which means all other steps were part of the
+     *                    rebuild
+     *
+     * @return a description of the work saved
+     */
+    String describeSavings(final boolean rebuilt) {
+        final List<String> saved = new ArrayList<>();
+        if (rebuilt) {
+            // All other changes were included in the rebuild
+            addSaving(saved, rebuildDeletes, "rebuild");
+            addSaving(saved, recompiles + 1, "compile");
+            addSaving(saved, copyResources + 1, "resource copy");
+            addSaving(saved, repackages + 1, "repackage");
+            addSaving(saved, redeploys + 1, "redeploy");
+        } else {
+            addSaving(saved, recompiles, "compile");
+            addSaving(saved, copyResources, "resource copy");
+            addSaving(saved, repackages, "repackage");
+            addSaving(saved, redeploys, "redeploy");
+        }
+        return saved.isEmpty() ? "none" : String.join(", ", saved);
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeBatch{events=" + events + ", deletes=" + deletes + ", recompiles=" + recompiles
+                + ", copyResources=" + copyResources + ", repackages=" + repackages + ", redeploys=" + redeploys + "}";
+    }
+
+    private void merge(final WatchHandler.Result result) {
+        recompile |= result.requiresRecompile();
+        copyResource |= result.requiresCopyResources();
+        repackage |= result.requiresRepackage();
+        redeploy |= result.requiresRedeploy();
+        if (result.requiresRedeploy() && !result.allowsHotSwap()) {
+            hotSwap = false;
+        }
+        deletedSources.addAll(result.deletedSources());
+        if (result.requiresRecompile()) {
+            final Set<Path> sources = result.dirtySources();
+            if (sources.isEmpty()) {
+                compileAll = true;
+            } else {
+                dirtySources.addAll(sources);
+            }
+        }
+    }
+
+    private static void addSaving(final List<String> saved, final int count, final String name) {
+        if (count > 1) {
+            saved.add(String.format("%d %s(s)", count - 1, name));
+        }
+    }
+}
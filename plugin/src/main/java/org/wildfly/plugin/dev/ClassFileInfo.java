@@ -0,0 +1,331 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A minimal reader for class files which reads the information required to track the dependencies between classes.
+ * The referenced classes are collected from the {@code CONSTANT_Class} entries of the constant pool and the type
+ * descriptors found in the {@code CONSTANT_Utf8} entries, which covers field and method signatures as well as
+ * annotations.
+ * <p>
+ * References to compile-time constants are inlined by the compiler and leave no trace in the referencing class.
+ * Therefore the values of the {@code ConstantValue} attributes of the fields are {@linkplain #constants() hashed}, which
+ * allows detecting a change of a constant.
+ * </p>
+ */
+class ClassFileInfo {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private final String name;
+    private final String sourceFile;
+    private final Set<String> references;
+    private final Set<String> supertypes;
+    private final long constants;
+
+    private ClassFileInfo(final String name, final String sourceFile, final Set<String> references,
+            final Set<String> supertypes, final long constants) {
+        this.name = name;
+        this.sourceFile = sourceFile;
+        this.references = references;
+        this.supertypes = supertypes;
+        this.constants = constants;
+    }
+
+    /**
+     * Reads the class file.
+     *
+     * @param file the class file to read
+     *
+     * @return the information for the class file
+     *
+     * @throws IOException if the file could not be read or is not a valid class file
+     */
+    static ClassFileInfo read(final Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads the class file from the stream. The stream is not closed.
+     *
+     * @param in the stream to read the class file from
+     *
+     * @return the information for the class file
+     *
+     * @throws IOException if the stream could not be read or is not a valid class file
+     */
+    static ClassFileInfo read(final InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a valid class file");
+        }
+        // minor and major version
+        data.readUnsignedShort();
+        data.readUnsignedShort();
+        final int poolCount = data.readUnsignedShort();
+        final String[] utf8 = new String[poolCount];
+        // The index of the class name for each CONSTANT_Class entry
+        final int[] classes = new int[poolCount];
+        // The values of the Integer, Float, Long, Double and String entries
+        final Object[] values = new Object[poolCount];
+        for (int i = 1; i < poolCount; i++) {
+            final int tag = data.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = data.readUTF();
+                    break;
+                case 7: // Class
+                    classes[i] = data.readUnsignedShort();
+                    break;
+                case 8: // String
+                    values[i] = data.readUnsignedShort();
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                    values[i] = tag + ":" + data.readInt();
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    values[i] = tag + ":" + data.readLong();
+                    // Long and double constants take two entries in the constant pool
+                    i++;
+                    break;
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    skipFully(data, 2);
+                    break;
+                case 15: // MethodHandle
+                    skipFully(data, 3);
+                    break;
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    skipFully(data, 4);
+                    break;
+                default:
+                    throw new IOException("Invalid constant pool tag " + tag);
+            }
+        }
+        // access flags
+        data.readUnsignedShort();
+        final String name = utf8[classes[data.readUnsignedShort()]];
+        final Set<String> supertypes = new TreeSet<>();
+        final int superClass = data.readUnsignedShort();
+        // java/lang/Object has no super class
+        if (superClass > 0) {
+            supertypes.add(utf8[classes[superClass]]);
+        }
+        final int interfaces = data.readUnsignedShort();
+        for (int i = 0; i < interfaces; i++) {
+            supertypes.add(utf8[classes[data.readUnsignedShort()]]);
+        }
+        final long constants = readConstants(data, utf8, values);
+        skipMembers(data);
+        String sourceFile = null;
+        final int attributes = data.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            final String attributeName = utf8[data.readUnsignedShort()];
+            final int length = data.readInt();
+            if ("SourceFile".equals(attributeName)) {
+                sourceFile = utf8[data.readUnsignedShort()];
+            } else {
+                skipFully(data, length);
+            }
+        }
+
+        final Set<String> references = new TreeSet<>();
+        for (int i = 1; i < poolCount; i++) {
+            if (classes[i] > 0) {
+                addReference(references, utf8[classes[i]]);
+            }
+        }
+        for (String value : utf8) {
+            if (value != null) {
+                addDescriptorReferences(references, value);
+            }
+        }
+        references.remove(name);
+        return new ClassFileInfo(name, sourceFile, Collections.unmodifiableSet(references),
+                Collections.unmodifiableSet(supertypes), constants);
+    }
+
+    /**
+     * The internal name of the class, e.g. {@code org/example/Foo$Bar}.
+     *
+     * @return the internal name of the class
+     */
+    String name() {
+        return name;
+    }
+
+    /**
+     * The name of the package in the internal form, e.g. {@code org/example}, or an empty string for the default
+     * package.
+     *
+     * @return the package name
+     */
+    String packageName() {
+        final int index = name.lastIndexOf('/');
+        return index < 0 ? "" : name.substring(0, index);
+    }
+
+    /**
+     * The name of the source file, without the package, this class was compiled from.
+     *
+     * @return the source file name or {@code null} if the class file does not contain the information
+     */
+    String sourceFile() {
+        return sourceFile;
+    }
+
+    /**
+     * The internal names of the classes this class references.
+     *
+     * @return the referenced classes
+     */
+    Set<String> references() {
+        return references;
+    }
+
+    /**
+     * The internal names of the super class and the interfaces this class directly extends or implements.
+     *
+     * @return the direct supertypes
+     */
+    Set<String> supertypes() {
+        return supertypes;
+    }
+
+    /**
+     * A hash of the names, descriptors and values of the fields which are compile-time constants.
+     *
+     * @return the hash of the constants or {@code 0} if the class has no constants
+     */
+    long constants() {
+        return constants;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassFileInfo{name=" + name + ", sourceFile=" + sourceFile + ", references=" + references.size() + "}";
+    }
+
+    private static long readConstants(final DataInputStream data, final String[] utf8, final Object[] values)
+            throws IOException {
+        // FNV-1a over the sorted constants, the order of the fields is not relevant
+        final Set<String> constants = new TreeSet<>();
+        final int count = data.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            // access flags
+            data.readUnsignedShort();
+            final String field = utf8[data.readUnsignedShort()] + ':' + utf8[data.readUnsignedShort()];
+            final int attributes = data.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                final String attributeName = utf8[data.readUnsignedShort()];
+                final int length = data.readInt();
+                if ("ConstantValue".equals(attributeName)) {
+                    final Object value = values[data.readUnsignedShort()];
+                    constants.add(field + '=' + (value instanceof Integer ? "8:" + utf8[(Integer) value] : value));
+                } else {
+                    skipFully(data, length);
+                }
+            }
+        }
+        if (constants.isEmpty()) {
+            return 0L;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (String constant : constants) {
+            for (int i = 0; i < constant.length(); i++) {
+                hash ^= constant.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= '\n';
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static void skipMembers(final DataInputStream data) throws IOException {
+        final int count = data.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            // access flags, name and descriptor
+            skipFully(data, 6);
+            final int attributes = data.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                skipFully(data, 2);
+                skipFully(data, data.readInt());
+            }
+        }
+    }
+
+    private static void skipFully(final DataInputStream data, final int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            final int skipped = data.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of class file");
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private static void addReference(final Set<String> references, final String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (value.charAt(0) == '[') {
+            addDescriptorReferences(references, value);
+        } else {
+            references.add(value);
+        }
+    }
+
+    private static void addDescriptorReferences(final Set<String> references, final String value) {
+        int start = value.indexOf('L');
+        while (start >= 0) {
+            final int end = value.indexOf(';', start);
+            if (end < 0) {
+                return;
+            }
+            final String candidate = value.substring(start + 1, end);
+            if (isInternalName(candidate)) {
+                references.add(candidate);
+                start = value.indexOf('L', end);
+            } else {
+                start = value.indexOf('L', start + 1);
+            }
+        }
+    }
+
+    private static boolean isInternalName(final String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c != '/' && c != '$' && !Character.isJavaIdentifierPart(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
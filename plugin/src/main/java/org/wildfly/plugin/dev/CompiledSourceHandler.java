@@ -6,8 +6,11 @@
 package org.wildfly.plugin.dev;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import org.apache.maven.plugin.MojoExecutionException;
 
@@ -15,14 +18,54 @@ import org.apache.maven.plugin.MojoExecutionException;
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
 class CompiledSourceHandler implements WatchHandler {
+    private static final Result NO_CHANGE = new Result() {
+    };
+    private final IncrementalCompiler compiler;
+
+    /**
+     * Creates a new handler for compiled sources.
+     *
+     * @param compiler the compiler used to compile the changed sources or {@code null} if all sources are compiled
+     *                     with the {@code maven-compiler-plugin}
+     */
+    CompiledSourceHandler(final IncrementalCompiler compiler) {
+        this.compiler = compiler;
+    }
 
     @Override
     public Result handle(final WatchContext context, final WatchEvent<Path> event, final Path file)
             throws IOException, MojoExecutionException {
+        // Without the SourceFile attribute of the classes the dependent sources are unknown, compile all sources
+        if (compiler == null || !compiler.isIncremental()) {
+            return new Result() {
+                @Override
+                public boolean requiresRecompile() {
+                    return true;
+                }
+
+                @Override
+                public boolean requiresRedeploy() {
+                    return true;
+                }
+
+                @Override
+                public boolean requiresRepackage() {
+                    return true;
+                }
+            };
+        }
+        if (Files.notExists(file)) {
+            return handleDelete(file);
+        }
+        if (!file.getFileName().toString().endsWith(".java")) {
+            return NO_CHANGE;
+        }
+        // The compiled classes are written directly to the exploded deployment, a repackage is not required
+        final Set<Path> dirtySources = compiler.dirtySources(file);
         return new Result() {
             @Override
             public boolean requiresRecompile() {
-                return true;
+                return !dirtySources.isEmpty();
             }
 
             @Override
@@ -31,7 +74,48 @@ class CompiledSourceHandler implements WatchHandler {
             }
 
             @Override
-            public boolean requiresRepackage() {
+            public Set<Path> dirtySources() {
+                return dirtySources;
+            }
+
+            @Override
+            public boolean allowsHotSwap() {
+                return true;
+            }
+        };
+    }
+
+    private Result handleDelete(final Path file) {
+        // The file may have been a single source or a directory of sources
+        final Set<Path> deletedSources = compiler.indexedSources(file);
+        final Set<Path> dirtySources = new LinkedHashSet<>();
+        for (Path source : deletedSources) {
+            dirtySources.addAll(compiler.dirtySources(source));
+        }
+        dirtySources.removeAll(deletedSources);
+        return new Result() {
+            @Override
+            public boolean requiresRecompile() {
+                return !dirtySources.isEmpty();
+            }
+
+            @Override
+            public boolean requiresRedeploy() {
+                return !deletedSources.isEmpty();
+            }
+
+            @Override
+            public Set<Path> dirtySources() {
+                return dirtySources;
+            }
+
+            @Override
+            public Set<Path> deletedSources() {
+                return deletedSources;
+            }
+
+            @Override
+            public boolean handlesDelete() {
                 return true;
             }
         };
@@ -0,0 +1,442 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An index of the classes in the output directory, the source files they were compiled from and the classes which
+ * reference them. The index is used to determine which sources need to be recompiled when a source file changes.
+ * <p>
+ * The index can be {@linkplain #store(Path) stored} and {@linkplain #load(Path, Path, List) loaded} again. When
+ * loaded, only the class files which changed since the index was stored are read again.
+ * </p>
+ */
+class DependencyIndex {
+    private static final int FORMAT_VERSION = 3;
+    private final Path outputDirectory;
+    private final List<Path> sourceRoots;
+    // The class name mapped to the source file and the references of the class
+    private final Map<String, ClassEntry> classes = new HashMap<>();
+    // The class name mapped to the names of the classes which reference the class
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    // The class name mapped to the names of the classes which directly extend or implement the class
+    private final Map<String, Set<String>> subtypes = new HashMap<>();
+    // The source file mapped to the names of the classes which were compiled from it
+    private final Map<Path, Set<String>> sources = new HashMap<>();
+    // The classes compiled without a SourceFile attribute, e.g. with -g:none
+    private final Set<String> withoutSourceFile = new HashSet<>();
+
+    DependencyIndex(final Path outputDirectory, final List<Path> sourceRoots) {
+        this.outputDirectory = outputDirectory;
+        this.sourceRoots = List.copyOf(sourceRoots);
+    }
+
+    /**
+     * Creates an index of all the class files found in the output directory.
+     *
+     * @param outputDirectory the directory the class files are compiled to
+     * @param sourceRoots     the source directories the classes are compiled from
+     *
+     * @return the new index
+     *
+     * @throws IOException if an error occurs reading the class files
+     */
+    static DependencyIndex build(final Path outputDirectory, final List<Path> sourceRoots) throws IOException {
+        final DependencyIndex index = new DependencyIndex(outputDirectory, sourceRoots);
+        index.sync();
+        return index;
+    }
+
+    /**
+     * Loads a previously {@linkplain #store(Path) stored} index and {@linkplain #sync() synchronizes} it with the
+     * output directory. If the file does not exist, or was stored for a different output directory or source roots, a
+     * new index is built.
+     *
+     * @param file            the file the index was stored to
+     * @param outputDirectory the directory the class files are compiled to
+     * @param sourceRoots     the source directories the classes are compiled from
+     *
+     * @return the index
+     *
+     * @throws IOException if an error occurs reading the class files
+     */
+    static DependencyIndex load(final Path file, final Path outputDirectory, final List<Path> sourceRoots)
+            throws IOException {
+        final DependencyIndex index = new DependencyIndex(outputDirectory, sourceRoots);
+        if (Files.isRegularFile(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                index.read(in);
+            } catch (IOException ignore) {
+                // The index is only a cache, an invalid index is rebuilt
+                index.clear();
+            }
+        }
+        index.sync();
+        return index;
+    }
+
+    /**
+     * Stores the index to the file.
+     *
+     * @param file the file to store the index to
+     *
+     * @throws IOException if an error occurs writing the file
+     */
+    void store(final Path file) throws IOException {
+        final Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(outputDirectory.toString());
+            out.writeInt(sourceRoots.size());
+            for (Path sourceRoot : sourceRoots) {
+                out.writeUTF(sourceRoot.toString());
+            }
+            out.writeInt(classes.size());
+            for (Map.Entry<String, ClassEntry> entry : classes.entrySet()) {
+                final ClassEntry value = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeUTF(value.source == null ? "" : value.source.toString());
+                out.writeLong(value.lastModified);
+                out.writeLong(value.size);
+                out.writeBoolean(value.hasSourceFile);
+                out.writeLong(value.constants);
+                out.writeInt(value.references.size());
+                for (String reference : value.references) {
+                    out.writeUTF(reference);
+                }
+                out.writeInt(value.supertypes.size());
+                for (String supertype : value.supertypes) {
+                    out.writeUTF(supertype);
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Synchronizes the index with the class files in the output directory. Class files which are new or changed since
+     * they were indexed are read and classes which no longer exist are removed from the index.
+     *
+     * @return the number of classes which were added, updated or removed
+     *
+     * @throws IOException if an error occurs reading the class files
+     */
+    int sync() throws IOException {
+        int changed = 0;
+        final Set<String> found = new HashSet<>();
+        if (Files.isDirectory(outputDirectory)) {
+            final List<Path> classFiles;
+            try (Stream<Path> files = Files.walk(outputDirectory)) {
+                classFiles = files.filter(DependencyIndex::isClassFile).collect(Collectors.toList());
+            }
+            for (Path classFile : classFiles) {
+                final String relativePath = outputDirectory.relativize(classFile).toString().replace('\\', '/');
+                final String className = relativePath.substring(0, relativePath.length() - ".class".length());
+                found.add(className);
+                final ClassEntry entry = classes.get(className);
+                final BasicFileAttributes attributes = Files.readAttributes(classFile, BasicFileAttributes.class);
+                if (entry == null || entry.lastModified != attributes.lastModifiedTime().toMillis()
+                        || entry.size != attributes.size() || (entry.source != null && Files.notExists(entry.source))) {
+                    update(classFile);
+                    changed++;
+                }
+            }
+        }
+        for (String className : Set.copyOf(classes.keySet())) {
+            if (!found.contains(className)) {
+                remove(className);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Reads the class file and updates the index with the information of the class.
+     *
+     * @param classFile the class file
+     *
+     * @throws IOException if an error occurs reading the class file
+     */
+    void update(final Path classFile) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(classFile, BasicFileAttributes.class);
+        final ClassFileInfo info = ClassFileInfo.read(classFile);
+        put(info.name(), new ClassEntry(resolveSource(info), attributes.lastModifiedTime().toMillis(), attributes.size(),
+                info.sourceFile() != null, info.constants(), info.references(), info.supertypes()));
+    }
+
+    /**
+     * Removes the class from the index.
+     *
+     * @param className the internal name of the class
+     */
+    void remove(final String className) {
+        final ClassEntry previous = classes.remove(className);
+        withoutSourceFile.remove(className);
+        if (previous != null) {
+            for (String reference : previous.references) {
+                final Set<String> referencing = dependents.get(reference);
+                if (referencing != null) {
+                    referencing.remove(className);
+                    if (referencing.isEmpty()) {
+                        dependents.remove(reference);
+                    }
+                }
+            }
+            for (String supertype : previous.supertypes) {
+                final Set<String> extending = subtypes.get(supertype);
+                if (extending != null) {
+                    extending.remove(className);
+                    if (extending.isEmpty()) {
+                        subtypes.remove(supertype);
+                    }
+                }
+            }
+            if (previous.source != null) {
+                final Set<String> compiled = sources.get(previous.source);
+                if (compiled != null) {
+                    compiled.remove(className);
+                    if (compiled.isEmpty()) {
+                        sources.remove(previous.source);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the classes which were compiled from the source file.
+     *
+     * @param source the source file
+     *
+     * @return the internal names of the classes compiled from the source file
+     */
+    Set<String> classesOf(final Path source) {
+        return Set.copyOf(sources.getOrDefault(source, Set.of()));
+    }
+
+    /**
+     * Returns the indexed source files which are the path itself or are located in the path.
+     *
+     * @param path the source file or directory
+     *
+     * @return the indexed source files
+     */
+    Set<Path> sources(final Path path) {
+        return sources.keySet()
+                .stream()
+                .filter((source) -> source.startsWith(path))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the source files of the classes which reference any class compiled from the changed sources, or any
+     * class which directly or indirectly extends or implements such a class. A class may call an inherited member
+     * through a subclass, e.g. {@code b.foo()} where {@code foo} is declared by the super class of {@code b}, in which
+     * case the class file only references the subclass. The changed sources themselves are not included in the
+     * result.
+     *
+     * @param changedSources the changed source files
+     *
+     * @return the source files which depend on the changed sources
+     */
+    Set<Path> dependentSources(final Collection<Path> changedSources) {
+        final Set<String> affected = new HashSet<>();
+        final Deque<String> queue = new ArrayDeque<>();
+        for (Path source : changedSources) {
+            queue.addAll(sources.getOrDefault(source, Set.of()));
+        }
+        while (!queue.isEmpty()) {
+            final String className = queue.poll();
+            if (affected.add(className)) {
+                queue.addAll(subtypes.getOrDefault(className, Set.of()));
+            }
+        }
+        final Set<Path> result = new HashSet<>();
+        for (String className : affected) {
+            addSource(result, className);
+            for (String dependent : dependents.getOrDefault(className, Set.of())) {
+                addSource(result, dependent);
+            }
+        }
+        result.removeAll(changedSources);
+        return result;
+    }
+
+    /**
+     * Returns the hash of the {@linkplain ClassFileInfo#constants() compile-time constants} of the class.
+     *
+     * @param className the internal name of the class
+     *
+     * @return the hash of the constants or {@code null} if the class is not indexed
+     */
+    Long constantsOf(final String className) {
+        final ClassEntry entry = classes.get(className);
+        return entry == null ? null : entry.constants;
+    }
+
+    /**
+     * Indicates whether any class was compiled without the {@code SourceFile} attribute, e.g. with {@code -g:none}.
+     * The sources of such classes are unknown, so the sources depending on a changed source cannot be determined.
+     *
+     * @return {@code true} if the source of a class is unknown
+     */
+    boolean hasClassesWithoutSourceFile() {
+        return !withoutSourceFile.isEmpty();
+    }
+
+    /**
+     * The number of classes in the index.
+     *
+     * @return the number of classes
+     */
+    int size() {
+        return classes.size();
+    }
+
+    /**
+     * Resolves the path to the class file of the class in the output directory.
+     *
+     * @param className the internal name of the class
+     *
+     * @return the path to the class file
+     */
+    Path classFile(final String className) {
+        return outputDirectory.resolve(className + ".class");
+    }
+
+    private void put(final String className, final ClassEntry entry) {
+        remove(className);
+        classes.put(className, entry);
+        if (!entry.hasSourceFile) {
+            withoutSourceFile.add(className);
+        }
+        for (String reference : entry.references) {
+            dependents.computeIfAbsent(reference, (key) -> new HashSet<>()).add(className);
+        }
+        for (String supertype : entry.supertypes) {
+            subtypes.computeIfAbsent(supertype, (key) -> new HashSet<>()).add(className);
+        }
+        if (entry.source != null) {
+            sources.computeIfAbsent(entry.source, (key) -> new HashSet<>()).add(className);
+        }
+    }
+
+    private void read(final DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_VERSION || !outputDirectory.toString().equals(in.readUTF())) {
+            return;
+        }
+        final int sourceRootCount = in.readInt();
+        final List<Path> storedSourceRoots = new ArrayList<>(sourceRootCount);
+        for (int i = 0; i < sourceRootCount; i++) {
+            storedSourceRoots.add(Path.of(in.readUTF()));
+        }
+        if (!sourceRoots.equals(storedSourceRoots)) {
+            return;
+        }
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            final String className = in.readUTF();
+            final String source = in.readUTF();
+            final long lastModified = in.readLong();
+            final long size = in.readLong();
+            final boolean hasSourceFile = in.readBoolean();
+            final long constants = in.readLong();
+            final int referenceCount = in.readInt();
+            final Set<String> references = new HashSet<>(referenceCount);
+            for (int j = 0; j < referenceCount; j++) {
+                references.add(in.readUTF());
+            }
+            final int supertypeCount = in.readInt();
+            final Set<String> supertypes = new HashSet<>(supertypeCount);
+            for (int j = 0; j < supertypeCount; j++) {
+                supertypes.add(in.readUTF());
+            }
+            put(className, new ClassEntry(source.isEmpty() ? null : Path.of(source), lastModified, size, hasSourceFile,
+                    constants, Set.copyOf(references), Set.copyOf(supertypes)));
+        }
+    }
+
+    private void clear() {
+        classes.clear();
+        dependents.clear();
+        subtypes.clear();
+        sources.clear();
+        withoutSourceFile.clear();
+    }
+
+    private void addSource(final Set<Path> result, final String className) {
+        final ClassEntry entry = classes.get(className);
+        if (entry != null && entry.source != null) {
+            result.add(entry.source);
+        }
+    }
+
+    private Path resolveSource(final ClassFileInfo info) {
+        final String sourceFile = info.sourceFile();
+        if (sourceFile == null) {
+            return null;
+        }
+        final String packageName = info.packageName();
+        final String relativePath = packageName.isEmpty() ? sourceFile : packageName + "/" + sourceFile;
+        for (Path sourceRoot : sourceRoots) {
+            final Path source = sourceRoot.resolve(relativePath);
+            if (Files.exists(source)) {
+                return source;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isClassFile(final Path path) {
+        return path.getFileName().toString().endsWith(".class") && Files.isRegularFile(path);
+    }
+
+    private static class ClassEntry {
+        final Path source;
+        final long lastModified;
+        final long size;
+        final boolean hasSourceFile;
+        final long constants;
+        final Set<String> references;
+        final Set<String> supertypes;
+
+        private ClassEntry(final Path source, final long lastModified, final long size, final boolean hasSourceFile,
+                final long constants, final Set<String> references, final Set<String> supertypes) {
+            this.source = source;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.hasSourceFile = hasSourceFile;
+            this.constants = constants;
+            this.references = references;
+            this.supertypes = supertypes;
+        }
+    }
+}
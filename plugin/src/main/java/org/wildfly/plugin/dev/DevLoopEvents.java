@@ -0,0 +1,139 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The JDK Flight Recorder events of the dev loop. The events are only used through this class, so the
+ * {@code jdk.jfr} module is not required if it is not {@linkplain DevLoopMetrics#isJfrAvailable() available}.
+ */
+final class DevLoopEvents {
+
+    private DevLoopEvents() {
+    }
+
+    /**
+     * Begins a change event.
+     *
+     * @return the event
+     */
+    static Object beginChange() {
+        final ChangeEvent event = new ChangeEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits a change event.
+     *
+     * @param change  the event returned by {@link #beginChange()}
+     * @param changes the number of changes
+     * @param phases  the time spent in each {@linkplain DevLoopMetrics.Phase phase} in nanoseconds
+     */
+    static void commitChange(final Object change, final int changes, final long[] phases) {
+        final ChangeEvent event = (ChangeEvent) change;
+        event.end();
+        if (event.shouldCommit()) {
+            event.changes = changes;
+            event.detect = phases[DevLoopMetrics.Phase.DETECT.ordinal()];
+            event.queue = phases[DevLoopMetrics.Phase.QUEUE.ordinal()];
+            event.filter = phases[DevLoopMetrics.Phase.FILTER.ordinal()];
+            event.compile = phases[DevLoopMetrics.Phase.COMPILE.ordinal()];
+            event.resources = phases[DevLoopMetrics.Phase.RESOURCES.ordinal()];
+            event.war = phases[DevLoopMetrics.Phase.WAR.ordinal()];
+            event.glowScan = phases[DevLoopMetrics.Phase.GLOW_SCAN.ordinal()];
+            event.reprovision = phases[DevLoopMetrics.Phase.REPROVISION.ordinal()];
+            event.redeploy = phases[DevLoopMetrics.Phase.REDEPLOY.ordinal()];
+            event.commit();
+        }
+    }
+
+    /**
+     * Begins a phase event.
+     *
+     * @param phase the phase
+     *
+     * @return the event
+     */
+    static Object beginPhase(final DevLoopMetrics.Phase phase) {
+        final PhaseEvent event = new PhaseEvent();
+        event.phase = phase.toString();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits a phase event.
+     *
+     * @param phase the event returned by {@link #beginPhase(DevLoopMetrics.Phase)}
+     */
+    static void commitPhase(final Object phase) {
+        ((PhaseEvent) phase).commit();
+    }
+
+    @Name("org.wildfly.plugin.dev.Change")
+    @Label("Dev Mode Change")
+    @Description("A batch of changes built and deployed by the dev goal")
+    @Category({ "WildFly", "Dev Mode" })
+    @StackTrace(false)
+    static class ChangeEvent extends Event {
+        @Label("Changes")
+        int changes;
+
+        @Label("Event Detection")
+        @Timespan(Timespan.NANOSECONDS)
+        long detect;
+
+        @Label("Queued")
+        @Timespan(Timespan.NANOSECONDS)
+        long queue;
+
+        @Label("Ignore Filtering")
+        @Timespan(Timespan.NANOSECONDS)
+        long filter;
+
+        @Label("Compile")
+        @Timespan(Timespan.NANOSECONDS)
+        long compile;
+
+        @Label("Resources")
+        @Timespan(Timespan.NANOSECONDS)
+        long resources;
+
+        @Label("WAR")
+        @Timespan(Timespan.NANOSECONDS)
+        long war;
+
+        @Label("WildFly Glow Scan")
+        @Timespan(Timespan.NANOSECONDS)
+        long glowScan;
+
+        @Label("Reprovision")
+        @Timespan(Timespan.NANOSECONDS)
+        long reprovision;
+
+        @Label("Redeploy")
+        @Timespan(Timespan.NANOSECONDS)
+        long redeploy;
+    }
+
+    @Name("org.wildfly.plugin.dev.Phase")
+    @Label("Dev Mode Phase")
+    @Description("A phase of building and deploying a batch of changes")
+    @Category({ "WildFly", "Dev Mode" })
+    @StackTrace(false)
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records where the time of the dev loop goes. Each batch of changes carries its {@linkplain Timings timings}, which
+ * are recorded once the batch was built and deployed. The percentiles are computed over the most recent batches.
+ * <p>
+ * If the {@code jdk.jfr} module is available, a JDK Flight Recorder event is written for each phase and for each
+ * batch, so the dev loop can be profiled with the standard tools.
+ * </p>
+ */
+class DevLoopMetrics {
+    private static final boolean JFR_AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+    // The number of recent batches the percentiles are computed for
+    private static final int WINDOW = 256;
+
+    /**
+     * The phases of the dev loop.
+     */
+    enum Phase {
+        /**
+         * From the first detected change until the batch was queued, including the quiet period.
+         */
+        DETECT("detect"),
+        /**
+         * From queuing the batch until the build started.
+         */
+        QUEUE("queue"),
+        /**
+         * Checking whether the changed files are ignored.
+         */
+        FILTER("filter"),
+        COMPILE("compile"),
+        RESOURCES("resources"),
+        WAR("war"),
+        GLOW_SCAN("glow"),
+        REPROVISION("reprovision"),
+        REDEPLOY("redeploy");
+
+        private final String label;
+
+        Phase(final String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // The samples of each phase and, at the last index, of the total time of the batches
+    private final long[][] samples = new long[Phase.values().length + 1][WINDOW];
+    private int count;
+
+    /**
+     * Indicates whether the JDK Flight Recorder events are written.
+     *
+     * @return {@code true} if the {@code jdk.jfr} module is available
+     */
+    static boolean isJfrAvailable() {
+        return JFR_AVAILABLE;
+    }
+
+    /**
+     * Records the timings of a built and deployed batch.
+     *
+     * @param timings the timings of the batch
+     * @param changes the number of changes in the batch
+     */
+    synchronized void record(final Timings timings, final int changes) {
+        final long total = timings.finish(changes);
+        final int index = count++ % WINDOW;
+        for (Phase phase : Phase.values()) {
+            samples[phase.ordinal()][index] = timings.nanos[phase.ordinal()];
+        }
+        samples[samples.length - 1][index] = total;
+    }
+
+    /**
+     * The number of recorded batches.
+     *
+     * @return the number of batches
+     */
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Describes the p50 and p95 of the total time and of each phase which took time in any of the recent batches.
+     *
+     * @return the description or {@code null} if no batch was recorded
+     */
+    synchronized String describePercentiles() {
+        if (count == 0) {
+            return null;
+        }
+        final int size = Math.min(count, WINDOW);
+        final List<String> result = new ArrayList<>();
+        result.add(describePercentiles("total", samples[samples.length - 1], size));
+        for (Phase phase : Phase.values()) {
+            final long[] values = samples[phase.ordinal()];
+            if (Arrays.stream(values, 0, size).anyMatch((value) -> value > 0L)) {
+                result.add(describePercentiles(phase.toString(), values, size));
+            }
+        }
+        return String.format("Dev loop latency over the last %d change batch(es), p50/p95: %s", size,
+                String.join(", ", result));
+    }
+
+    private static String describePercentiles(final String name, final long[] values, final int size) {
+        final long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        return String.format("%s %d/%d ms", name, toMillis(percentile(sorted, 50)), toMillis(percentile(sorted, 95)));
+    }
+
+    // Nearest-rank percentile of the sorted values
+    static long percentile(final long[] sorted, final int percentile) {
+        final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static long toMillis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * The timings of a single batch of changes. The batch is started when the first change is detected.
+     */
+    static class Timings {
+        private final long start = System.nanoTime();
+        private final long[] nanos = new long[Phase.values().length];
+        private final Object event = JFR_AVAILABLE ? DevLoopEvents.beginChange() : null;
+        private long queued;
+
+        /**
+         * Starts timing a phase.
+         *
+         * @param phase the phase
+         *
+         * @return the timer which must be {@linkplain Timer#stop() stopped} at the end of the phase
+         */
+        Timer start(final Phase phase) {
+            return new Timer(this, phase);
+        }
+
+        /**
+         * Adds time spent in a phase, without writing a phase event. This is used for short phases which are
+         * repeated for each change, e.g. the ignore filtering.
+         *
+         * @param phase the phase
+         * @param nanos the time spent in nanoseconds
+         */
+        synchronized void add(final Phase phase, final long nanos) {
+            this.nanos[phase.ordinal()] += nanos;
+        }
+
+        /**
+         * Records that the batch was queued, the time since the start is the detection time.
+         */
+        synchronized void queued() {
+            queued = System.nanoTime();
+            nanos[Phase.DETECT.ordinal()] += queued - start;
+        }
+
+        /**
+         * Records that the build of the batch started, the time since the batch was queued is the queue time.
+         */
+        synchronized void started() {
+            if (queued > 0L) {
+                nanos[Phase.QUEUE.ordinal()] += System.nanoTime() - queued;
+                queued = 0L;
+            }
+        }
+
+        /**
+         * Adds the timings of a batch which was merged into the batch of these timings. The detection and filtering
+         * time of the newer batch is added, the batch itself is timed from the start of these timings.
+         *
+         * @param other the timings of the merged batch
+         */
+        synchronized void addAll(final Timings other) {
+            synchronized (other) {
+                for (int i = 0; i < nanos.length; i++) {
+                    if (i != Phase.QUEUE.ordinal()) {
+                        nanos[i] += other.nanos[i];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Describes the phases which took time.
+         *
+         * @return the description of the phases
+         */
+        synchronized String describe() {
+            final List<String> result = new ArrayList<>();
+            for (Phase phase : Phase.values()) {
+                final long value = nanos[phase.ordinal()];
+                if (toMillis(value) > 0L) {
+                    result.add(phase + " " + toMillis(value) + " ms");
+                }
+            }
+            return String.join(", ", result);
+        }
+
+        /**
+         * The time since the first change was detected.
+         *
+         * @return the elapsed time in milliseconds
+         */
+        long elapsedMillis() {
+            return toMillis(System.nanoTime() - start);
+        }
+
+        private synchronized long finish(final int changes) {
+            if (event != null) {
+                DevLoopEvents.commitChange(event, changes, nanos);
+            }
+            return System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Times a single phase.
+     */
+    static class Timer {
+        private final Timings timings;
+        private final Phase phase;
+        private final long start = System.nanoTime();
+        private final Object event;
+
+        private Timer(final Timings timings, final Phase phase) {
+            this.timings = timings;
+            this.phase = phase;
+            this.event = JFR_AVAILABLE ? DevLoopEvents.beginPhase(phase) : null;
+        }
+
+        /**
+         * Stops the timer and adds the time to the phase.
+         */
+        void stop() {
+            timings.add(phase, System.nanoTime() - start);
+            if (event != null) {
+                DevLoopEvents.commitPhase(event);
+            }
+        }
+    }
+}
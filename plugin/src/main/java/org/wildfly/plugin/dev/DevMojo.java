@@ -11,8 +11,6 @@ import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import static org.twdata.maven.mojoexecutor.MojoExecutor.artifactId;
 import static org.twdata.maven.mojoexecutor.MojoExecutor.configuration;
-import static org.twdata.maven.mojoexecutor.MojoExecutor.executeMojo;
-import static org.twdata.maven.mojoexecutor.MojoExecutor.executionEnvironment;
 import static org.twdata.maven.mojoexecutor.MojoExecutor.groupId;
 import static org.twdata.maven.mojoexecutor.MojoExecutor.plugin;
 import static org.twdata.maven.mojoexecutor.MojoExecutor.version;
@@ -20,6 +18,8 @@ import static org.twdata.maven.mojoexecutor.MojoExecutor.version;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.net.URI;
+import java.nio.charset.Charset;
 import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
@@ -33,17 +33,25 @@ import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.DosFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
+import org.apache.maven.RepositoryUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.model.DependencyManagement;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.model.PluginExecution;
 import org.apache.maven.model.Resource;
@@ -57,7 +65,16 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.eclipse.aether.artifact.ArtifactTypeRegistry;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyFilter;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResolutionException;
 import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
 import org.jboss.galleon.ProvisioningException;
 import org.jboss.galleon.api.GalleonBuilder;
 import org.jboss.galleon.api.GalleonFeaturePack;
@@ -80,6 +97,7 @@ import org.wildfly.plugin.common.PropertyNames;
 import org.wildfly.plugin.common.Utils;
 import org.wildfly.plugin.core.MavenJBossLogger;
 import org.wildfly.plugin.deployment.PackageType;
+import org.wildfly.plugin.dev.DevLoopMetrics.Phase;
 import org.wildfly.plugin.provision.ChannelConfiguration;
 import org.wildfly.plugin.provision.ChannelMavenArtifactRepositoryManager;
 import org.wildfly.plugin.provision.GlowConfig;
@@ -148,6 +166,28 @@ public class DevMojo extends AbstractServerStartMojo {
             "install",
             "deploy");
 
+    // The configuration parameters of the compile goal the incremental compiler maps, or which do not change the
+    // compiled classes. Any other parameter, e.g. compilerArguments, executable or excludes, requires the
+    // maven-compiler-plugin.
+    private static final Set<String> INCREMENTAL_COMPILER_PARAMETERS = Set.of(
+            "annotationProcessorPaths",
+            "annotationProcessors",
+            "compilerArgs",
+            "compilerArgument",
+            "compilerId",
+            "debug",
+            "encoding",
+            "fork",
+            "generatedSourcesDirectory",
+            "parameters",
+            "proc",
+            "release",
+            "showDeprecation",
+            "showWarnings",
+            "source",
+            "target",
+            "verbose");
+
     // A list of configuration parameters of the exploded goal as of 3.3.2
     private static final Map<String, String> EXPLODED_WAR_PARAMETERS = Map.ofEntries(
             Map.entry("archive", ""),
@@ -220,7 +260,17 @@ public class DevMojo extends AbstractServerStartMojo {
             Map.entry("webResources", ""),
             Map.entry("webXml", ""),
             Map.entry("workDirectory", ""));
-    private final Map<WatchKey, WatchContext> watchedDirectories = new HashMap<>();
+    // The maximum time changes are collected into a single batch when changes keep occurring within the quiet period
+    private static final long MAX_BATCH_DURATION = TimeUnit.SECONDS.toNanos(10L);
+    // The maximum number of batches waiting for the worker, further batches are merged into the newest batch
+    private static final int MAX_QUEUED_BATCHES = 8;
+    // The scopes of the compile classpath of a reactor module, an empty scope is the default compile scope
+    private static final Set<String> COMPILE_SCOPES = Set.of("", Artifact.SCOPE_COMPILE, Artifact.SCOPE_PROVIDED,
+            Artifact.SCOPE_SYSTEM);
+    // The watched directories, indexed by path
+    private DirectoryRegistry watchedDirectories;
+    // The state of the watched files, used to find changes the watcher missed
+    private final FileSnapshot snapshot = new FileSnapshot();
 
     @Inject
     private BuildPluginManager pluginManager;
@@ -263,7 +313,8 @@ public class DevMojo extends AbstractServerStartMojo {
     /**
      * File patterns that we should ignore during watch.
      * <p>
-     * Hidden files and files ending with '~' are ignored.
+     * Hidden files and files ending with '~' are ignored, as are files and directories ignored by the
+     * {@code .gitignore} files of the project if {@code use-gitignore} is enabled.
      * </p>
      * <p>
      * You can set the system property {@code wildfly.dev.ignore.patterns} to a white space separated list of file
@@ -273,6 +324,82 @@ public class DevMojo extends AbstractServerStartMojo {
     @Parameter(property = "wildfly.dev.ignore.patterns", alias = "ignore-patterns")
     private List<String> ignorePatterns = new ArrayList<>();
 
+    /**
+     * Ignores the files and directories which are ignored by the {@code .gitignore} files of the project, its parent
+     * directories up to the root of the Git repository and the watched directories. Ignored directories are not
+     * watched. The source, resource and web application directories of the project are always watched, even if they
+     * are in an ignored directory.
+     */
+    @Parameter(alias = "use-gitignore", property = "wildfly.dev.use.gitignore", defaultValue = "false")
+    private boolean useGitIgnore;
+
+    /**
+     * The time, in milliseconds, to wait for further changes before the collected changes are processed. All changes
+     * which happen within this window, for example when an IDE saves several files or a branch is switched, are handled
+     * as a single batch. The sources are then compiled, the deployment repackaged and redeployed at most once for the
+     * batch.
+     * <p>
+     * A value of {@code 0} processes the changes as soon as they are seen.
+     * </p>
+     */
+    @Parameter(alias = "quiet-period", property = "wildfly.dev.quiet.period", defaultValue = "200")
+    private long quietPeriod;
+
+    /**
+     * The time, in milliseconds, without any change after which the watched directories are reconciled with a
+     * snapshot of the watched files. Changes which were missed by the file watcher are then handled like any other
+     * change. A value of {@code 0} disables the periodic reconciliation.
+     * <p>
+     * The watched directories are always reconciled if the file watcher reports that events were lost, e.g. after a
+     * branch switch, or when a new directory is created.
+     * </p>
+     */
+    @Parameter(alias = "reconcile-interval", property = "wildfly.dev.reconcile.interval", defaultValue = "0")
+    private long reconcileInterval;
+
+    /**
+     * Polls the watched directories for changes rather than using the file system notifications of the operating
+     * system. This can be enabled for very large source trees which exceed the number of directories the operating
+     * system allows to be watched, e.g. the {@code fs.inotify.max_user_watches} limit on Linux.
+     */
+    @Parameter(alias = "polling-watcher", property = "wildfly.dev.polling.watcher", defaultValue = "false")
+    private boolean pollingWatcher;
+
+    /**
+     * The interval, in milliseconds, in which the watched directories are polled for changes if the
+     * {@code polling-watcher} is enabled.
+     */
+    @Parameter(alias = "poll-interval", property = "wildfly.dev.poll.interval", defaultValue = "1000")
+    private long pollInterval;
+
+    /**
+     * Compiles changed sources in-process rather than executing the {@code maven-compiler-plugin} for each change. The
+     * compiler is kept for the life of the goal and only the changed sources, and the sources which depend on them, are
+     * compiled. The compiled classes are written directly to the exploded deployment.
+     * <p>
+     * The {@code release}, {@code source}, {@code target}, {@code encoding}, {@code compilerArgs} and annotation
+     * processor settings of the {@code maven-compiler-plugin} are honored. The {@code maven-compiler-plugin} is still
+     * used if no system Java compiler is available, the compiler is forked, a compiler other than {@code javac} is
+     * configured or the {@code maven-compiler-plugin} is configured with any other parameter, e.g.
+     * {@code compilerArguments}, {@code executable} or {@code excludes}.
+     * </p>
+     */
+    @Parameter(alias = "incremental-compile", property = "wildfly.dev.incremental.compile", defaultValue = "false")
+    private boolean incrementalCompile;
+
+    /**
+     * Redefines the changed classes in the running server, rather than redeploying the application, when only the
+     * bodies of methods changed. The classes are redefined over the debug port, which requires the server to be started
+     * with {@code debug} enabled. If the server refuses to redefine the classes, e.g. because a method or field was
+     * added, the application is redeployed.
+     * <p>
+     * Hot swapping requires the {@code incremental-compile} option to be enabled and is not supported for remote
+     * servers.
+     * </p>
+     */
+    @Parameter(alias = "hot-swap", property = "wildfly.dev.hot.swap", defaultValue = "false")
+    private boolean hotSwap;
+
     /**
      * If set to {@code true} a server will not be provisioned or started and the application will be deployed to a
      * remote server.
@@ -280,6 +407,40 @@ public class DevMojo extends AbstractServerStartMojo {
     @Parameter(property = "wildfly.dev.remote", defaultValue = "false")
     private boolean remote;
 
+    /**
+     * Deploys the application to the remote server as a managed exploded deployment and only uploads the changed
+     * files, and removes the removed files, for each change rather than redeploying the whole archive. This is only
+     * used if {@code remote} is enabled.
+     */
+    @Parameter(alias = "remote-delta", property = "wildfly.dev.remote.delta", defaultValue = "false")
+    private boolean remoteDelta;
+
+    /**
+     * Watches the sources and resources of the modules in the reactor the deployment depends on. When a module changes,
+     * it is compiled and its library in the exploded deployment is replaced before the application is redeployed. This
+     * is only used if the server is running locally.
+     * <p>
+     * A module is compiled against its own compile classpath, which is resolved when dev mode starts. If it cannot be
+     * resolved, the module is compiled against the compile classpath of the deployment, which lacks the
+     * {@code provided} dependencies of the module.
+     * </p>
+     */
+    @Parameter(alias = "watch-reactor-modules", property = "wildfly.dev.watch.reactor.modules", defaultValue = "false")
+    private boolean watchReactorModules;
+
+    /**
+     * Skips the build of the deployment and the provisioning of the server when the goal is started again and their
+     * inputs did not change since the goal last built the deployment and provisioned the server. The state is stored
+     * in the {@code wildfly-dev} directory of the build directory.
+     * <p>
+     * The inputs of the build include the POM and its parents, the user properties and the active profiles. The
+     * server is always provisioned again if {@code commands} or {@code scripts} are configured, as they change the
+     * server and are executed again on each start.
+     * </p>
+     */
+    @Parameter(alias = "skip-up-to-date", property = "wildfly.dev.skip.up.to.date", defaultValue = "false")
+    private boolean skipUpToDate;
+
     /**
      * Arbitrary Galleon options used when provisioning the server. In case you
      * are building a large amount of server in the same maven session, it
@@ -317,6 +478,42 @@ public class DevMojo extends AbstractServerStartMojo {
     @Parameter(alias = "overwrite-provisioned-server", defaultValue = "false", property = PropertyNames.WILDFLY_PROVISIONING_OVERWRITE_PROVISIONED_SERVER)
     private boolean overwriteProvisionedServer;
 
+    /**
+     * The maximum number of servers provisioned for changed layers which are kept when discovery of Galleon
+     * provisioning information is enabled. When the discovered layers change back to a set of layers a server was
+     * provisioned for before, that server is started rather than provisioning a new server. The least recently used
+     * servers are deleted. The servers are kept in {@code target/wildfly-dev/servers}.
+     * <p>
+     * A value of {@code 0} disables the cache and the server is provisioned again for each change of the layers.
+     * </p>
+     */
+    @Parameter(alias = "provisioned-server-cache-size", property = "wildfly.dev.provisioned.server.cache.size", defaultValue = "3")
+    private int provisionedServerCacheSize;
+
+    /**
+     * Defers building and redeploying the changes until the application is requested. A HTTP proxy is started on the
+     * {@code proxy-port} in front of the HTTP port of the server. A request which arrives while changes are pending
+     * triggers the build and is held until the changes are deployed, so a series of edits is only deployed once.
+     * <p>
+     * The application must be requested through the proxy for the changes to be deployed. Requests are held for at
+     * most the {@code timeout}.
+     * </p>
+     */
+    @Parameter(alias = "lazy-redeploy", property = "wildfly.dev.lazy.redeploy", defaultValue = "false")
+    private boolean lazyRedeploy;
+
+    /**
+     * The host name the proxy for the {@code lazy-redeploy} listens on.
+     */
+    @Parameter(alias = "proxy-host", property = "wildfly.dev.proxy.host", defaultValue = "localhost")
+    private String proxyHost;
+
+    /**
+     * The port the proxy for the {@code lazy-redeploy} listens on.
+     */
+    @Parameter(alias = "proxy-port", property = "wildfly.dev.proxy.port", defaultValue = "8090")
+    private int proxyPort;
+
     /**
      * A list of feature-pack configurations to install, can be combined with layers. Use the System property
      * {@code wildfly.provisioning.feature-packs} to provide a comma separated list of feature-packs.
@@ -394,16 +591,40 @@ public class DevMojo extends AbstractServerStartMojo {
     @Parameter(alias = "discover-provisioning-info")
     private GlowConfig discoverProvisioningInfo;
 
-    // Lazily loaded list of patterns based on the ignorePatterns
-    private final List<Pattern> ignoreUpdatePatterns = new ArrayList<>();
+    private IgnoreMatcher ignoreMatcher;
+    // The resolved executions of the goals executed for changes, by project and goal
+    private final Map<String, MojoExecutionPlan> executionPlans = new HashMap<>();
     // Lazy loaded
     private final Set<String> allowedWarPluginParams = new HashSet<>();
 
     private String warGoal = MAVEN_EXPLODED_GOAL;
     private ScanResults results;
+    // The fingerprint of the deployment when it was last scanned by WildFly Glow
+    private final GlowScanCache scanCache = new GlowScanCache();
     private Path installDir;
+    // The home directory of the server currently in use, which may be a cached server
+    private Path serverHome;
+    private ProvisionedServerCache serverCache;
+    // Guards the exploded deployment, which is updated by the handlers on the watcher thread and rebuilt or repackaged
+    // on the worker thread, and requiresWarDeletion
+    private final Object deploymentLock = new Object();
     private boolean requiresWarDeletion;
     private Logger mavenJBossLogger;
+    private IncrementalCompiler compiler;
+    private HotSwapper hotSwapper;
+    private RemoteContentSync remoteSync;
+    private RedeployProxy redeployProxy;
+    private final List<ReactorModule> reactorModules = new ArrayList<>();
+    private BuildSnapshot buildSnapshot;
+    // The key of the provisioning configuration of the server in use, if provisioned with a configuration
+    private String provisionedKey;
+    // The WildFly Glow fingerprint of the last scanned deployment
+    private String scannedFingerprint;
+    // The latency of the dev loop, by phase
+    private final DevLoopMetrics devLoopMetrics = new DevLoopMetrics();
+    private final AtomicBoolean latencySummaryLogged = new AtomicBoolean();
+    private int hotSwaps;
+    private int redeploys;
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
@@ -413,6 +634,7 @@ public class DevMojo extends AbstractServerStartMojo {
         }
         mavenJBossLogger = new MavenJBossLogger(getLog());
         serverConfig = serverConfig == null ? "standalone.xml" : serverConfig;
+        buildSnapshot = BuildSnapshot.load(resolveDevDirectory().resolve("build-snapshot.properties"));
         ServerContext context = null;
         if (remote) {
             init();
@@ -423,6 +645,10 @@ public class DevMojo extends AbstractServerStartMojo {
                     overwriteProvisionedServer = true;
                     getLog().info("Layer discovery has been enabled, overwriteProvisionedServer has been set to true");
                 }
+                if (provisionedServerCacheSize > 0) {
+                    serverCache = new ProvisionedServerCache(resolveDevDirectory().resolve("servers"),
+                            provisionedServerCacheSize);
+                }
             } else {
                 context = startServer(ServerType.STANDALONE);
             }
@@ -430,9 +656,16 @@ public class DevMojo extends AbstractServerStartMojo {
         try {
             // Do we need to build first?
             if (needsCompile()) {
-                triggerResources();
-                triggerCompile();
-                triggerWarGoal();
+                final long generation = buildSnapshot.generation();
+                final String inputs = hashBuildInputs();
+                if (skipUpToDate && isBuildUpToDate(inputs)) {
+                    getLog().info("The deployment is up-to-date, skipping the build.");
+                } else {
+                    triggerResources();
+                    triggerCompile();
+                    triggerWarGoal();
+                    recordBuild(generation, inputs);
+                }
             } else {
                 // First update will imply to delete the war and redeploy it.
                 // in the remote case, we have a war and must keep it.
@@ -442,13 +675,32 @@ public class DevMojo extends AbstractServerStartMojo {
             if (!remote && isDiscoveryEnabled()) {
                 context = startServer(ServerType.STANDALONE);
             }
-            try (final WatchService watcher = FileSystems.getDefault().newWatchService()) {
-                final CompiledSourceHandler sourceHandler = new CompiledSourceHandler();
-                registerDir(watcher, Path.of(project.getBuild().getSourceDirectory()), sourceHandler);
+            try (
+                    final WatchService watcher = pollingWatcher ? new PollingWatchService(pollInterval)
+                            : FileSystems.getDefault().newWatchService();
+                    IncrementalCompiler compiler = createIncrementalCompiler(project, compileClasspath(),
+                            resolveDevDirectory().resolve("dependency-index.bin"))) {
+                this.compiler = compiler;
+                final MavenProject topLevelProject = mavenSession.getTopLevelProject();
+                ignoreMatcher = new IgnoreMatcher(ignorePatterns, useGitIgnore,
+                        topLevelProject == null ? null : topLevelProject.getBasedir().toPath());
+                ignoreMatcher.addRoot(project.getBasedir().toPath());
+                watchedDirectories = new DirectoryRegistry(watcher, Path.of(project.getBuild().getOutputDirectory()),
+                        ignoreMatcher);
+                if (hotSwap && debug && !remote && compiler != null) {
+                    hotSwapper = HotSwapper.create(debugHost, debugPort, getLog());
+                }
+                final CompiledSourceHandler sourceHandler = new CompiledSourceHandler(compiler);
+                registerRoot(Path.of(project.getBuild().getSourceDirectory()), sourceHandler);
+                final ResourceHandler resourceHandler = new ResourceHandler(createResourceSync());
                 for (Resource resource : project.getResources()) {
-                    registerDir(watcher, Path.of(resource.getDirectory()), new ResourceHandler());
+                    registerRoot(Path.of(resource.getDirectory()), resourceHandler);
                 }
-                registerDir(watcher, resolveWebAppSourceDir(), new WebAppResourceHandler(webExtensions));
+                final Path webAppSourceDir = resolveWebAppSourceDir();
+                registerRoot(webAppSourceDir, new WebAppResourceHandler(webExtensions, createWebAppSync(webAppSourceDir)));
+                registerReactorModules();
+                debug("Watching %d directories, ignored %d directories (%d .gitignore rules)",
+                        watchedDirectories.size(), watchedDirectories.ignored(), ignoreMatcher.ruleCount());
                 try (ModelControllerClient client = createClient()) {
                     final StandaloneManager serverManager = ServerManager.builder().client(client).standalone();
                     if (!serverManager.isRunning()) {
@@ -482,21 +734,36 @@ public class DevMojo extends AbstractServerStartMojo {
                     final DeploymentManager deploymentManager = serverManager.deploymentManager();
                     final Deployment deployment = getDeploymentContent();
                     try {
-                        final DeploymentResult result = deploymentManager.forceDeploy(deployment);
-                        if (!result.successful()) {
-                            throw new MojoExecutionException("Failed to deploy content: " + result.getFailureMessage());
+                        if (remote && remoteDelta) {
+                            remoteSync = new RemoteContentSync(client, resolveWarLocation().getFileName().toString(),
+                                    resolveWarDir());
+                            getLog().info(String.format("Deployed %s as exploded deployment: %s", deployment,
+                                    remoteSync.deploy()));
+                        } else {
+                            final DeploymentResult result = deploymentManager.forceDeploy(deployment);
+                            if (!result.successful()) {
+                                throw new MojoExecutionException("Failed to deploy content: " + result.getFailureMessage());
+                            }
+                            if (remote) {
+                                getLog().info(String.format("Deployed %s", deployment));
+                            }
                         }
-                        if (remote) {
-                            getLog().info(String.format("Deployed %s", deployment));
+                        if (lazyRedeploy) {
+                            redeployProxy = startRedeployProxy(client);
                         }
                         watch(watcher, deploymentManager, deployment);
                     } finally {
+                        if (redeployProxy != null) {
+                            redeployProxy.close();
+                        }
                         deploymentManager.undeploy(UndeployDescription.of(deployment));
                         serverManager.shutdown();
                     }
                 }
             } catch (IOException e) {
                 throw new MojoExecutionException(e.getLocalizedMessage(), e);
+            } finally {
+                closeReactorModules();
             }
         } finally {
             if (context != null) {
@@ -557,13 +824,37 @@ public class DevMojo extends AbstractServerStartMojo {
 
     GalleonProvisioningConfig shouldReprovision() {
         // Remote or no initial Glow scanning
-        if (remote || results == null) {
+        if (remote || !isDiscoveryEnabled() || (results == null && provisionedKey == null)) {
             return null;
         }
         try {
+            final String fingerprint = fingerprintDeployment();
+            if (scanCache.isCached(fingerprint)) {
+                debug("Deployment unchanged for WildFly Glow, skipped scan (hits: %d, misses: %d, saved: %d ms)",
+                        scanCache.hits(), scanCache.misses(), scanCache.savedMillis());
+                return null;
+            }
             GalleonBuilder galleonBuilder = new GalleonBuilder();
             galleonBuilder.addArtifactResolver(mavenRepoManager);
+            final long start = System.nanoTime();
             ScanResults newResults = scanDeployment(galleonBuilder);
+            final long scanTime = System.nanoTime() - start;
+            scanCache.scanned(fingerprint, scanTime);
+            scannedFingerprint = fingerprint;
+            debug("Scanned the deployment with WildFly Glow in %d ms (hits: %d, misses: %d, saved: %d ms)",
+                    TimeUnit.NANOSECONDS.toMillis(scanTime), scanCache.hits(), scanCache.misses(),
+                    scanCache.savedMillis());
+            if (results == null) {
+                // The initial scan was skipped as the server was up-to-date, compare the provisioning configurations
+                results = newResults;
+                if (!provisionedKey.equals(provisioningKey(galleonBuilder, newResults.getProvisioningConfig()))) {
+                    getLog().info("Set of discovered layers changed, needs to re-provision. New layers: "
+                            + newResults.getDecorators());
+                    return newResults.getProvisioningConfig();
+                }
+                buildSnapshot.recordGlowFingerprint(fingerprint);
+                return null;
+            }
             try {
                 if (!results.getDecorators().equals(newResults.getDecorators())) {
                     getLog().info("Set of discovered layers changed, needs to re-provision. New layers: "
@@ -575,6 +866,7 @@ public class DevMojo extends AbstractServerStartMojo {
                             + newResults.getExcludedLayers());
                     return newResults.getProvisioningConfig();
                 }
+                buildSnapshot.recordGlowFingerprint(fingerprint);
             } finally {
                 if (results != null) {
                     results.close();
@@ -587,58 +879,115 @@ public class DevMojo extends AbstractServerStartMojo {
         return null;
     }
 
-    boolean reprovisionAndStart()
+    void reprovisionAndStart(final GalleonProvisioningConfig newConfig)
             throws IOException, InterruptedException, MojoExecutionException, MojoFailureException, ProvisioningException {
-        GalleonProvisioningConfig newConfig = shouldReprovision();
-        if (newConfig == null) {
-            return false;
-        }
         debug("Changes in layers detected, must re-provision the server");
+        GalleonBuilder galleonBuilder = new GalleonBuilder();
+        galleonBuilder.addArtifactResolver(mavenRepoManager);
+        final String key = provisioningKey(galleonBuilder, newConfig);
+        final Path cached = serverCache == null ? null : serverCache.get(key);
         try (ModelControllerClient client = createClient()) {
             ServerManager.builder().client(client).standalone().shutdown();
+        }
+        if (cached != null) {
+            getLog().info("Using the server previously provisioned for the discovered layers in " + cached);
+            serverHome = cached;
+        } else if (serverCache != null) {
+            serverHome = provisionCachedServer(galleonBuilder, newConfig, key);
+        } else {
+            buildSnapshot.invalidateProvisioning();
             debug("Deleting existing installation " + installDir);
             IoUtils.recursiveDelete(installDir);
+            ProvisioningBuilder builder = galleonBuilder.newProvisioningBuilder(newConfig);
+            try (Provisioning pm = builder
+                    .setInstallationHome(installDir)
+                    .setMessageWriter(new MvnMessageWriter(getLog()))
+                    .build()) {
+                provisionServer(pm, newConfig, installDir);
+            }
+            serverHome = installDir;
         }
-        GalleonBuilder galleonBuilder = new GalleonBuilder();
-        galleonBuilder.addArtifactResolver(mavenRepoManager);
-        ProvisioningBuilder builder = galleonBuilder.newProvisioningBuilder(newConfig);
-        try (Provisioning pm = builder
-                .setInstallationHome(installDir)
+        provisioned(key);
+        startServer(ServerType.STANDALONE);
+    }
+
+    private void provisioned(final String key) throws IOException {
+        provisionedKey = key;
+        buildSnapshot.recordProvisioning(key, serverHome, scannedFingerprint);
+    }
+
+    private Path provisionCachedServer(final GalleonBuilder galleonBuilder, final GalleonProvisioningConfig config,
+            final String key) throws IOException, ProvisioningException, MojoExecutionException {
+        final Path targetDir = serverCache.prepare(key, serverHome);
+        try (Provisioning pm = galleonBuilder.newProvisioningBuilder(config)
+                .setInstallationHome(targetDir)
                 .setMessageWriter(new MvnMessageWriter(getLog()))
                 .build()) {
-            provisionServer(pm, newConfig);
+            provisionServer(pm, config, targetDir);
         }
-        startServer(ServerType.STANDALONE);
-        return true;
+        serverCache.provisioned(key);
+        return targetDir;
     }
 
     @Override
     protected Path provisionIfRequired(final Path installDir) throws MojoFailureException, MojoExecutionException {
-        // This is called for the initial start of the server.
+        // The server has already been provisioned, either for the initial start or because the layers changed
+        if (serverHome != null) {
+            return serverHome;
+        }
         this.installDir = installDir;
         if (!overwriteProvisionedServer && Files.exists(installDir)) {
             getLog().info(String.format("A server already exists in %s, provisioning for %s:%s", installDir,
                     project.getGroupId(), project.getArtifactId()));
+            serverHome = installDir;
             return installDir;
         }
-        if (Files.exists(installDir)) {
-            IoUtils.recursiveDelete(installDir);
-        }
         try {
             GalleonBuilder provider = new GalleonBuilder();
             provider.addArtifactResolver(mavenRepoManager);
             GalleonProvisioningConfig config;
+            String fingerprint = null;
             if (featurePacks.isEmpty() && !isDiscoveryEnabled()) {
-                return super.provisionIfRequired(installDir);
+                buildSnapshot.invalidateProvisioning();
+                if (Files.exists(installDir)) {
+                    IoUtils.recursiveDelete(installDir);
+                }
+                serverHome = super.provisionIfRequired(installDir);
+                return serverHome;
             } else {
                 if (!isDiscoveryEnabled()) {
                     config = GalleonUtils.buildConfig(provider, featurePacks, layers, excludedLayers, galleonOptions,
                             serverConfig == null ? "standalone.xml" : serverConfig);
                 } else {
+                    fingerprint = fingerprintDeployment();
+                    final Path recorded = buildSnapshot.serverHome();
+                    if (canReuseServer() && recorded != null && fingerprint != null
+                            && fingerprint.equals(buildSnapshot.glowFingerprint())) {
+                        getLog().info(String.format("The deployment did not change since the layers were discovered, "
+                                + "skipping the provisioning. Using the server in %s", recorded));
+                        scanCache.scanned(fingerprint, 0L);
+                        scannedFingerprint = fingerprint;
+                        return useProvisionedServer(buildSnapshot.provisioningKey(), recorded);
+                    }
+                    final long start = System.nanoTime();
                     results = scanDeployment(provider);
+                    scanCache.scanned(fingerprint, System.nanoTime() - start);
+                    scannedFingerprint = fingerprint;
                     config = results.getProvisioningConfig();
                 }
             }
+            final String key = provisioningKey(provider, config);
+            final Path recorded = buildSnapshot.serverHome();
+            if (canReuseServer() && recorded != null && key.equals(buildSnapshot.provisioningKey())) {
+                getLog().info(String.format("The provisioning configuration did not change, skipping the "
+                        + "provisioning. Using the server in %s", recorded));
+                buildSnapshot.recordProvisioning(key, recorded, fingerprint);
+                return useProvisionedServer(key, recorded);
+            }
+            buildSnapshot.invalidateProvisioning();
+            if (Files.exists(installDir)) {
+                IoUtils.recursiveDelete(installDir);
+            }
             getLog().info("Provisioning server in " + installDir);
             try (Provisioning pm = provider.newProvisioningBuilder(config)
                     .setInstallationHome(installDir)
@@ -653,10 +1002,62 @@ public class DevMojo extends AbstractServerStartMojo {
                     throw new MojoExecutionException("Invalid plugin configuration, no server provisioned.");
                 }
             }
+            buildSnapshot.recordProvisioning(key, installDir, fingerprint);
+            return useProvisionedServer(key, installDir);
         } catch (Exception e) {
             throw new MojoFailureException(e.getLocalizedMessage(), e);
         }
-        return installDir;
+    }
+
+    /**
+     * Indicates whether the server provisioned when the goal was last started can be used again. The commands and
+     * scripts are not idempotent in general, and the server they were executed on must not be used again.
+     */
+    private boolean canReuseServer() {
+        if (!skipUpToDate) {
+            return false;
+        }
+        if (!commands.isEmpty() || !scripts.isEmpty()) {
+            debug("Commands or scripts are configured, the server is provisioned again");
+            return false;
+        }
+        return true;
+    }
+
+    private Path useProvisionedServer(final String key, final Path home) {
+        if (serverCache != null && isDiscoveryEnabled()) {
+            serverCache.register(key, home);
+        }
+        provisionedKey = key;
+        serverHome = home;
+        return home;
+    }
+
+    /**
+     * Creates the key of the provisioning configuration for the {@linkplain ProvisionedServerCache server cache} from
+     * the stored configuration.
+     */
+    private String provisioningKey(final GalleonBuilder galleonBuilder, final GalleonProvisioningConfig config)
+            throws ProvisioningException, IOException {
+        final Path devDir = Files.createDirectories(resolveDevDirectory());
+        final Path file = Files.createTempFile(devDir, "provisioning", ".xml");
+        try {
+            try (Provisioning pm = galleonBuilder.newProvisioningBuilder(config).build()) {
+                pm.storeProvisioningConfig(config, file);
+            }
+            return ProvisionedServerCache.key(Files.readAllBytes(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private String fingerprintDeployment() {
+        try {
+            return scanCache.fingerprint(resolveWarLocation());
+        } catch (IOException e) {
+            debug("Failed to fingerprint the deployment, it will be scanned: %s", e);
+            return null;
+        }
     }
 
     private ScanResults scanDeployment(GalleonBuilder pm) throws Exception {
@@ -673,265 +1074,1168 @@ public class DevMojo extends AbstractServerStartMojo {
                 serverConfig);
     }
 
-    private void provisionServer(Provisioning pm, GalleonProvisioningConfig config)
+    private void provisionServer(Provisioning pm, GalleonProvisioningConfig config, Path targetDir)
             throws ProvisioningException, MojoExecutionException {
-        getLog().info("Provisioning server in " + installDir);
+        getLog().info("Provisioning server in " + targetDir);
         PluginProgressTracker.initTrackers(pm, mavenJBossLogger);
         pm.provision(config);
         // Check that at least the standalone or domain directories have been generated.
-        if (Files.notExists(installDir.resolve("standalone")) && Files.notExists(installDir.resolve("domain"))) {
-            getLog().error("Invalid galleon provisioning, no server provisioned in " + installDir + ". Make sure "
+        if (Files.notExists(targetDir.resolve("standalone")) && Files.notExists(targetDir.resolve("domain"))) {
+            getLog().error("Invalid galleon provisioning, no server provisioned in " + targetDir + ". Make sure "
                     + "that the list of Galleon feature-packs and Galleon layers are properly configured.");
             throw new MojoExecutionException("Invalid plugin configuration, no server provisioned.");
         }
     }
 
-    private boolean registerDir(final WatchService watcher, final Path dir, final WatchHandler handler) throws IOException {
-        if (Files.exists(dir) && Files.isDirectory(dir)) {
-            final int currentSize = watchedDirectories.size();
-            final Set<Path> registered = watchedDirectories.values()
-                    .stream()
-                    .map(WatchContext::directory)
-                    .collect(Collectors.toCollection(HashSet::new));
-            Files.walkFileTree(dir, new SimpleFileVisitor<>() {
-                @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                    if (!project.getBuild().getOutputDirectory().equals(dir.toString())) {
-                        if (registered.add(dir)) {
-                            final WatchKey key = dir.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
-                            watchedDirectories.put(key, WatchContext.of(dir, handler));
-                            debug("Watching for changes in %s", dir);
-                        }
-                        return FileVisitResult.CONTINUE;
-                    } else {
-                        return FileVisitResult.SKIP_SUBTREE;
-                    }
-                }
-            });
-            return currentSize == watchedDirectories.size();
+    /**
+     * Registers a directory declared by the project, which is never ignored, and records its current files.
+     */
+    private void registerRoot(final Path dir, final WatchHandler handler) throws IOException {
+        ignoreMatcher.addWatchedRoot(dir);
+        registerDir(dir, handler, true);
+    }
+
+    /**
+     * Registers the directory, and all of its sub-directories which are not yet watched, with the watcher.
+     *
+     * @param record {@code true} to record the current files in the snapshot, {@code false} if the current files
+     *                   should be handled as created when the directory is reconciled
+     *
+     * @return {@code true} if a new directory was registered
+     */
+    private boolean registerDir(final Path dir, final WatchHandler handler, final boolean record) throws IOException {
+        final List<Path> registered = watchedDirectories.register(dir, handler);
+        for (Path registeredDir : registered) {
+            snapshot.addDirectory(registeredDir, record);
+            debug("Watching for changes in %s", registeredDir);
         }
-        return false;
+        return !registered.isEmpty();
     }
 
     @SuppressWarnings("InfiniteLoopStatement")
     private void watch(final WatchService watcher, final DeploymentManager deploymentManager, final Deployment deployment) {
-        final var projectDir = project.getBasedir().toPath();
+        // Changes are built and deployed on a worker thread, which allows the watcher to keep collecting changes
+        final BuildQueue queue = new BuildQueue(MAX_QUEUED_BATCHES);
+        final Thread worker = new Thread(() -> processBatches(queue, deploymentManager, deployment),
+                "wildfly-dev-worker");
+        worker.setDaemon(true);
+        worker.start();
+        // The dev goal is usually stopped with Ctrl+C, log the latency summary from a shutdown hook as well
+        final Thread metricsHook = new Thread(this::logLatencySummary, "wildfly-dev-metrics");
+        Runtime.getRuntime().addShutdownHook(metricsHook);
         try {
             for (;;) {
-                WatchKey key = watcher.take();
-                for (WatchEvent<?> event : key.pollEvents()) {
-                    WatchEvent.Kind<?> kind = event.kind();
-                    if (kind == OVERFLOW) {
-                        continue;
-                    }
-                    @SuppressWarnings("unchecked")
-                    final WatchEvent<Path> ev = (WatchEvent<Path>) event;
-                    debug("File changed [%s]: %s", ev.kind().name(), ev.context());
-                    final Path absolutePath = getPath(key, ev.context());
-                    if (absolutePath == null) {
-                        continue;
-                    }
-                    final var eventPath = absolutePath.getFileName();
-                    try {
-                        if (isIgnoredChange(eventPath)) {
-                            debug("Ignoring change for %s", eventPath);
-                            continue;
-                        }
-                    } catch (IOException ex) {
-                        debug("Failed checking %s for ignored state: %s", eventPath, ex);
-                    }
-                    try {
-                        final var context = watchedDirectories.get(key);
-                        if (context == null) {
-                            getLog().warn(String.format("Failed to find context for %s", ev.context()));
-                            continue;
-                        }
-                        final var relativePath = projectDir.relativize(absolutePath);
-                        if (ev.kind() == ENTRY_DELETE) {
-                            // Undeploy application as Windows won't be able to delete the directory
-                            DeploymentResult deploymentResult = deploymentManager.undeploy(UndeployDescription.of(deployment));
-                            if (!deploymentResult.successful()) {
-                                getLog().warn(String.format(
-                                        "Failed to undeploy application. Unexpected results may occur. Failure: %s",
-                                        deploymentResult.getFailureMessage()));
-                            } else {
-                                // Clean the deployment directory if that is a first update and no compilation occured
-                                // meaning that is a war file, not an exploded directory.
-                                final Path path = resolveWarLocation();
-                                deleteRecursively(path);
-                                triggerResources();
-                                triggerCompile();
-                                triggerWarGoal();
-                                deploymentResult = deploymentManager.deploy(deployment);
-                                if (!deploymentResult.successful()) {
-                                    throw new MojoExecutionException(
-                                            "Failed to deploy content: " + deploymentResult.getFailureMessage());
-                                }
-                                if (Files.notExists(context.directory())) {
-                                    watchedDirectories.remove(key);
-                                    key.cancel();
-                                }
-                                continue;
-                            }
-                        } else if (ev.kind() == ENTRY_CREATE) {
-                            // If this is a directory we need to add the directory
-                            if (Files.isDirectory(eventPath)) {
-                                if (registerDir(watcher, eventPath, context.handler())) {
-                                    debug("New directory registered: %s", relativePath);
-                                }
-                            } else {
-                                final Path parent = absolutePath.getParent();
-                                if (parent != null) {
-                                    if (registerDir(watcher, parent, context.handler())) {
-                                        debug("New directory registered: %s", relativePath);
-                                    }
-                                }
-                                debug("A new source file has been created: %s", relativePath);
-                            }
-                        } else if (ev.kind() == ENTRY_MODIFY) {
-                            debug("Source file modified: %s", relativePath);
-                        }
-                        // Handle the file
-                        final var result = context.handle(ev, absolutePath);
-                        if (result.requiresRecompile()) {
-                            triggerCompile();
-                        }
-                        if (result.requiresCopyResources()) {
-                            triggerResources();
-                        }
-                        boolean repackaged = false;
-                        if (remote || result.requiresRepackage()) {
-                            // If !remote, the first packaging was not an exploded war, clean it.
-                            if (requiresWarDeletion) {
-                                final Path path = resolveWarLocation();
-                                DeploymentResult deploymentResult = deploymentManager
-                                        .undeploy(UndeployDescription.of(deployment));
-                                if (!deploymentResult.successful()) {
-                                    getLog().warn(String.format(
-                                            "Failed to undeploy application. Unexpected results may occur. Failure: %s",
-                                            deploymentResult.getFailureMessage()));
-                                }
-                                deleteRecursively(path);
-                                requiresWarDeletion = false;
-                                repackaged = true;
-                            }
-                            triggerWarGoal();
-                        }
-                        boolean reprovisioned = false;
-                        if (!remote) {
-                            reprovisioned = reprovisionAndStart();
-                        }
-                        if (remote || result.requiresRedeploy() || repackaged || reprovisioned) {
-                            final DeploymentResult deploymentResult;
-                            if (remote) {
-                                // If we are deploying an archive, we need to redeploy the full WAR
-                                deploymentResult = deploymentManager
-                                        .redeploy(deployment);
-                            } else {
-                                if (reprovisioned || repackaged) {
-                                    deploymentResult = deploymentManager
-                                            .forceDeploy(deployment);
-                                } else {
-                                    deploymentResult = deploymentManager
-                                            .redeployToRuntime(deployment);
-                                }
-                            }
-                            if (!deploymentResult.successful()) {
-                                throw new MojoExecutionException(
-                                        "Failed to deploy content: " + deploymentResult.getFailureMessage());
-                            }
-                        }
-                    } catch (Exception ex) {
-                        getLog().error("Exception handling file change: " + ex);
+                WatchKey key = reconcileInterval > 0 ? watcher.poll(reconcileInterval, TimeUnit.MILLISECONDS)
+                        : watcher.take();
+                final long batchStart = System.nanoTime();
+                final ChangeBatch batch = new ChangeBatch();
+                // If no change happened within the reconcile interval, check for changes the watcher missed
+                boolean reconcile = key == null;
+                // Collect all changes until no further change happens within the quiet period
+                while (key != null) {
+                    reconcile |= collectChanges(key, batch);
+                    key.reset();
+                    if (quietPeriod <= 0 || (System.nanoTime() - batchStart) >= MAX_BATCH_DURATION) {
+                        key = watcher.poll();
+                    } else {
+                        key = watcher.poll(quietPeriod, TimeUnit.MILLISECONDS);
                     }
                 }
-                key.reset();
+                if (reconcile) {
+                    reconcile(batch);
+                }
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                invalidateBuild();
+                batch.timings().queued();
+                queue.submit(batch);
+                if (redeployProxy != null) {
+                    // The batch must be queued first, the worker only releases requests once the queue is empty
+                    redeployProxy.changed();
+                    debug("Changes are deployed on the next request to http://%s:%d", proxyHost, proxyPort);
+                }
+                debug("Queued %d change(s), queue depth: %d, superseded builds: %d", batch.size(), queue.depth(),
+                        queue.superseded());
             }
         } catch (ClosedWatchServiceException ex) {
             // OK Can ignore, we have been closed by shutdown hook.
         } catch (InterruptedException e) {
             throw new RuntimeException("Interrupted during watch.", e);
+        } finally {
+            worker.interrupt();
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(timeout));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                Runtime.getRuntime().removeShutdownHook(metricsHook);
+            } catch (IllegalStateException ignore) {
+                // The JVM is already shutting down, the hook logs the summary
+            }
+            logLatencySummary();
         }
     }
 
-    private void triggerCompile() throws MojoExecutionException {
-        // Compile the Java sources if needed
-        final String compilerPluginKey = ORG_APACHE_MAVEN_PLUGINS + ":" + MAVEN_COMPILER_PLUGIN;
-        final Plugin compilerPlugin = project.getPlugin(compilerPluginKey);
-        if (compilerPlugin != null) {
-            executeGoal(project, compilerPlugin, ORG_APACHE_MAVEN_PLUGINS, MAVEN_COMPILER_PLUGIN, MAVEN_COMPILER_GOAL,
-                    getPluginConfig(compilerPlugin, MAVEN_COMPILER_GOAL));
+    /**
+     * Starts the proxy in front of the HTTP port of the server. The port is read from the {@code http} socket binding,
+     * which includes the port offset of the server.
+     */
+    private RedeployProxy startRedeployProxy(final ModelControllerClient client) throws IOException {
+        int httpPort = 8080;
+        final ModelNode address = Operations.createAddress("socket-binding-group", "*", "socket-binding", "http");
+        final ModelNode result = client.execute(Operations.createReadAttributeOperation(address, "bound-port"));
+        if (Operations.isSuccessfulOutcome(result)) {
+            for (ModelNode binding : Operations.readResult(result).asList()) {
+                final ModelNode port = Operations.readResult(binding);
+                if (port.isDefined()) {
+                    httpPort = port.asInt();
+                }
+            }
+        } else {
+            debug("Failed to read the HTTP port, using %d: %s", httpPort, Operations.getFailureDescription(result));
         }
+        final String host = getManagementHostName();
+        final URI target = URI.create(String.format("http://%s:%d", host.contains(":") ? "[" + host + "]" : host,
+                httpPort));
+        final RedeployProxy proxy = RedeployProxy.start(proxyHost, proxyPort, target, TimeUnit.SECONDS.toMillis(timeout),
+                getLog());
+        getLog().info(String.format("Changes are deployed on the next request to http://%s:%d, which is proxied to %s",
+                proxyHost, proxy.address().getPort(), target));
+        return proxy;
     }
 
-    private void triggerWarGoal() throws MojoExecutionException {
-        // Compile the Java sources if needed
-        final String warPluginKey = ORG_APACHE_MAVEN_PLUGINS + ":" + MAVEN_WAR_PLUGIN;
-        final Plugin warPlugin = project.getPlugin(warPluginKey);
-        if (warPlugin != null) {
-            executeGoal(project, warPlugin, ORG_APACHE_MAVEN_PLUGINS, MAVEN_WAR_PLUGIN, warGoal,
-                    getWarPluginConfig(warPlugin));
-        } else {
-            getLog().warn("Can't package war application, war plugin not found");
+    private void logLatencySummary() {
+        final String summary = devLoopMetrics.describePercentiles();
+        if (summary != null && latencySummaryLogged.compareAndSet(false, true)) {
+            getLog().info(summary);
         }
     }
 
-    private void triggerResources() throws MojoExecutionException {
-        List<Resource> resources = project.getResources();
-        if (resources.isEmpty()) {
-            return;
-        }
-        Plugin resourcesPlugin = project.getPlugin(ORG_APACHE_MAVEN_PLUGINS + ":" + MAVEN_RESOURCES_PLUGIN);
-        if (resourcesPlugin == null) {
-            return;
+    private void processBatches(final BuildQueue queue, final DeploymentManager deploymentManager,
+            final Deployment deployment) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (redeployProxy != null) {
+                    redeployProxy.awaitRequest();
+                }
+                final ChangeBatch batch = queue.take();
+                batch.timings().started();
+                try {
+                    if (!processBatch(batch, queue, deploymentManager, deployment)) {
+                        queue.requeue(batch);
+                        getLog().info(String.format(
+                                "Newer changes superseded the in-flight build, queue depth: %d, superseded builds: %d",
+                                queue.depth(), queue.superseded()));
+                    } else {
+                        devLoopMetrics.record(batch.timings(), batch.size());
+                        getLog().info(String.format("Dev loop: %d change(s) in %d ms (%s)", batch.size(),
+                                batch.timings().elapsedMillis(), batch.timings().describe()));
+                        if (!queue.hasPending()) {
+                            final long generation = buildSnapshot.generation();
+                            recordBuild(generation, hashBuildInputs());
+                        }
+                    }
+                } catch (Exception ex) {
+                    getLog().error("Exception handling file change: " + ex);
+                }
+                if (redeployProxy != null) {
+                    // Read before checking the queue, changes queued afterwards remain pending
+                    final long changes = redeployProxy.changes();
+                    if (!queue.hasPending()) {
+                        redeployProxy.deployed(changes);
+                    }
+                }
+            }
+        } catch (InterruptedException ignore) {
+            // The watcher has been closed
         }
-        executeGoal(project, resourcesPlugin, ORG_APACHE_MAVEN_PLUGINS, MAVEN_RESOURCES_PLUGIN, MAVEN_RESOURCES_GOAL,
-                getPluginConfig(resourcesPlugin, MAVEN_RESOURCES_GOAL));
     }
 
-    private Path getPath(final WatchKey key, final Path fileName) {
-        final WatchContext context = watchedDirectories.get(key);
-        if (context == null) {
-            getLog().debug("No more watching key, ignoring change done to " + fileName);
-            return null;
-        } else {
-            final Path resolved = context.directory().resolve(fileName);
-            // Fully ignore target dir
-            if (Path.of(project.getBuild().getDirectory()).equals(resolved)) {
-                return null;
+    /**
+     * Collects the changes of the watch key into the batch.
+     *
+     * @return {@code true} if the watched directories need to be reconciled, e.g. because events were lost
+     */
+    private boolean collectChanges(final WatchKey key, final ChangeBatch batch) {
+        boolean reconcile = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            WatchEvent.Kind<?> kind = event.kind();
+            if (kind == OVERFLOW) {
+                getLog().warn("Too many changes to watch, checking the watched directories for changes.");
+                reconcile = true;
+                continue;
             }
-            return resolved;
+            @SuppressWarnings("unchecked")
+            final WatchEvent<Path> ev = (WatchEvent<Path>) event;
+            debug("File changed [%s]: %s", ev.kind().name(), ev.context());
+            final Path absolutePath = getPath(key, ev.context());
+            if (absolutePath == null) {
+                continue;
+            }
+            final var context = watchedDirectories.get(key);
+            if (context == null) {
+                getLog().warn(String.format("Failed to find context for %s", ev.context()));
+                continue;
+            }
+            reconcile |= handleChange(key, context, ev, absolutePath, batch);
         }
-
+        return reconcile;
     }
 
-    private boolean needsCompile() {
-        // Check if compiling is going to be done by a previous goal
-        boolean compileNeeded = true;
-        for (String goal : mavenSession.getGoals()) {
-            if (POST_COMPILE_PHASES.contains(goal)) {
-                // The compile phase has happened before this goal. However, the <name> parameter may have been
-                // configured on the dev goal, but the <build><finalName/></build> may not have been overridden. If that
-                // is the case, we need to compile again. We will log a message for informational purposes.
-                compileNeeded = Files.notExists(resolveWarLocation());
-                if (compileNeeded) {
-                    getLog().info(String.format(
-                            "The project builds finalName, \"%s\", does not match the <name> configuration parameter of \"%s\". This will require the a second build.",
-                            resolveProjectDeploymentName(), name));
+    /**
+     * Checks the watched directories against the snapshot of the watched files and handles the changes which were
+     * missed, as if the watcher had reported them. New directories are registered and the files in the new directories
+     * are handled as created.
+     */
+    private void reconcile(final ChangeBatch batch) {
+        final long start = System.nanoTime();
+        final int before = batch.size();
+        final Set<Path> reconciled = new HashSet<>();
+        boolean registered = true;
+        // Directories registered while reconciling are reconciled as well
+        while (registered) {
+            registered = false;
+            for (Map.Entry<WatchKey, WatchContext> entry : watchedDirectories.entries()) {
+                final WatchContext context = entry.getValue();
+                if (!reconciled.add(context.directory())) {
+                    continue;
+                }
+                try {
+                    for (FileSnapshot.Change change : snapshot.reconcile(context.directory())) {
+                        registered |= handleChange(entry.getKey(), context, change.toEvent(), change.file(),
+                                batch);
+                    }
+                } catch (IOException e) {
+                    debug("Failed to reconcile %s: %s", context.directory(), e);
                 }
-                break;
-            }
-            if (goal.endsWith("wildfly:" + goal())) {
-                break;
             }
         }
-        return compileNeeded;
+        final int found = batch.size() - before;
+        final String message = String.format("Reconciled %d watched directories in %d ms, found %d missed change(s)",
+                reconciled.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), found);
+        if (found > 0) {
+            getLog().info(message);
+        } else {
+            debug(message);
+        }
     }
 
+    /**
+     * Handles a single change and adds the result to the batch.
+     *
+     * @return {@code true} if a new directory was registered and the watched directories need to be reconciled
+     */
+    private boolean handleChange(final WatchKey key, final WatchContext context,
+            final WatchEvent<Path> ev, final Path absolutePath, final ChangeBatch batch) {
+        final var projectDir = project.getBasedir().toPath();
+        final var eventPath = absolutePath.getFileName();
+        boolean reconcile = false;
+        final long filterStart = System.nanoTime();
+        try {
+            if (isIgnoredChange(absolutePath)) {
+                debug("Ignoring change for %s", eventPath);
+                return false;
+            }
+        } catch (IOException ex) {
+            debug("Failed checking %s for ignored state: %s", eventPath, ex);
+        } finally {
+            batch.timings().add(Phase.FILTER, System.nanoTime() - filterStart);
+        }
+        try {
+            final var relativePath = projectDir.relativize(absolutePath);
+            if (ev.kind() == ENTRY_DELETE) {
+                debug("Source file deleted: %s", relativePath);
+                batch.deleted(handle(context, ev, absolutePath));
+                snapshot.update(absolutePath);
+                if (Files.notExists(context.directory())) {
+                    watchedDirectories.remove(key);
+                    snapshot.removeDirectory(context.directory());
+                }
+                return false;
+            } else if (ev.kind() == ENTRY_CREATE) {
+                // If this is a directory we need to add the directory
+                if (Files.isDirectory(absolutePath)) {
+                    if (registerDir(absolutePath, context.handler(), false)) {
+                        debug("New directory registered: %s", relativePath);
+                    }
+                    snapshot.update(absolutePath);
+                    // Files may have been created before the directory was registered, these are found by
+                    // reconciling the new directory
+                    return true;
+                } else {
+                    final Path parent = absolutePath.getParent();
+                    if (parent != null && !watchedDirectories.isRegistered(parent)) {
+                        // Files may have been created in the new directories before they were registered
+                        reconcile = registerDir(parent, context.handler(), false);
+                        if (reconcile) {
+                            debug("New directory registered: %s", projectDir.relativize(parent));
+                        }
+                    }
+                    debug("A new source file has been created: %s", relativePath);
+                }
+            } else if (ev.kind() == ENTRY_MODIFY) {
+                debug("Source file modified: %s", relativePath);
+            }
+            // Handle the file
+            batch.add(handle(context, ev, absolutePath));
+            snapshot.update(absolutePath);
+        } catch (Exception ex) {
+            getLog().error("Exception handling file change: " + ex);
+        }
+        return reconcile;
+    }
+
+    /**
+     * Passes the change to the handler of the watched directory. Handlers may copy the changed file directly to the
+     * exploded deployment, which must not happen while the worker deletes or repackages the deployment.
+     */
+    private WatchHandler.Result handle(final WatchContext context, final WatchEvent<Path> ev, final Path file)
+            throws MojoExecutionException, IOException {
+        synchronized (deploymentLock) {
+            return context.handle(ev, file);
+        }
+    }
+
+    /**
+     * Builds and deploys the changes of the batch. Before the deployment is repackaged and before it is redeployed,
+     * the queue is checked for newer changes. If newer changes are waiting, the build is stopped as it would be stale.
+     *
+     * @return {@code true} if the batch was processed, {@code false} if newer changes superseded the batch
+     */
+    private boolean processBatch(final ChangeBatch batch, final BuildQueue queue,
+            final DeploymentManager deploymentManager, final Deployment deployment) throws Exception {
+        final DevLoopMetrics.Timings timings = batch.timings();
+        // The modules are compiled first, the deployment may depend on the changed classes
+        DevLoopMetrics.Timer timer = timings.start(Phase.COMPILE);
+        try {
+            compileReactorModules();
+        } finally {
+            timer.stop();
+        }
+        if (batch.requiresRebuild() && rebuild(deploymentManager, deployment, timings)) {
+            logBatch(batch, true);
+            return true;
+        }
+        boolean repackage = remote || batch.requiresRepackage();
+        List<Path> compiled = List.of();
+        timer = timings.start(Phase.COMPILE);
+        try {
+            if (!batch.deletedSources().isEmpty() && !removeDeletedOutputs(batch.deletedSources())) {
+                // The class files were only removed from the output directory
+                repackage = true;
+            }
+            if (batch.requiresRecompile()) {
+                compiled = compileChanges(batch.dirtySources());
+                if (compiled == null) {
+                    // The compiled classes were not written to the exploded deployment
+                    repackage = true;
+                }
+            }
+        } finally {
+            timer.stop();
+        }
+        if (batch.requiresCopyResources()) {
+            timer = timings.start(Phase.RESOURCES);
+            try {
+                synchronized (deploymentLock) {
+                    triggerResources();
+                }
+            } finally {
+                timer.stop();
+            }
+        }
+        synchronized (deploymentLock) {
+            if (requiresWarDeletion && reactorModules.stream().anyMatch(ReactorModule::isStale)) {
+                // The libraries can only be replaced in an exploded deployment
+                repackage = true;
+            }
+        }
+        if (queue.hasPending()) {
+            return false;
+        }
+        boolean repackaged = false;
+        timer = timings.start(Phase.WAR);
+        try {
+            synchronized (deploymentLock) {
+                if (repackage) {
+                    // If !remote, the first packaging was not an exploded war, clean it.
+                    if (requiresWarDeletion) {
+                        final Path path = resolveWarLocation();
+                        DeploymentResult deploymentResult = deploymentManager
+                                .undeploy(UndeployDescription.of(deployment));
+                        if (!deploymentResult.successful()) {
+                            getLog().warn(String.format(
+                                    "Failed to undeploy application. Unexpected results may occur. Failure: %s",
+                                    deploymentResult.getFailureMessage()));
+                        }
+                        deleteRecursively(path);
+                        requiresWarDeletion = false;
+                        repackaged = true;
+                    }
+                    triggerWarGoal();
+                }
+                // Repackaging copies the outdated libraries of all modified modules again
+                updateModuleLibraries(repackage);
+            }
+        } finally {
+            timer.stop();
+        }
+        // Once undeployed, the deployment must be deployed again before the batch can be superseded
+        if (!repackaged && queue.hasPending()) {
+            return false;
+        }
+        boolean reprovisioned = false;
+        if (!remote) {
+            timer = timings.start(Phase.GLOW_SCAN);
+            final GalleonProvisioningConfig newConfig;
+            try {
+                newConfig = shouldReprovision();
+            } finally {
+                timer.stop();
+            }
+            if (newConfig != null) {
+                timer = timings.start(Phase.REPROVISION);
+                try {
+                    reprovisionAndStart(newConfig);
+                } finally {
+                    timer.stop();
+                }
+                reprovisioned = true;
+            }
+        }
+        if (remote || batch.requiresRedeploy() || repackaged || reprovisioned) {
+            timer = timings.start(Phase.REDEPLOY);
+            try {
+                if (!repackaged && !reprovisioned && hotSwap(batch, compiled)) {
+                    logBatch(batch, false);
+                    return true;
+                }
+                if (remoteSync != null) {
+                    final RemoteContentSync.Delta delta = remoteSync.update();
+                    if (!delta.isEmpty()) {
+                        redeploys++;
+                    }
+                    getLog().info("Updated the remote deployment: " + delta);
+                    logBatch(batch, false);
+                    return true;
+                }
+                final DeploymentResult deploymentResult;
+                if (remote) {
+                    // If we are deploying an archive, we need to redeploy the full WAR
+                    deploymentResult = deploymentManager
+                            .redeploy(deployment);
+                } else {
+                    if (reprovisioned || repackaged) {
+                        deploymentResult = deploymentManager
+                                .forceDeploy(deployment);
+                    } else {
+                        deploymentResult = deploymentManager
+                                .redeployToRuntime(deployment);
+                    }
+                }
+                if (!deploymentResult.successful()) {
+                    throw new MojoExecutionException(
+                            "Failed to deploy content: " + deploymentResult.getFailureMessage());
+                }
+                redeploys++;
+                if (hotSwapper != null) {
+                    debug("Redeployed the application (hot swaps: %d, redeploys: %d)", hotSwaps, redeploys);
+                }
+            } finally {
+                timer.stop();
+            }
+        }
+        logBatch(batch, false);
+        return true;
+    }
+
+    /**
+     * Attempts to redefine the compiled classes in the running server.
+     *
+     * @param batch      the batch of changes
+     * @param classFiles the compiled class files
+     *
+     * @return {@code true} if the classes were redefined and the application does not need to be redeployed
+     */
+    private boolean hotSwap(final ChangeBatch batch, final List<Path> classFiles) {
+        if (hotSwapper == null || !batch.allowsHotSwap() || classFiles == null || classFiles.isEmpty()) {
+            return false;
+        }
+        final long start = System.nanoTime();
+        if (hotSwapper.redefine(Path.of(project.getBuild().getOutputDirectory()), classFiles)) {
+            hotSwaps++;
+            getLog().info(String.format("Hot swapped %d class(es) in %d ms (hot swaps: %d, redeploys: %d)",
+                    classFiles.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), hotSwaps, redeploys));
+            return true;
+        }
+        getLog().info("The changed classes could not be hot swapped, redeploying the application.");
+        return false;
+    }
+
+    /**
+     * Undeploys the application, deletes the deployment and rebuilds it from scratch.
+     *
+     * @return {@code true} if the deployment was rebuilt, {@code false} if the application could not be undeployed
+     */
+    private boolean rebuild(final DeploymentManager deploymentManager, final Deployment deployment,
+            final DevLoopMetrics.Timings timings) throws IOException, MojoExecutionException {
+        // Undeploy application as Windows won't be able to delete the directory
+        DeploymentResult deploymentResult = deploymentManager.undeploy(UndeployDescription.of(deployment));
+        if (!deploymentResult.successful()) {
+            getLog().warn(String.format(
+                    "Failed to undeploy application. Unexpected results may occur. Failure: %s",
+                    deploymentResult.getFailureMessage()));
+            return false;
+        }
+        // Clean the deployment directory if that is a first update and no compilation occured
+        // meaning that is a war file, not an exploded directory.
+        DevLoopMetrics.Timer timer;
+        synchronized (deploymentLock) {
+            final Path path = resolveWarLocation();
+            deleteRecursively(path);
+            timer = timings.start(Phase.RESOURCES);
+            try {
+                triggerResources();
+            } finally {
+                timer.stop();
+            }
+            timer = timings.start(Phase.COMPILE);
+            try {
+                triggerCompile();
+            } finally {
+                timer.stop();
+            }
+            timer = timings.start(Phase.WAR);
+            try {
+                triggerWarGoal();
+                updateModuleLibraries(true);
+            } finally {
+                timer.stop();
+            }
+            requiresWarDeletion = false;
+        }
+        timer = timings.start(Phase.REDEPLOY);
+        try {
+            if (remoteSync != null) {
+                getLog().info("Deployed the rebuilt application: " + remoteSync.deploy());
+                redeploys++;
+                return true;
+            }
+            deploymentResult = deploymentManager.deploy(deployment);
+            if (!deploymentResult.successful()) {
+                throw new MojoExecutionException(
+                        "Failed to deploy content: " + deploymentResult.getFailureMessage());
+            }
+            redeploys++;
+            return true;
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private void logBatch(final ChangeBatch batch, final boolean rebuilt) {
+        if (batch.size() > 1) {
+            getLog().info(String.format("Handled %d changes in a single batch, work saved: %s", batch.size(),
+                    batch.describeSavings(rebuilt)));
+        } else {
+            debug("Handled %s", batch);
+        }
+    }
+
+    /**
+     * Hashes the inputs of the build of the deployment. Files written by the build itself, e.g. the compiled classes and
+     * generated sources in the build directory, are not inputs.
+     */
+    private String hashBuildInputs() throws MojoExecutionException {
+        final Path buildDir = Path.of(project.getBuild().getDirectory());
+        final Set<Path> inputs = new LinkedHashSet<>();
+        // The POM and its parents in the reactor or the local repository
+        for (MavenProject current = project; current != null; current = current.getParent()) {
+            if (current.getFile() != null) {
+                inputs.add(current.getFile().toPath());
+            }
+        }
+        project.getCompileSourceRoots().stream().map(Path::of).forEach(inputs::add);
+        project.getResources().stream().map((resource) -> Path.of(resource.getDirectory())).forEach(inputs::add);
+        inputs.add(resolveWebAppSourceDir());
+        inputs.addAll(compileClasspath());
+        inputs.removeIf((path) -> path.startsWith(buildDir));
+        // The user properties and profiles may change the effective configuration of the plugins
+        final Properties userProperties = mavenSession.getUserProperties();
+        final String properties = userProperties.stringPropertyNames()
+                .stream()
+                .sorted()
+                .map((name) -> name + '=' + userProperties.getProperty(name))
+                .collect(Collectors.joining(","));
+        final String profiles = project.getActiveProfiles()
+                .stream()
+                .map((profile) -> profile.getId() + '@' + profile.getSource())
+                .sorted()
+                .collect(Collectors.joining(","));
+        try {
+            return BuildSnapshot.hashInputs(String.format("remote=%s,warGoal=%s,deployment=%s,properties=[%s],"
+                    + "profiles=[%s]", remote, warGoal, resolveWarLocation(), properties, profiles), inputs);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to hash the inputs of the build", e);
+        }
+    }
+
+    private boolean isBuildUpToDate(final String inputs) {
+        try {
+            return buildSnapshot.isBuildUpToDate(inputs, resolveWarLocation());
+        } catch (IOException e) {
+            debug("Failed to check the state of the deployment, it will be built: %s", e);
+            return false;
+        }
+    }
+
+    private void recordBuild(final long generation, final String inputs) {
+        try {
+            buildSnapshot.recordBuild(generation, inputs, resolveWarLocation());
+        } catch (IOException e) {
+            debug("Failed to record the state of the deployment: %s", e);
+        }
+    }
+
+    private void invalidateBuild() {
+        try {
+            buildSnapshot.invalidateBuild();
+        } catch (IOException e) {
+            debug("Failed to invalidate the state of the deployment: %s", e);
+        }
+    }
+
+    /**
+     * Registers the source and resource directories of the modules in the reactor the deployment depends on.
+     */
+    private void registerReactorModules() throws IOException, MojoExecutionException {
+        if (!watchReactorModules) {
+            return;
+        }
+        final List<MavenProject> modules = findReactorModules();
+        if (modules.isEmpty()) {
+            return;
+        }
+        if (remote) {
+            getLog().info(String.format("The reactor modules %s are not watched when deploying to a remote server.",
+                    modules.stream().map(MavenProject::getArtifactId).collect(Collectors.joining(", "))));
+            return;
+        }
+        for (MavenProject module : modules) {
+            final List<Path> classpath = new ArrayList<>();
+            classpath.add(Path.of(module.getBuild().getOutputDirectory()));
+            classpath.addAll(resolveModuleClasspath(module));
+            final IncrementalCompiler moduleCompiler = createIncrementalCompiler(module, classpath,
+                    resolveDevDirectory().resolve("modules").resolve(module.getArtifactId() + "-dependency-index.bin"));
+            final ReactorModule reactorModule = new ReactorModule(module, moduleCompiler, resolveLibraryName(module));
+            ignoreMatcher.addRoot(module.getBasedir().toPath());
+            reactorModules.add(reactorModule);
+            for (String sourceRoot : module.getCompileSourceRoots()) {
+                registerRoot(Path.of(sourceRoot), reactorModule);
+            }
+            for (Resource resource : module.getResources()) {
+                registerRoot(Path.of(resource.getDirectory()), reactorModule);
+            }
+            getLog().info(String.format("Watching the reactor module %s", module.getArtifactId()));
+        }
+    }
+
+    /**
+     * Resolves the compile classpath of the reactor module, which includes the {@code provided} dependencies of the
+     * module. If the classpath cannot be resolved, the compile classpath of the deployment is used, which includes the
+     * {@code compile} dependencies of the module.
+     */
+    private List<Path> resolveModuleClasspath(final MavenProject module) throws MojoExecutionException {
+        final ArtifactTypeRegistry types = session.getArtifactTypeRegistry();
+        final CollectRequest request = new CollectRequest();
+        request.setRepositories(repositories);
+        for (org.apache.maven.model.Dependency dependency : module.getDependencies()) {
+            if (dependency.getScope() == null || COMPILE_SCOPES.contains(dependency.getScope())) {
+                request.addDependency(RepositoryUtils.toDependency(dependency, types));
+            }
+        }
+        final DependencyManagement dependencyManagement = module.getDependencyManagement();
+        if (dependencyManagement != null) {
+            for (org.apache.maven.model.Dependency dependency : dependencyManagement.getDependencies()) {
+                request.addManagedDependency(RepositoryUtils.toDependency(dependency, types));
+            }
+        }
+        final DependencyFilter filter = (node, parents) -> node.getDependency() == null
+                || COMPILE_SCOPES.contains(node.getDependency().getScope());
+        try {
+            return repoSystem.resolveDependencies(session, new DependencyRequest(request, filter))
+                    .getArtifactResults()
+                    .stream()
+                    .map((result) -> result.getArtifact().getFile().toPath())
+                    .collect(Collectors.toList());
+        } catch (DependencyResolutionException e) {
+            getLog().warn(String.format("Failed to resolve the compile classpath of the reactor module %s, compiling "
+                    + "it against the compile classpath of the deployment: %s", module.getArtifactId(), e.getMessage()));
+            return compileClasspath();
+        }
+    }
+
+    private List<MavenProject> findReactorModules() {
+        final List<MavenProject> modules = new ArrayList<>();
+        for (MavenProject candidate : mavenSession.getProjects()) {
+            if (candidate == project || !"jar".equals(candidate.getPackaging())) {
+                continue;
+            }
+            for (Artifact artifact : project.getArtifacts()) {
+                if (artifact.getGroupId().equals(candidate.getGroupId())
+                        && artifact.getArtifactId().equals(candidate.getArtifactId())
+                        && "jar".equals(artifact.getType())
+                        && (Artifact.SCOPE_COMPILE.equals(artifact.getScope())
+                                || Artifact.SCOPE_RUNTIME.equals(artifact.getScope()))) {
+                    modules.add(candidate);
+                    break;
+                }
+            }
+        }
+        return modules;
+    }
+
+    // The default file name mapping of the maven-war-plugin
+    private String resolveLibraryName(final MavenProject module) {
+        for (Artifact artifact : project.getArtifacts()) {
+            if (artifact.getGroupId().equals(module.getGroupId())
+                    && artifact.getArtifactId().equals(module.getArtifactId())) {
+                final String classifier = artifact.getClassifier();
+                return artifact.getArtifactId() + "-" + artifact.getBaseVersion()
+                        + (classifier == null || classifier.isEmpty() ? "" : "-" + classifier) + ".jar";
+            }
+        }
+        return module.getArtifactId() + "-" + module.getVersion() + ".jar";
+    }
+
+    /**
+     * Compiles the changed reactor modules and copies their changed resources. The libraries of the compiled modules
+     * are {@linkplain ReactorModule#isStale() stale} until they are updated.
+     */
+    private void compileReactorModules() throws MojoExecutionException {
+        for (ReactorModule module : reactorModules) {
+            final ChangeBatch changes = module.takeChanges();
+            if (changes == null) {
+                continue;
+            }
+            final long start = System.nanoTime();
+            final MavenProject moduleProject = module.project();
+            final IncrementalCompiler moduleCompiler = module.compiler();
+            try {
+                if (changes.requiresRebuild()) {
+                    // Resources were deleted, the output directory is recreated
+                    deleteRecursively(module.outputDirectory());
+                    compileModule(moduleProject, moduleCompiler);
+                    copyModuleResources(moduleProject);
+                } else {
+                    if (!changes.deletedSources().isEmpty() && moduleCompiler != null) {
+                        moduleCompiler.removeOutputs(changes.deletedSources(), null);
+                    }
+                    if (changes.requiresRecompile()) {
+                        if (moduleCompiler == null || changes.dirtySources().isEmpty()) {
+                            compileModule(moduleProject, moduleCompiler);
+                        } else {
+                            moduleCompiler.compile(changes.dirtySources(), null);
+                        }
+                    }
+                    if (changes.requiresCopyResources()) {
+                        copyModuleResources(moduleProject);
+                    }
+                }
+            } catch (IOException e) {
+                throw new MojoExecutionException("Failed to update the reactor module " + module, e);
+            }
+            getLog().info(String.format("Compiled the reactor module %s in %d ms (%d change(s))", module,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), changes.size()));
+        }
+    }
+
+    private void compileModule(final MavenProject module, final IncrementalCompiler moduleCompiler)
+            throws MojoExecutionException, IOException {
+        final Plugin compilerPlugin = module.getPlugin(ORG_APACHE_MAVEN_PLUGINS + ":" + MAVEN_COMPILER_PLUGIN);
+        if (compilerPlugin != null) {
+            executeGoal(module, compilerPlugin, ORG_APACHE_MAVEN_PLUGINS, MAVEN_COMPILER_PLUGIN, MAVEN_COMPILER_GOAL,
+                    () -> getPluginConfig(compilerPlugin, MAVEN_COMPILER_GOAL));
+            if (moduleCompiler != null) {
+                moduleCompiler.refresh();
+            }
+        }
+    }
+
+    private void copyModuleResources(final MavenProject module) throws MojoExecutionException {
+        final Plugin resourcesPlugin = module.getPlugin(ORG_APACHE_MAVEN_PLUGINS + ":" + MAVEN_RESOURCES_PLUGIN);
+        if (resourcesPlugin != null && !module.getResources().isEmpty()) {
+            executeGoal(module, resourcesPlugin, ORG_APACHE_MAVEN_PLUGINS, MAVEN_RESOURCES_PLUGIN, MAVEN_RESOURCES_GOAL,
+                    () -> getPluginConfig(resourcesPlugin, MAVEN_RESOURCES_GOAL));
+        }
+    }
+
+    /**
+     * Replaces the stale libraries of the reactor modules in the exploded deployment.
+     *
+     * @param repackaged {@code true} if the deployment was repackaged, which copies the outdated libraries of all
+     *                       modified modules again
+     */
+    private void updateModuleLibraries(final boolean repackaged) throws MojoExecutionException {
+        final Path libDir = resolveWarLocation().resolve("WEB-INF").resolve("lib");
+        if (requiresWarDeletion || !Files.isDirectory(libDir)) {
+            return;
+        }
+        for (ReactorModule module : reactorModules) {
+            if (repackaged ? !module.isModified() : !module.isStale()) {
+                continue;
+            }
+            final long start = System.nanoTime();
+            try {
+                if (module.updateLibrary(libDir)) {
+                    debug("Replaced the library of the reactor module %s in %d ms", module,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } else {
+                    getLog().warn(String.format("The library of the reactor module %s was not found in %s", module,
+                            libDir));
+                }
+            } catch (IOException e) {
+                throw new MojoExecutionException("Failed to replace the library of the reactor module " + module, e);
+            }
+        }
+    }
+
+    private void closeReactorModules() {
+        for (ReactorModule module : reactorModules) {
+            if (module.compiler() != null) {
+                try {
+                    module.compiler().close();
+                } catch (Exception e) {
+                    debug("Failed to close the compiler of the reactor module %s: %s", module, e);
+                }
+            }
+        }
+        reactorModules.clear();
+    }
+
+    private void triggerCompile() throws MojoExecutionException {
+        // Compile the Java sources if needed
+        final String compilerPluginKey = ORG_APACHE_MAVEN_PLUGINS + ":" + MAVEN_COMPILER_PLUGIN;
+        final Plugin compilerPlugin = project.getPlugin(compilerPluginKey);
+        if (compilerPlugin != null) {
+            executeGoal(project, compilerPlugin, ORG_APACHE_MAVEN_PLUGINS, MAVEN_COMPILER_PLUGIN, MAVEN_COMPILER_GOAL,
+                    () -> getPluginConfig(compilerPlugin, MAVEN_COMPILER_GOAL));
+            if (compiler != null) {
+                try {
+                    compiler.refresh();
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Failed to refresh the state of the incremental compiler", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles the changed sources with the incremental compiler if available, otherwise the
+     * {@code maven-compiler-plugin} is executed.
+     *
+     * @param dirtySources the sources to compile, if empty all sources are compiled
+     *
+     * @return the class files compiled to the output directory and written to the exploded deployment, or
+     *             {@code null} if the deployment needs to be repackaged
+     *
+     * @throws MojoExecutionException if the compilation failed
+     */
+    private List<Path> compileChanges(final Set<Path> dirtySources) throws MojoExecutionException {
+        if (compiler == null || dirtySources.isEmpty()) {
+            triggerCompile();
+            return null;
+        }
+        final Path deploymentClassesDir = resolveDeploymentClassesDir();
+        final List<Path> compiled;
+        try {
+            compiled = compiler.compile(dirtySources, deploymentClassesDir);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to compile the changed sources", e);
+        }
+        return deploymentClassesDir == null ? null : compiled;
+    }
+
+    /**
+     * Removes the class files compiled from the deleted sources from the output directory and the exploded
+     * deployment.
+     *
+     * @param deletedSources the deleted sources
+     *
+     * @return {@code true} if the class files were removed from the exploded deployment, {@code false} if the
+     *             deployment needs to be repackaged
+     *
+     * @throws MojoExecutionException if the class files could not be removed
+     */
+    private boolean removeDeletedOutputs(final Set<Path> deletedSources) throws MojoExecutionException {
+        final Path deploymentClassesDir = resolveDeploymentClassesDir();
+        try {
+            compiler.removeOutputs(deletedSources, deploymentClassesDir);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to remove the classes of the deleted sources", e);
+        }
+        return deploymentClassesDir != null;
+    }
+
+    // If the deployment is not yet exploded, the classes are only written to the output directory
+    private Path resolveDeploymentClassesDir() {
+        synchronized (deploymentLock) {
+            return requiresWarDeletion ? null : resolveWebAppDirectory().resolve("WEB-INF").resolve("classes");
+        }
+    }
+
+    /**
+     * Creates the incremental compiler for the project.
+     *
+     * @param project   the project whose sources are compiled
+     * @param classpath the classpath used to compile the sources
+     * @param indexFile the file the dependency index of the compiled sources is stored in
+     *
+     * @return the incremental compiler or {@code null} if the sources need to be compiled with the
+     *             {@code maven-compiler-plugin}
+     *
+     * @throws MojoExecutionException if the compiler could not be created
+     */
+    private IncrementalCompiler createIncrementalCompiler(final MavenProject project, final List<Path> classpath,
+            final Path indexFile) throws MojoExecutionException {
+        if (!incrementalCompile) {
+            return null;
+        }
+        final Plugin compilerPlugin = project.getPlugin(ORG_APACHE_MAVEN_PLUGINS + ":" + MAVEN_COMPILER_PLUGIN);
+        if (compilerPlugin == null) {
+            return null;
+        }
+        final Xpp3Dom config = getPluginConfig(compilerPlugin, MAVEN_COMPILER_GOAL);
+        if (Boolean.parseBoolean(getConfigValue(config, "fork", "false"))
+                || !"javac".equals(getConfigValue(config, "compilerId", "javac"))) {
+            getLog().info("The maven-compiler-plugin is configured to fork or with a compiler other than javac. "
+                    + "Changed sources will be compiled with the maven-compiler-plugin.");
+            return null;
+        }
+        for (Xpp3Dom child : config.getChildren()) {
+            if (!INCREMENTAL_COMPILER_PARAMETERS.contains(child.getName())) {
+                getLog().info(String.format("The maven-compiler-plugin parameter %s is not supported by the incremental "
+                        + "compiler. Changed sources will be compiled with the maven-compiler-plugin.", child.getName()));
+                return null;
+            }
+        }
+        final Properties properties = project.getProperties();
+        final IncrementalCompiler.CompilerConfiguration configuration = new IncrementalCompiler.CompilerConfiguration()
+                .setOutputDirectory(Path.of(project.getBuild().getOutputDirectory()))
+                .setIndexFile(indexFile);
+        for (String sourceRoot : project.getCompileSourceRoots()) {
+            final Path path = Path.of(sourceRoot);
+            if (Files.exists(path.resolve("module-info.java"))) {
+                getLog().info("Modular sources are not supported by the incremental compiler. "
+                        + "Changed sources will be compiled with the maven-compiler-plugin.");
+                return null;
+            }
+            configuration.addSourceRoot(path);
+        }
+        configuration.addClasspath(classpath);
+        final String release = getConfigValue(config, "release", properties.getProperty("maven.compiler.release"));
+        if (release != null) {
+            configuration.addOption("--release", release);
+        } else {
+            final String source = getConfigValue(config, "source", properties.getProperty("maven.compiler.source"));
+            if (source != null) {
+                configuration.addOption("-source", source);
+            }
+            final String target = getConfigValue(config, "target", properties.getProperty("maven.compiler.target"));
+            if (target != null) {
+                configuration.addOption("-target", target);
+            }
+        }
+        final String encoding = getConfigValue(config, "encoding",
+                properties.getProperty("project.build.sourceEncoding"));
+        if (encoding != null) {
+            configuration.addOption("-encoding", encoding)
+                    .setEncoding(Charset.forName(encoding));
+        }
+        if (Boolean.parseBoolean(getConfigValue(config, "debug", "true"))) {
+            configuration.addOption("-g");
+        }
+        if (Boolean.parseBoolean(getConfigValue(config, "parameters",
+                properties.getProperty("maven.compiler.parameters")))) {
+            configuration.addOption("-parameters");
+        }
+        final String proc = getConfigValue(config, "proc", null);
+        if (proc != null) {
+            configuration.addOption("-proc:" + proc);
+        }
+        final Xpp3Dom annotationProcessors = config.getChild("annotationProcessors");
+        if (annotationProcessors != null && annotationProcessors.getChildCount() > 0) {
+            configuration.addOption("-processor", Arrays.stream(annotationProcessors.getChildren())
+                    .map(Xpp3Dom::getValue)
+                    .collect(Collectors.joining(",")));
+        }
+        final Xpp3Dom compilerArgs = config.getChild("compilerArgs");
+        if (compilerArgs != null) {
+            for (Xpp3Dom arg : compilerArgs.getChildren()) {
+                if (arg.getValue() != null) {
+                    configuration.addOption(arg.getValue().trim());
+                }
+            }
+        }
+        final String compilerArgument = getConfigValue(config, "compilerArgument", null);
+        if (compilerArgument != null) {
+            Utils.splitArguments(compilerArgument).forEach(configuration::addOption);
+        }
+        configuration.setGeneratedSourcesDirectory(Path.of(getConfigValue(config, "generatedSourcesDirectory",
+                Path.of(project.getBuild().getDirectory(), "generated-sources", "annotations").toString())));
+        configuration.addProcessorPath(resolveProcessorPath(config.getChild("annotationProcessorPaths")));
+        try {
+            final IncrementalCompiler result = IncrementalCompiler.create(configuration, getLog());
+            if (result == null) {
+                getLog().info("No system Java compiler is available. "
+                        + "Changed sources will be compiled with the maven-compiler-plugin.");
+            }
+            return result;
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to create the incremental compiler", e);
+        }
+    }
+
+    private List<Path> compileClasspath() throws MojoExecutionException {
+        try {
+            return project.getCompileClasspathElements()
+                    .stream()
+                    .map(Path::of)
+                    .collect(Collectors.toList());
+        } catch (DependencyResolutionRequiredException e) {
+            throw new MojoExecutionException("Failed to resolve the compile classpath", e);
+        }
+    }
+
+    private List<Path> resolveProcessorPath(final Xpp3Dom paths) throws MojoExecutionException {
+        if (paths == null || paths.getChildCount() == 0) {
+            return List.of();
+        }
+        final CollectRequest request = new CollectRequest();
+        request.setRepositories(repositories);
+        for (Xpp3Dom path : paths.getChildren()) {
+            final String groupId = getConfigValue(path, "groupId", null);
+            final String artifactId = getConfigValue(path, "artifactId", null);
+            final String version = getConfigValue(path, "version", resolveManagedVersion(groupId, artifactId));
+            request.addDependency(new Dependency(new DefaultArtifact(groupId, artifactId,
+                    getConfigValue(path, "classifier", ""), getConfigValue(path, "type", "jar"), version), "runtime"));
+        }
+        try {
+            return repoSystem.resolveDependencies(session, new DependencyRequest(request, null))
+                    .getArtifactResults()
+                    .stream()
+                    .map((result) -> result.getArtifact().getFile().toPath())
+                    .collect(Collectors.toList());
+        } catch (DependencyResolutionException e) {
+            throw new MojoExecutionException("Failed to resolve the annotation processor path", e);
+        }
+    }
+
+    private String resolveManagedVersion(final String groupId, final String artifactId) {
+        final DependencyManagement dependencyManagement = project.getDependencyManagement();
+        if (dependencyManagement != null) {
+            for (org.apache.maven.model.Dependency dependency : dependencyManagement.getDependencies()) {
+                if (dependency.getGroupId().equals(groupId) && dependency.getArtifactId().equals(artifactId)) {
+                    return dependency.getVersion();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String getConfigValue(final Xpp3Dom config, final String name, final String defaultValue) {
+        final Xpp3Dom child = config.getChild(name);
+        if (child == null || child.getValue() == null || child.getValue().isBlank()) {
+            return defaultValue;
+        }
+        return child.getValue().trim();
+    }
+
+    private void triggerWarGoal() throws MojoExecutionException {
+        // Compile the Java sources if needed
+        final String warPluginKey = ORG_APACHE_MAVEN_PLUGINS + ":" + MAVEN_WAR_PLUGIN;
+        final Plugin warPlugin = project.getPlugin(warPluginKey);
+        if (warPlugin != null) {
+            executeGoal(project, warPlugin, ORG_APACHE_MAVEN_PLUGINS, MAVEN_WAR_PLUGIN, warGoal,
+                    () -> getWarPluginConfig(warPlugin));
+        } else {
+            getLog().warn("Can't package war application, war plugin not found");
+        }
+    }
+
+    private void triggerResources() throws MojoExecutionException {
+        List<Resource> resources = project.getResources();
+        if (resources.isEmpty()) {
+            return;
+        }
+        Plugin resourcesPlugin = project.getPlugin(ORG_APACHE_MAVEN_PLUGINS + ":" + MAVEN_RESOURCES_PLUGIN);
+        if (resourcesPlugin == null) {
+            return;
+        }
+        executeGoal(project, resourcesPlugin, ORG_APACHE_MAVEN_PLUGINS, MAVEN_RESOURCES_PLUGIN, MAVEN_RESOURCES_GOAL,
+                () -> getPluginConfig(resourcesPlugin, MAVEN_RESOURCES_GOAL));
+    }
+
+    private Path getPath(final WatchKey key, final Path fileName) {
+        final WatchContext context = watchedDirectories.get(key);
+        if (context == null) {
+            getLog().debug("No more watching key, ignoring change done to " + fileName);
+            return null;
+        } else {
+            final Path resolved = context.directory().resolve(fileName);
+            // Fully ignore target dir
+            if (Path.of(project.getBuild().getDirectory()).equals(resolved)) {
+                return null;
+            }
+            return resolved;
+        }
+
+    }
+
+    private boolean needsCompile() {
+        // Check if compiling is going to be done by a previous goal
+        boolean compileNeeded = true;
+        for (String goal : mavenSession.getGoals()) {
+            if (POST_COMPILE_PHASES.contains(goal)) {
+                // The compile phase has happened before this goal. However, the <name> parameter may have been
+                // configured on the dev goal, but the <build><finalName/></build> may not have been overridden. If that
+                // is the case, we need to compile again. We will log a message for informational purposes.
+                compileNeeded = Files.notExists(resolveWarLocation());
+                if (compileNeeded) {
+                    getLog().info(String.format(
+                            "The project builds finalName, \"%s\", does not match the <name> configuration parameter of \"%s\". This will require the a second build.",
+                            resolveProjectDeploymentName(), name));
+                }
+                break;
+            }
+            if (goal.endsWith("wildfly:" + goal())) {
+                break;
+            }
+        }
+        return compileNeeded;
+    }
+
+    /**
+     * Executes the goal for the project. The execution is resolved into a {@linkplain MojoExecutionPlan plan} the first
+     * time the goal is executed for the project, later executions reuse the plan. The project model is not reloaded,
+     * so changes to the {@code pom.xml} require a restart of the goal.
+     */
     private void executeGoal(final MavenProject project, final Plugin plugin, final String groupId, final String artifactId,
-            final String goal, final Xpp3Dom config) throws MojoExecutionException {
-        executeMojo(plugin(groupId(groupId), artifactId(artifactId), version(plugin.getVersion()), plugin.getDependencies()),
-                MojoExecutor.goal(goal), config, executionEnvironment(project, mavenSession, pluginManager));
+            final String goal, final MojoExecutionPlan.ConfigurationFactory config) throws MojoExecutionException {
+        final String key = project.getId() + "|" + groupId + ":" + artifactId + ":" + goal;
+        MojoExecutionPlan plan = executionPlans.get(key);
+        if (plan == null) {
+            final long start = System.nanoTime();
+            final Plugin resolved = plugin(groupId(groupId), artifactId(artifactId), version(plugin.getVersion()),
+                    plugin.getDependencies());
+            plan = MojoExecutionPlan.create(pluginManager, mavenSession, project, getMojoDescriptor(resolved, goal),
+                    config.create(), start);
+            executionPlans.put(key, plan);
+        }
+        plan.execute();
+        debug("%s", plan.describeTimings());
     }
 
     private Xpp3Dom getPluginConfig(final Plugin plugin, final String goal) throws MojoExecutionException {
@@ -995,9 +2299,7 @@ public class DevMojo extends AbstractServerStartMojo {
         }
 
         final MojoExecutor.Element e = new MojoExecutor.Element("webappDirectory",
-                (remote ? resolveWarDir().toAbsolutePath().toString()
-                        : resolveWarLocation().toAbsolutePath()
-                                .toString()));
+                resolveWebAppDirectory().toAbsolutePath().toString());
         configuration.addChild(e.toDom());
         return configuration;
     }
@@ -1013,36 +2315,86 @@ public class DevMojo extends AbstractServerStartMojo {
     }
 
     private boolean isIgnoredChange(final Path file) throws IOException {
-        if (isHiddenFile(file) || file.getFileName().toString().endsWith("~")) {
+        if (ignoreMatcher.isIgnored(file)) {
             return true;
         }
-        for (Pattern pattern : getPatterns()) {
-            if (pattern.matcher(file.getFileName().toString()).matches()) {
-                return true;
-            }
+        // Hidden files on Windows are marked with an attribute rather than by their name
+        if (Environment.isWindows() && Files.exists(file)) {
+            return Files.readAttributes(file, DosFileAttributes.class).isHidden();
         }
         return false;
     }
 
-    private boolean isHiddenFile(final Path p) throws IOException {
-        if (Environment.isWindows()) {
-            final DosFileAttributes dosAttrs = Files.readAttributes(p, DosFileAttributes.class);
-            return dosAttrs.isHidden();
-        } else {
-            return Files.isHidden(p);
+    /**
+     * Creates the synchronizer which copies changed resources directly to the output directory and the exploded
+     * deployment. If the configuration of the {@code maven-resources-plugin} is not supported, {@code null} is returned
+     * and the {@code maven-resources-plugin} is executed for each change.
+     *
+     * @return the synchronizer or {@code null} if the {@code maven-resources-plugin} is required for each change
+     *
+     * @throws MojoExecutionException if the configuration of the {@code maven-resources-plugin} cannot be resolved
+     */
+    private ResourceSync createResourceSync() throws MojoExecutionException {
+        final Plugin resourcesPlugin = project.getPlugin(ORG_APACHE_MAVEN_PLUGINS + ":" + MAVEN_RESOURCES_PLUGIN);
+        if (resourcesPlugin == null || project.getResources().isEmpty()) {
+            return null;
+        }
+        final Xpp3Dom config = getPluginConfig(resourcesPlugin, MAVEN_RESOURCES_GOAL);
+        for (String name : List.of("outputDirectory", "resources")) {
+            if (config.getChild(name) != null) {
+                debug("The %s of the maven-resources-plugin are configured, changed resources require the resources goal",
+                        name);
+                return null;
+            }
+        }
+        final List<String> nonFilteredExtensions = new ArrayList<>();
+        final Xpp3Dom nonFiltered = config.getChild("nonFilteredFileExtensions");
+        if (nonFiltered != null) {
+            for (Xpp3Dom child : nonFiltered.getChildren()) {
+                nonFilteredExtensions.add(child.getValue().trim());
+            }
         }
+        final Path deploymentClassesDir = remote ? null
+                : resolveWebAppDirectory().resolve("WEB-INF").resolve("classes");
+        return new ResourceSync(project.getResources(), Path.of(project.getBuild().getOutputDirectory()),
+                deploymentClassesDir, nonFilteredExtensions);
     }
 
-    private List<Pattern> getPatterns() {
-        if (!ignorePatterns.isEmpty()) {
-            if (ignoreUpdatePatterns.isEmpty()) {
-                for (String p : ignorePatterns) {
-                    Pattern pattern = Pattern.compile(p);
-                    ignoreUpdatePatterns.add(pattern);
-                }
+    /**
+     * Creates the synchronizer which copies changed web application files directly to the exploded deployment. If the
+     * {@code maven-war-plugin} is required to assemble the web application, e.g. overlays or web resources are
+     * configured, {@code null} is returned and the {@code maven-war-plugin} is executed for each change.
+     *
+     * @param webAppSourceDir the web application source directory
+     *
+     * @return the synchronizer or {@code null} if the web application needs to be repackaged for each change
+     */
+    private WebAppSync createWebAppSync(final Path webAppSourceDir) {
+        if (remote) {
+            return null;
+        }
+        final Plugin warPlugin = project.getPlugin(ORG_APACHE_MAVEN_PLUGINS + ":" + MAVEN_WAR_PLUGIN);
+        if (warPlugin == null) {
+            return null;
+        }
+        final Xpp3Dom config = getWarPluginConfig(warPlugin);
+        for (String name : List.of("overlays", "webResources", "warSourceIncludes", "warSourceExcludes")) {
+            if (config.getChild(name) != null) {
+                debug("The %s of the maven-war-plugin are configured, changed web files require the war goal", name);
+                return null;
             }
         }
-        return ignoreUpdatePatterns;
+        // Dependencies of type war are overlaid by default
+        if (project.getArtifacts().stream().anyMatch((artifact) -> "war".equals(artifact.getType()))) {
+            debug("War overlays are present, changed web files require the war goal");
+            return null;
+        }
+        final Set<Path> excluded = new HashSet<>();
+        if (config.getChild("webXml") != null
+                || Boolean.parseBoolean(getConfigValue(config, "filteringDeploymentDescriptors", "false"))) {
+            excluded.add(Path.of("WEB-INF", "web.xml"));
+        }
+        return new WebAppSync(webAppSourceDir, resolveWebAppDirectory(), excluded);
     }
 
     private Deployment getDeploymentContent() {
@@ -1067,6 +2419,16 @@ public class DevMojo extends AbstractServerStartMojo {
         return Path.of(project.getBuild().getDirectory()).resolve(runtimeName);
     }
 
+    // The directory the dev goal stores its state in, which is kept between executions of the goal
+    private Path resolveDevDirectory() {
+        return Path.of(project.getBuild().getDirectory()).resolve("wildfly-dev");
+    }
+
+    // The exploded deployment directory the war plugin writes to
+    private Path resolveWebAppDirectory() {
+        return remote ? resolveWarDir() : resolveWarLocation();
+    }
+
     // In the case of remote deployment, WildFly Glow is not executed.
     // With the war goal, the directory doesn't contain the file extension.
     private Path resolveWarDir() {
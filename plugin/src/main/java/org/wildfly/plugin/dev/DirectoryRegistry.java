@@ -0,0 +1,192 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The directories registered with a {@link WatchService}. The registered directories are indexed by path, so a
+ * registration only walks the directories which are not yet registered and does not need to collect the already
+ * registered directories first. This keeps registering a new directory cheap on very large trees.
+ * <p>
+ * If the watch service is a {@link PollingWatchService}, the directories are registered with the polling service.
+ * </p>
+ */
+class DirectoryRegistry {
+    private final WatchService watcher;
+    private final Path excluded;
+    private final IgnoreMatcher ignoreMatcher;
+    private int ignored;
+    private final Map<WatchKey, WatchContext> contexts = new HashMap<>();
+    private final Map<Path, WatchKey> keys = new HashMap<>();
+
+    /**
+     * Creates a new registry.
+     *
+     * @param watcher  the watch service to register the directories with
+     * @param excluded a directory which, including its sub-directories, is never registered or {@code null}
+     */
+    DirectoryRegistry(final WatchService watcher, final Path excluded) {
+        this(watcher, excluded, null);
+    }
+
+    /**
+     * Creates a new registry.
+     *
+     * @param watcher       the watch service to register the directories with
+     * @param excluded      a directory which, including its sub-directories, is never registered or {@code null}
+     * @param ignoreMatcher the matcher for directories which, including their sub-directories, are never registered
+     *                          or {@code null}
+     */
+    DirectoryRegistry(final WatchService watcher, final Path excluded, final IgnoreMatcher ignoreMatcher) {
+        this.watcher = watcher;
+        this.excluded = excluded;
+        this.ignoreMatcher = ignoreMatcher;
+    }
+
+    /**
+     * Registers the directory and all of its sub-directories which are not yet registered. Sub-trees of already
+     * registered directories are not walked.
+     *
+     * @param dir     the directory to register
+     * @param handler the handler for changes in the directories
+     *
+     * @return the newly registered directories, an empty list if no directory was registered
+     *
+     * @throws IOException if a directory could not be registered
+     */
+    List<Path> register(final Path dir, final WatchHandler handler) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        final List<Path> registered = new ArrayList<>();
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+                // New sub-directories of registered directories are registered when their creation is seen
+                if (dir.equals(excluded) || isRegistered(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (ignoreMatcher != null) {
+                    if (ignoreMatcher.isIgnoredDirectory(dir)) {
+                        ignored++;
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    ignoreMatcher.load(dir);
+                }
+                final WatchKey key = registerKey(dir);
+                contexts.put(key, WatchContext.of(dir, handler));
+                keys.put(dir, key);
+                registered.add(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return registered;
+    }
+
+    /**
+     * Returns the context for the key.
+     *
+     * @param key the watch key
+     *
+     * @return the context or {@code null} if the key is not registered
+     */
+    WatchContext get(final WatchKey key) {
+        return contexts.get(key);
+    }
+
+    /**
+     * Removes the key from the registry and cancels it.
+     *
+     * @param key the key to remove
+     */
+    void remove(final WatchKey key) {
+        final WatchContext context = contexts.remove(key);
+        if (context != null) {
+            keys.remove(context.directory(), key);
+        }
+        key.cancel();
+    }
+
+    /**
+     * Indicates whether the directory is registered with a valid key.
+     *
+     * @param dir the directory
+     *
+     * @return {@code true} if the directory is registered
+     */
+    boolean isRegistered(final Path dir) {
+        final WatchKey key = keys.get(dir);
+        if (key == null) {
+            return false;
+        }
+        if (!key.isValid()) {
+            // The directory was deleted, possibly without the deletion being seen, remove the stale key
+            keys.remove(dir);
+            contexts.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * A copy of the registered keys and their contexts.
+     *
+     * @return the registered keys and contexts
+     */
+    List<Map.Entry<WatchKey, WatchContext>> entries() {
+        return List.copyOf(contexts.entrySet());
+    }
+
+    /**
+     * The number of registered directories.
+     *
+     * @return the number of registered directories
+     */
+    int size() {
+        return contexts.size();
+    }
+
+    /**
+     * The number of directories which were not registered because they are ignored.
+     *
+     * @return the number of ignored directories
+     */
+    int ignored() {
+        return ignored;
+    }
+
+    private WatchKey registerKey(final Path dir) throws IOException {
+        try {
+            if (watcher instanceof PollingWatchService) {
+                return ((PollingWatchService) watcher).register(dir);
+            }
+            return dir.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        } catch (IOException e) {
+            final String msg = e.getMessage();
+            if (msg != null && msg.contains("limit")) {
+                throw new IOException(String.format("Failed to watch %s: %s. Either raise the limit of watched "
+                        + "directories of the operating system, or enable the polling-watcher option.", dir, msg), e);
+            }
+            throw e;
+        }
+    }
+}
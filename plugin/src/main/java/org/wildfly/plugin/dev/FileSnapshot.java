@@ -0,0 +1,262 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A snapshot of the size and last modified time of the files in the watched directories. The snapshot is used to
+ * reconcile the watched directories with the actual state of the file system, e.g. when the watch service overflowed
+ * and events were lost.
+ * <p>
+ * Each directory is tracked on its own, only the files and directories directly in the directory are recorded. The
+ * content of sub-directories is expected to be added separately, like they are registered with the watch service.
+ * </p>
+ */
+class FileSnapshot {
+    private final Map<Path, Map<Path, FileState>> directories = new HashMap<>();
+
+    /**
+     * Adds the directory to the snapshot. If the directory is already part of the snapshot, nothing is changed.
+     *
+     * @param dir    the directory to add
+     * @param record {@code true} to record the current state of the files in the directory, {@code false} if the
+     *                   files should be reported as created when the directory is {@linkplain #reconcile(Path)
+     *                   reconciled}
+     *
+     * @throws IOException if the directory cannot be read
+     */
+    void addDirectory(final Path dir, final boolean record) throws IOException {
+        if (!directories.containsKey(dir)) {
+            final Map<Path, FileState> files = new HashMap<>();
+            for (Path file : record ? list(dir) : List.<Path> of()) {
+                final FileState state = FileState.of(file);
+                if (state != null) {
+                    files.put(file, state);
+                }
+            }
+            directories.put(dir, files);
+        }
+    }
+
+    /**
+     * Removes the directory and all of its sub-directories from the snapshot.
+     *
+     * @param dir the directory to remove
+     *
+     * @return the files which were recorded in the removed directories
+     */
+    List<Path> removeDirectory(final Path dir) {
+        final List<Path> removed = new ArrayList<>();
+        directories.entrySet().removeIf((entry) -> {
+            if (entry.getKey().startsWith(dir)) {
+                removed.addAll(entry.getValue().keySet());
+                return true;
+            }
+            return false;
+        });
+        return removed;
+    }
+
+    /**
+     * Indicates whether the directory is part of this snapshot.
+     *
+     * @param dir the directory
+     *
+     * @return {@code true} if the directory is part of the snapshot
+     */
+    boolean containsDirectory(final Path dir) {
+        return directories.containsKey(dir);
+    }
+
+    /**
+     * Records the current state of the file. This should be invoked for each change event which was handled, so the
+     * change is not reported again when the snapshot is {@linkplain #reconcile(Path) reconciled}.
+     *
+     * @param file the changed file
+     */
+    void update(final Path file) {
+        final Path parent = file.getParent();
+        final Map<Path, FileState> files = parent == null ? null : directories.get(parent);
+        if (files != null) {
+            final FileState state = FileState.of(file);
+            if (state == null) {
+                files.remove(file);
+            } else {
+                files.put(file, state);
+            }
+        }
+        if (directories.containsKey(file) && Files.notExists(file)) {
+            removeDirectory(file);
+        }
+    }
+
+    /**
+     * Compares the recorded state of the directory with the file system and updates the snapshot. Sub-directories are
+     * reported as created or deleted like files, but their content is only tracked once they are
+     * {@linkplain #addDirectory(Path, boolean) added}.
+     *
+     * @param dir the directory to reconcile
+     *
+     * @return the changes which were not yet recorded
+     *
+     * @throws IOException if the directory cannot be read
+     */
+    List<Change> reconcile(final Path dir) throws IOException {
+        final Map<Path, FileState> files = directories.computeIfAbsent(dir, (key) -> new HashMap<>());
+        final List<Change> changes = new ArrayList<>();
+        final Set<Path> found = new HashSet<>();
+        for (Path file : list(dir)) {
+            final FileState state = FileState.of(file);
+            if (state == null) {
+                continue;
+            }
+            found.add(file);
+            final FileState previous = files.put(file, state);
+            if (previous == null) {
+                changes.add(new Change(ENTRY_CREATE, file));
+            } else if (!previous.equals(state)) {
+                changes.add(new Change(ENTRY_MODIFY, file));
+            }
+        }
+        for (Path file : List.copyOf(files.keySet())) {
+            if (!found.contains(file)) {
+                files.remove(file);
+                changes.add(new Change(ENTRY_DELETE, file));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * The number of files and directories in the snapshot.
+     *
+     * @return the number of files and directories
+     */
+    int size() {
+        return directories.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private static List<Path> list(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.collect(Collectors.toList());
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * A change found when reconciling the snapshot.
+     */
+    static class Change {
+        private final WatchEvent.Kind<Path> kind;
+        private final Path file;
+
+        Change(final WatchEvent.Kind<Path> kind, final Path file) {
+            this.kind = kind;
+            this.file = file;
+        }
+
+        WatchEvent.Kind<Path> kind() {
+            return kind;
+        }
+
+        Path file() {
+            return file;
+        }
+
+        /**
+         * Creates a synthetic watch event for the change.
+         *
+         * @return the event
+         */
+        WatchEvent<Path> toEvent() {
+            final Path context = file.getFileName();
+            return new WatchEvent<>() {
+                @Override
+                public Kind<Path> kind() {
+                    return kind;
+                }
+
+                @Override
+                public int count() {
+                    return 1;
+                }
+
+                @Override
+                public Path context() {
+                    return context;
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return kind.name() + " " + file;
+        }
+    }
+
+    private static class FileState {
+        // Only the existence of directories is tracked
+        private static final FileState DIRECTORY = new FileState(-1L, 0L);
+        private final long size;
+        private final long lastModified;
+
+        private FileState(final long size, final long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        static FileState of(final Path file) {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attributes.isDirectory()) {
+                    return DIRECTORY;
+                }
+                if (!attributes.isRegularFile()) {
+                    return null;
+                }
+                return new FileState(attributes.size(), attributes.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FileState)) {
+                return false;
+            }
+            final FileState other = (FileState) obj;
+            return size == other.size && lastModified == other.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Long.hashCode(lastModified);
+        }
+    }
+}
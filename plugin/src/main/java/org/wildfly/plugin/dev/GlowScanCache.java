@@ -0,0 +1,201 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Caches the result of the last WildFly Glow scan of the deployment by a fingerprint of the content Glow uses to
+ * discover the required layers. The deployment only needs to be scanned again if the fingerprint changed.
+ * <p>
+ * The fingerprint consists of:
+ * <ul>
+ * <li>the classes referenced by the compiled classes, which includes annotations and the used packages</li>
+ * <li>the content of the descriptors, i.e. the files in the {@code META-INF} and {@code WEB-INF} directories</li>
+ * <li>the names, sizes and last modified times of the libraries in {@code WEB-INF/lib}</li>
+ * </ul>
+ * Changes to method bodies and to static web resources therefore do not require a new scan. The referenced classes of
+ * each class file are cached by the size and last modified time of the class file.
+ * </p>
+ */
+class GlowScanCache {
+    private final Map<Path, ClassEntry> classes = new HashMap<>();
+    private String fingerprint;
+    private long lastScanTime;
+    private int hits;
+    private int misses;
+    private long savedTime;
+
+    /**
+     * Computes the fingerprint of the deployment. If the deployment is an archive, the fingerprint is based on the
+     * size and last modified time of the archive.
+     *
+     * @param deployment the exploded deployment directory or the deployment archive
+     *
+     * @return the fingerprint or {@code null} if the deployment does not exist
+     *
+     * @throws IOException if the deployment could not be read
+     */
+    String fingerprint(final Path deployment) throws IOException {
+        if (Files.notExists(deployment)) {
+            return null;
+        }
+        final MessageDigest digest = createDigest();
+        if (!Files.isDirectory(deployment)) {
+            update(digest, "archive:" + Files.size(deployment) + ":" + Files.getLastModifiedTime(deployment).toMillis());
+            return toHex(digest.digest());
+        }
+        final List<Path> files;
+        try (Stream<Path> stream = Files.walk(deployment)) {
+            files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        final Path lib = deployment.resolve("WEB-INF").resolve("lib");
+        final Set<String> references = new TreeSet<>();
+        final SortedMap<String, String> descriptors = new TreeMap<>();
+        final Map<Path, ClassEntry> current = new HashMap<>();
+        for (Path file : files) {
+            final String relativePath = deployment.relativize(file).toString().replace('\\', '/');
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (file.startsWith(lib)) {
+                descriptors.put(relativePath, attributes.size() + ":" + attributes.lastModifiedTime().toMillis());
+            } else if (relativePath.endsWith(".class")) {
+                ClassEntry entry = classes.get(file);
+                if (entry == null || !entry.matches(attributes)) {
+                    entry = new ClassEntry(attributes, ClassFileInfo.read(file).references());
+                }
+                current.put(file, entry);
+                references.addAll(entry.references);
+            } else if (isDescriptor(relativePath)) {
+                descriptors.put(relativePath, contentHash(file));
+            }
+        }
+        classes.clear();
+        classes.putAll(current);
+        for (String reference : references) {
+            update(digest, reference);
+        }
+        for (Map.Entry<String, String> entry : descriptors.entrySet()) {
+            update(digest, entry.getKey() + "=" + entry.getValue());
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Checks whether the last scan is still valid for the fingerprint and records the result as a hit or miss.
+     *
+     * @param fingerprint the current fingerprint of the deployment, {@code null} is never cached
+     *
+     * @return {@code true} if the deployment does not need to be scanned again
+     */
+    boolean isCached(final String fingerprint) {
+        if (fingerprint != null && fingerprint.equals(this.fingerprint)) {
+            hits++;
+            savedTime += lastScanTime;
+            return true;
+        }
+        misses++;
+        return false;
+    }
+
+    /**
+     * Records the fingerprint of the deployment which was scanned.
+     *
+     * @param fingerprint the fingerprint of the scanned deployment
+     * @param scanTime    the time, in nanoseconds, the scan took
+     */
+    void scanned(final String fingerprint, final long scanTime) {
+        this.fingerprint = fingerprint;
+        this.lastScanTime = scanTime;
+    }
+
+    int hits() {
+        return hits;
+    }
+
+    int misses() {
+        return misses;
+    }
+
+    /**
+     * The time, in milliseconds, saved by not scanning the deployment. This is estimated with the time of the last scan.
+     *
+     * @return the saved time in milliseconds
+     */
+    long savedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(savedTime);
+    }
+
+    private static boolean isDescriptor(final String relativePath) {
+        return relativePath.startsWith("META-INF/") || relativePath.startsWith("WEB-INF/")
+                || relativePath.contains("/META-INF/");
+    }
+
+    private static String contentHash(final Path file) throws IOException {
+        final MessageDigest digest = createDigest();
+        try (InputStream in = Files.newInputStream(file)) {
+            final byte[] buffer = new byte[8192];
+            int len;
+            while ((len = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, len);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    private static class ClassEntry {
+        private final long size;
+        private final long lastModified;
+        private final Set<String> references;
+
+        private ClassEntry(final BasicFileAttributes attributes, final Set<String> references) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.references = references;
+        }
+
+        boolean matches(final BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+}
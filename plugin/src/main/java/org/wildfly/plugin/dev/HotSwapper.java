@@ -0,0 +1,124 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.sun.jdi.Bootstrap;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VirtualMachine;
+import com.sun.jdi.connect.AttachingConnector;
+import com.sun.jdi.connect.Connector;
+import com.sun.jdi.connect.IllegalConnectorArgumentsException;
+
+/**
+ * Redefines classes in a running server over the JDWP debug port. The connection is only held while the classes are
+ * redefined, which allows a debugger from an IDE to be attached to the server in between.
+ * <p>
+ * The JVM only allows the bodies of methods to be changed. If the shape of a class changed, e.g. a method or field was
+ * added or removed, the JVM refuses the redefinition and the deployment must be redeployed.
+ * </p>
+ */
+class HotSwapper {
+    private static final String SOCKET_ATTACH = "com.sun.jdi.SocketAttach";
+
+    private final String host;
+    private final int port;
+    private final Log log;
+
+    private HotSwapper(final String host, final int port, final Log log) {
+        this.host = host;
+        this.port = port;
+        this.log = log;
+    }
+
+    /**
+     * Creates a new hot swapper for the debug port of the server.
+     *
+     * @param host the host the debugger listens on, {@code *} is treated as {@code localhost}
+     * @param port the port the debugger listens on
+     * @param log  the log to write messages to
+     *
+     * @return the hot swapper or {@code null} if the JDI is not available in the current JVM
+     */
+    static HotSwapper create(final String host, final int port, final Log log) {
+        if (ModuleLayer.boot().findModule("jdk.jdi").isEmpty()) {
+            log.debug("The jdk.jdi module is not available, classes cannot be hot swapped.");
+            return null;
+        }
+        final String resolvedHost = host == null || host.isBlank() || "*".equals(host) ? "localhost" : host;
+        return new HotSwapper(resolvedHost, port, log);
+    }
+
+    /**
+     * Redefines the loaded classes of the class files. Classes which have not yet been loaded by the server do not
+     * need to be redefined.
+     *
+     * @param outputDirectory the directory the class files were compiled to
+     * @param classFiles      the class files to redefine
+     *
+     * @return {@code true} if the classes were redefined, {@code false} if the deployment needs to be redeployed
+     */
+    boolean redefine(final Path outputDirectory, final Collection<Path> classFiles) {
+        VirtualMachine vm = null;
+        try {
+            vm = attach();
+            if (!vm.canRedefineClasses()) {
+                log.debug("The server JVM does not support redefining classes.");
+                return false;
+            }
+            final Map<ReferenceType, byte[]> classes = new HashMap<>();
+            for (Path classFile : classFiles) {
+                final byte[] bytes = Files.readAllBytes(classFile);
+                for (ReferenceType type : vm.classesByName(toClassName(outputDirectory, classFile))) {
+                    classes.put(type, bytes);
+                }
+            }
+            if (!classes.isEmpty()) {
+                vm.redefineClasses(classes);
+            }
+            return true;
+        } catch (UnsupportedOperationException | LinkageError e) {
+            // The JVM refused the redefinition, the shape of the class likely changed
+            log.debug(String.format("The server refused to redefine the classes: %s", e));
+        } catch (IOException | IllegalConnectorArgumentsException | RuntimeException e) {
+            log.debug(String.format("Failed to hot swap the classes using the debug port %s:%d: %s", host, port, e));
+        } finally {
+            if (vm != null) {
+                try {
+                    vm.dispose();
+                } catch (RuntimeException ignore) {
+                }
+            }
+        }
+        return false;
+    }
+
+    private VirtualMachine attach() throws IOException, IllegalConnectorArgumentsException {
+        for (AttachingConnector connector : Bootstrap.virtualMachineManager().attachingConnectors()) {
+            if (SOCKET_ATTACH.equals(connector.name())) {
+                final Map<String, Connector.Argument> arguments = connector.defaultArguments();
+                arguments.get("hostname").setValue(host);
+                arguments.get("port").setValue(Integer.toString(port));
+                arguments.get("timeout").setValue("5000");
+                return connector.attach(arguments);
+            }
+        }
+        throw new IOException("No socket attaching connector is available");
+    }
+
+    private static String toClassName(final Path outputDirectory, final Path classFile) {
+        final String relativePath = outputDirectory.relativize(classFile).toString().replace('\\', '/');
+        return relativePath.substring(0, relativePath.length() - ".class".length()).replace('/', '.');
+    }
+}
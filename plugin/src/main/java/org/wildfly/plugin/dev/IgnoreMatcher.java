@@ -0,0 +1,346 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which changed files and which directories are ignored by the watcher. All patterns are compiled once, so
+ * checking a file does not compile patterns or read file attributes.
+ * <p>
+ * A file is ignored if its name starts with a {@code .}, ends with {@code ~}, matches one of the configured ignore
+ * patterns or if it is ignored by a {@code .gitignore} file. Directories are only ignored by {@code .gitignore} files,
+ * an ignored directory is never watched.
+ * </p>
+ * <p>
+ * The {@code .gitignore} files of a directory and of its parent directories up to the root of the Git repository, or
+ * up to the top directory of the project if it is not in a Git repository, are loaded with {@link #addRoot(Path)}. The
+ * {@code .gitignore} files of watched sub-directories are loaded with {@link #load(Path)} when the directory is
+ * registered. As with Git, the rules of a {@code .gitignore} file in a deeper directory take precedence, the last
+ * matching rule of a file wins and everything in an ignored directory is ignored.
+ * </p>
+ * <p>
+ * The source, resource and web application directories declared by the project are
+ * {@linkplain #addWatchedRoot(Path) watched roots}. A watched root is never ignored, even if it is in an ignored
+ * directory such as {@code target/}. The rules only apply to the files and directories below it.
+ * </p>
+ */
+class IgnoreMatcher {
+    private static final String GIT_IGNORE = ".gitignore";
+
+    private final Pattern ignorePattern;
+    private final boolean gitIgnore;
+    // Sorted by path, so the rules of a parent directory are always applied before the rules of a sub-directory
+    private final Map<Path, List<Rule>> ignoreFiles = new TreeMap<>();
+    private final Set<Path> loadedFiles = new HashSet<>();
+    private final Path topDirectory;
+    private final Set<Path> watchedRoots = new HashSet<>();
+
+    /**
+     * Creates a new matcher.
+     *
+     * @param ignorePatterns the regular expressions for the names of ignored files
+     * @param gitIgnore      {@code true} if {@code .gitignore} files should be loaded
+     */
+    IgnoreMatcher(final Collection<String> ignorePatterns, final boolean gitIgnore) {
+        this(ignorePatterns, gitIgnore, null);
+    }
+
+    /**
+     * Creates a new matcher.
+     *
+     * @param ignorePatterns the regular expressions for the names of ignored files
+     * @param gitIgnore      {@code true} if {@code .gitignore} files should be loaded
+     * @param topDirectory   the top directory of a multi-module project, whose {@code .gitignore} files are loaded if the
+     *                           project is not in a Git repository, or {@code null}
+     */
+    IgnoreMatcher(final Collection<String> ignorePatterns, final boolean gitIgnore, final Path topDirectory) {
+        this.ignorePattern = ignorePatterns.isEmpty() ? null
+                : Pattern.compile(ignorePatterns.stream()
+                        .map((pattern) -> "(?:" + pattern + ")")
+                        .collect(Collectors.joining("|")));
+        this.gitIgnore = gitIgnore;
+        this.topDirectory = topDirectory == null ? null : topDirectory.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Loads the {@code .gitignore} files of the directory and of its parent directories up to the root of the Git
+     * repository. If the directory is not in a Git repository, the {@code .gitignore} files of the directory and of its
+     * parent directories up to the top directory of the project are loaded.
+     *
+     * @param dir the project directory
+     *
+     * @throws IOException if a {@code .gitignore} file could not be read
+     */
+    void addRoot(final Path dir) throws IOException {
+        if (!gitIgnore) {
+            return;
+        }
+        final Path absolute = dir.toAbsolutePath().normalize();
+        Path root = null;
+        for (Path current = absolute; current != null; current = current.getParent()) {
+            if (Files.exists(current.resolve(".git"))) {
+                root = current;
+                break;
+            }
+        }
+        if (root == null) {
+            if (topDirectory == null || !absolute.startsWith(topDirectory)) {
+                load(absolute);
+                return;
+            }
+            root = topDirectory;
+        } else {
+            load(root, root.resolve(".git").resolve("info").resolve("exclude"));
+        }
+        for (Path current = absolute; current.startsWith(root); current = current.getParent()) {
+            load(current);
+        }
+    }
+
+    /**
+     * Adds a directory declared by the project, e.g. a source directory. The directory is never ignored.
+     *
+     * @param dir the directory
+     */
+    void addWatchedRoot(final Path dir) {
+        watchedRoots.add(dir.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Loads the {@code .gitignore} file of the directory if present and not yet loaded.
+     *
+     * @param dir the directory
+     *
+     * @throws IOException if the file could not be read
+     */
+    void load(final Path dir) throws IOException {
+        if (gitIgnore) {
+            load(dir, dir.resolve(GIT_IGNORE));
+        }
+    }
+
+    /**
+     * Indicates whether changes to the file are ignored.
+     *
+     * @param file the absolute path of the changed file
+     *
+     * @return {@code true} if the change should be ignored
+     */
+    boolean isIgnored(final Path file) {
+        final Path fileName = file.getFileName();
+        if (fileName == null) {
+            return false;
+        }
+        final String name = fileName.toString();
+        if (name.startsWith(".") || name.endsWith("~")) {
+            return true;
+        }
+        if (ignorePattern != null && ignorePattern.matcher(name).matches()) {
+            return true;
+        }
+        return isGitIgnored(file, false);
+    }
+
+    /**
+     * Indicates whether the directory is ignored by a {@code .gitignore} file and should not be watched.
+     *
+     * @param dir the absolute path of the directory
+     *
+     * @return {@code true} if the directory should not be watched
+     */
+    boolean isIgnoredDirectory(final Path dir) {
+        return isGitIgnored(dir, true);
+    }
+
+    /**
+     * The number of loaded {@code .gitignore} rules.
+     *
+     * @return the number of rules
+     */
+    int ruleCount() {
+        return ignoreFiles.values().stream().mapToInt(List::size).sum();
+    }
+
+    private boolean isGitIgnored(final Path path, final boolean directory) {
+        if (ignoreFiles.isEmpty()) {
+            return false;
+        }
+        final Path root = findWatchedRoot(path);
+        if (path.equals(root)) {
+            return false;
+        }
+        if (matches(path, directory)) {
+            return true;
+        }
+        // A file in an ignored directory cannot be included again, as with Git
+        for (Path parent = path.getParent(); parent != null && !parent.equals(root); parent = parent.getParent()) {
+            if (matches(parent, true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Path findWatchedRoot(final Path path) {
+        Path result = null;
+        for (Path root : watchedRoots) {
+            if (path.startsWith(root) && (result == null || root.getNameCount() > result.getNameCount())) {
+                result = root;
+            }
+        }
+        return result;
+    }
+
+    private boolean matches(final Path path, final boolean directory) {
+        boolean ignored = false;
+        for (Map.Entry<Path, List<Rule>> entry : ignoreFiles.entrySet()) {
+            final Path base = entry.getKey();
+            if (!path.startsWith(base) || path.equals(base)) {
+                continue;
+            }
+            final String relativePath = base.relativize(path).toString().replace('\\', '/');
+            for (Rule rule : entry.getValue()) {
+                if ((directory || !rule.directoryOnly) && rule.pattern.matcher(relativePath).matches()) {
+                    ignored = !rule.negated;
+                }
+            }
+        }
+        return ignored;
+    }
+
+    private void load(final Path base, final Path file) throws IOException {
+        if (!loadedFiles.add(file) || !Files.isRegularFile(file)) {
+            return;
+        }
+        final List<Rule> rules = ignoreFiles.computeIfAbsent(base, (key) -> new ArrayList<>());
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            final Rule rule = Rule.parse(line);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+    }
+
+    /**
+     * A single rule of a {@code .gitignore} file.
+     */
+    static class Rule {
+        private final Pattern pattern;
+        private final boolean negated;
+        private final boolean directoryOnly;
+
+        private Rule(final Pattern pattern, final boolean negated, final boolean directoryOnly) {
+            this.pattern = pattern;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+        }
+
+        /**
+         * Parses a line of a {@code .gitignore} file.
+         *
+         * @param line the line
+         *
+         * @return the rule or {@code null} if the line is blank or a comment
+         */
+        static Rule parse(final String line) {
+            // Trailing spaces are ignored unless escaped
+            String value = line.replaceAll("(?<!\\\\)\\s+$", "");
+            if (value.isEmpty() || value.startsWith("#")) {
+                return null;
+            }
+            boolean negated = false;
+            if (value.startsWith("!")) {
+                negated = true;
+                value = value.substring(1);
+            }
+            boolean directoryOnly = false;
+            if (value.endsWith("/")) {
+                directoryOnly = true;
+                value = value.substring(0, value.length() - 1);
+            }
+            // A pattern with a separator is relative to the directory of the .gitignore file
+            final boolean anchored = value.contains("/");
+            if (value.startsWith("/")) {
+                value = value.substring(1);
+            }
+            if (value.isEmpty()) {
+                return null;
+            }
+            return new Rule(Pattern.compile((anchored ? "" : "(?:.*/)?") + toRegex(value)), negated, directoryOnly);
+        }
+
+        private static String toRegex(final String glob) {
+            final StringBuilder regex = new StringBuilder();
+            final int length = glob.length();
+            for (int i = 0; i < length; i++) {
+                final char c = glob.charAt(i);
+                switch (c) {
+                    case '*':
+                        if (i + 1 < length && glob.charAt(i + 1) == '*') {
+                            final boolean segmentStart = i == 0 || glob.charAt(i - 1) == '/';
+                            if (segmentStart && i + 2 < length && glob.charAt(i + 2) == '/') {
+                                // "**/" matches zero or more directories
+                                regex.append("(?:.*/)?");
+                                i += 2;
+                            } else {
+                                regex.append(".*");
+                                i++;
+                            }
+                        } else {
+                            regex.append("[^/]*");
+                        }
+                        break;
+                    case '?':
+                        regex.append("[^/]");
+                        break;
+                    case '[': {
+                        final int end = glob.indexOf(']', i + 2);
+                        if (end < 0) {
+                            regex.append("\\[");
+                            break;
+                        }
+                        String range = glob.substring(i + 1, end);
+                        if (range.startsWith("!")) {
+                            range = "^" + range.substring(1);
+                        }
+                        regex.append('[').append(range.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                        i = end;
+                        break;
+                    }
+                    case '\\':
+                        if (i + 1 < length) {
+                            appendLiteral(regex, glob.charAt(++i));
+                        }
+                        break;
+                    default:
+                        appendLiteral(regex, c);
+                        break;
+                }
+            }
+            return regex.toString();
+        }
+
+        private static void appendLiteral(final StringBuilder regex, final char c) {
+            if (!Character.isLetterOrDigit(c)) {
+                regex.append('\\');
+            }
+            regex.append(c);
+        }
+    }
+}
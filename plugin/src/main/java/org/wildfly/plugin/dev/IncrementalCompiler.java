@@ -0,0 +1,465 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Compiles Java sources in-process. The compiler and its file manager are kept for the life of the dev goal, which
+ * avoids the cost of setting up the {@code maven-compiler-plugin} for each change. Only the changed sources, and the
+ * sources of the classes which reference the classes compiled from them, are compiled.
+ * <p>
+ * The {@linkplain DependencyIndex dependency index} used to find the dependent sources is stored after each
+ * compilation so it does not need to be rebuilt when the dev goal is restarted.
+ * </p>
+ * <p>
+ * The compiler inlines compile-time constants, so the classes using a constant do not reference the class declaring
+ * it. If the value of a constant changed, all sources are compiled. If classes were compiled without the
+ * {@code SourceFile} attribute, their sources cannot be resolved and the compiler is {@linkplain #isIncremental() not
+ * incremental}.
+ * </p>
+ */
+class IncrementalCompiler implements AutoCloseable {
+    private final JavaCompiler compiler;
+    private final StandardJavaFileManager fileManager;
+    private final List<String> options;
+    private final Path outputDirectory;
+    private final List<Path> sourceRoots;
+    private final Path indexFile;
+    private final DependencyIndex index;
+    private final Log log;
+    // Sources which failed to compile and need to be compiled with the next compilation
+    private final Set<Path> pending = new LinkedHashSet<>();
+
+    private IncrementalCompiler(final JavaCompiler compiler, final StandardJavaFileManager fileManager,
+            final List<String> options, final Path outputDirectory, final List<Path> sourceRoots,
+            final Path indexFile, final DependencyIndex index, final Log log) {
+        this.compiler = compiler;
+        this.fileManager = fileManager;
+        this.options = options;
+        this.outputDirectory = outputDirectory;
+        this.sourceRoots = sourceRoots;
+        this.indexFile = indexFile;
+        this.index = index;
+        this.log = log;
+    }
+
+    /**
+     * Creates a new compiler.
+     *
+     * @param configuration the compiler configuration
+     * @param log           the log to write messages to
+     *
+     * @return the compiler or {@code null} if no system Java compiler is available
+     *
+     * @throws IOException if an error occurs setting up the file manager
+     */
+    static IncrementalCompiler create(final CompilerConfiguration configuration, final Log log) throws IOException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return null;
+        }
+        final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, Locale.getDefault(),
+                configuration.encoding());
+        Files.createDirectories(configuration.outputDirectory());
+        fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(configuration.outputDirectory()));
+        fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, configuration.classpath());
+        // Do not resolve sources implicitly, the sources which need to be compiled are passed explicitly
+        fileManager.setLocationFromPaths(StandardLocation.SOURCE_PATH, List.of());
+        if (!configuration.processorPath().isEmpty()) {
+            fileManager.setLocationFromPaths(StandardLocation.ANNOTATION_PROCESSOR_PATH, configuration.processorPath());
+        }
+        if (configuration.generatedSourcesDirectory() != null) {
+            Files.createDirectories(configuration.generatedSourcesDirectory());
+            fileManager.setLocationFromPaths(StandardLocation.SOURCE_OUTPUT,
+                    List.of(configuration.generatedSourcesDirectory()));
+        }
+        final List<Path> sourceRoots = configuration.sourceRoots();
+        final long start = System.nanoTime();
+        final Path indexFile = configuration.indexFile();
+        final DependencyIndex index;
+        if (indexFile == null) {
+            index = DependencyIndex.build(configuration.outputDirectory(), sourceRoots);
+        } else {
+            index = DependencyIndex.load(indexFile, configuration.outputDirectory(), sourceRoots);
+            index.store(indexFile);
+        }
+        log.debug(String.format("Loaded the dependency index of %d classes in %d ms", index.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        return new IncrementalCompiler(compiler, fileManager, configuration.options(),
+                configuration.outputDirectory(), sourceRoots, indexFile, index, log);
+    }
+
+    /**
+     * Synchronizes the dependency index with the output directory. This should be invoked if the sources were
+     * compiled by other means, e.g. with the {@code maven-compiler-plugin}.
+     *
+     * @throws IOException if an error occurs reading the class files or storing the index
+     */
+    synchronized void refresh() throws IOException {
+        pending.clear();
+        if (index.sync() > 0) {
+            storeIndex();
+        }
+    }
+
+    /**
+     * Indicates whether the sources depending on a changed source can be determined. This is not the case if classes
+     * were compiled without the {@code SourceFile} attribute, e.g. with {@code -g:none}, in which case all sources
+     * need to be compiled.
+     *
+     * @return {@code true} if the {@linkplain #dirtySources(Path) dirty sources} can be determined
+     */
+    synchronized boolean isIncremental() {
+        return !index.hasClassesWithoutSourceFile();
+    }
+
+    /**
+     * Determines the sources which need to be compiled when the source file changed. This includes the source file
+     * itself, if it still exists, the sources of the classes which extend or implement, directly or indirectly, any
+     * class compiled from the source and the sources of the classes which reference any of these classes.
+     *
+     * @param source the changed source file
+     *
+     * @return the sources which need to be compiled
+     */
+    synchronized Set<Path> dirtySources(final Path source) {
+        final Set<Path> result = new LinkedHashSet<>();
+        if (Files.exists(source)) {
+            result.add(source);
+        }
+        result.addAll(index.dependentSources(Set.of(source)));
+        return result;
+    }
+
+    /**
+     * Returns the indexed sources which are the path itself or are located in the path if the path is a directory.
+     * This is used to resolve the sources of a deleted directory.
+     *
+     * @param path the source file or directory
+     *
+     * @return the indexed sources
+     */
+    synchronized Set<Path> indexedSources(final Path path) {
+        return index.sources(path);
+    }
+
+    /**
+     * Removes the class files, including the inner classes, compiled from the deleted sources from the output
+     * directory and the exploded deployment.
+     *
+     * @param deletedSources       the deleted sources, sources which exist are ignored
+     * @param deploymentClassesDir the {@code WEB-INF/classes} directory of the exploded deployment or {@code null} if
+     *                                 the class files should only be removed from the output directory
+     *
+     * @return the class files removed from the output directory
+     *
+     * @throws IOException if an error occurs deleting the class files
+     */
+    synchronized List<Path> removeOutputs(final Collection<Path> deletedSources, final Path deploymentClassesDir)
+            throws IOException {
+        final List<Path> removed = new ArrayList<>();
+        for (Path source : deletedSources) {
+            if (Files.exists(source)) {
+                continue;
+            }
+            for (String className : index.classesOf(source)) {
+                final Path classFile = index.classFile(className);
+                if (Files.deleteIfExists(classFile)) {
+                    removed.add(classFile);
+                }
+                if (deploymentClassesDir != null) {
+                    Files.deleteIfExists(deploymentClassesDir.resolve(className + ".class"));
+                }
+                index.remove(className);
+            }
+            pending.remove(source);
+        }
+        if (!removed.isEmpty()) {
+            storeIndex();
+            log.info(String.format("Removed %d class file(s) of %d deleted source file(s)", removed.size(),
+                    deletedSources.size()));
+        }
+        return removed;
+    }
+
+    /**
+     * Compiles the sources. Sources which failed to compile with a previous compilation are compiled as well.
+     *
+     * @param dirtySources         the sources to compile
+     * @param deploymentClassesDir the {@code WEB-INF/classes} directory of the exploded deployment the compiled
+     *                                 classes should be copied to, or {@code null} if they should only be written to
+     *                                 the output directory
+     *
+     * @return the class files written to the output directory
+     *
+     * @throws MojoExecutionException if the compilation failed
+     * @throws IOException            if an error occurs reading the sources or writing the class files
+     */
+    synchronized List<Path> compile(final Collection<Path> dirtySources, final Path deploymentClassesDir)
+            throws MojoExecutionException, IOException {
+        final long start = System.nanoTime();
+        final Set<Path> toCompile = new LinkedHashSet<>(pending);
+        toCompile.addAll(dirtySources);
+        toCompile.removeIf(Files::notExists);
+        if (toCompile.isEmpty()) {
+            return List.of();
+        }
+        final List<String> changedConstants = new ArrayList<>();
+        final Set<Path> written = new LinkedHashSet<>(compileSources(toCompile, deploymentClassesDir, changedConstants));
+        int compiledCount = toCompile.size();
+        if (!changedConstants.isEmpty()) {
+            // The classes which inlined the constants are unknown
+            final Set<Path> all = allSources();
+            log.info(String.format("The constants of %s changed, compiling all %d source file(s)", changedConstants,
+                    all.size()));
+            written.addAll(compileSources(all, deploymentClassesDir, new ArrayList<>()));
+            compiledCount += all.size();
+        }
+        storeIndex();
+        log.info(String.format("Compiled %d source file(s) in %d ms", compiledCount,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        return List.copyOf(written);
+    }
+
+    private List<Path> compileSources(final Set<Path> toCompile, final Path deploymentClassesDir,
+            final List<String> changedConstants) throws MojoExecutionException, IOException {
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final RecordingFileManager recordingFileManager = new RecordingFileManager(fileManager);
+        final Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromPaths(toCompile);
+        final boolean success = compiler
+                .getTask(null, recordingFileManager, diagnostics, options, null, compilationUnits)
+                .call();
+        logDiagnostics(diagnostics);
+        pending.clear();
+        if (!success) {
+            pending.addAll(toCompile);
+            throw new MojoExecutionException(String.format("Compilation failure, failed to compile %d source file(s)",
+                    toCompile.size()));
+        }
+        final List<Path> written = recordingFileManager.classFiles();
+        for (Path classFile : written) {
+            final String className = outputDirectory.relativize(classFile).toString().replace('\\', '/')
+                    .replaceAll("\\.class$", "");
+            final Long previousConstants = index.constantsOf(className);
+            index.update(classFile);
+            if (previousConstants != null && !previousConstants.equals(index.constantsOf(className))) {
+                changedConstants.add(className.replace('/', '.'));
+            }
+            if (deploymentClassesDir != null) {
+                final Path target = deploymentClassesDir.resolve(outputDirectory.relativize(classFile).toString());
+                Files.createDirectories(target.getParent());
+                Files.copy(classFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return written;
+    }
+
+    private Set<Path> allSources() throws IOException {
+        final Set<Path> result = new LinkedHashSet<>();
+        for (Path sourceRoot : sourceRoots) {
+            if (Files.isDirectory(sourceRoot)) {
+                try (Stream<Path> files = Files.walk(sourceRoot)) {
+                    files.filter((file) -> file.getFileName().toString().endsWith(".java") && Files.isRegularFile(file))
+                            .forEach(result::add);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileManager.close();
+    }
+
+    private void storeIndex() {
+        if (indexFile != null) {
+            try {
+                index.store(indexFile);
+            } catch (IOException e) {
+                log.debug(String.format("Failed to store the dependency index to %s: %s", indexFile, e));
+            }
+        }
+    }
+
+    private void logDiagnostics(final DiagnosticCollector<JavaFileObject> diagnostics) {
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            final String message = formatDiagnostic(diagnostic);
+            switch (diagnostic.getKind()) {
+                case ERROR:
+                    log.error(message);
+                    break;
+                case WARNING:
+                case MANDATORY_WARNING:
+                    log.warn(message);
+                    break;
+                default:
+                    log.debug(message);
+            }
+        }
+    }
+
+    private static String formatDiagnostic(final Diagnostic<? extends JavaFileObject> diagnostic) {
+        final JavaFileObject source = diagnostic.getSource();
+        if (source == null) {
+            return diagnostic.getMessage(Locale.getDefault());
+        }
+        return String.format("%s:[%d,%d] %s", source.toUri().getPath(), diagnostic.getLineNumber(),
+                diagnostic.getColumnNumber(), diagnostic.getMessage(Locale.getDefault()));
+    }
+
+    /**
+     * The configuration for the compiler.
+     */
+    static class CompilerConfiguration {
+        private final List<Path> sourceRoots = new ArrayList<>();
+        private final List<Path> classpath = new ArrayList<>();
+        private final List<Path> processorPath = new ArrayList<>();
+        private final List<String> options = new ArrayList<>();
+        private Path outputDirectory;
+        private Path generatedSourcesDirectory;
+        private Path indexFile;
+        private Charset encoding;
+
+        CompilerConfiguration addSourceRoot(final Path sourceRoot) {
+            sourceRoots.add(sourceRoot);
+            return this;
+        }
+
+        CompilerConfiguration addClasspath(final Collection<Path> paths) {
+            classpath.addAll(paths);
+            return this;
+        }
+
+        CompilerConfiguration addProcessorPath(final Collection<Path> paths) {
+            processorPath.addAll(paths);
+            return this;
+        }
+
+        CompilerConfiguration addOption(final String... options) {
+            this.options.addAll(List.of(options));
+            return this;
+        }
+
+        CompilerConfiguration setOutputDirectory(final Path outputDirectory) {
+            this.outputDirectory = outputDirectory;
+            return this;
+        }
+
+        CompilerConfiguration setGeneratedSourcesDirectory(final Path generatedSourcesDirectory) {
+            this.generatedSourcesDirectory = generatedSourcesDirectory;
+            return this;
+        }
+
+        CompilerConfiguration setIndexFile(final Path indexFile) {
+            this.indexFile = indexFile;
+            return this;
+        }
+
+        CompilerConfiguration setEncoding(final Charset encoding) {
+            this.encoding = encoding;
+            return this;
+        }
+
+        List<Path> sourceRoots() {
+            // Generated sources are recreated by the annotation processors and must not be passed to the compiler
+            final List<Path> result = new ArrayList<>(sourceRoots);
+            final Iterator<Path> iter = result.iterator();
+            while (iter.hasNext()) {
+                final Path sourceRoot = iter.next();
+                if (generatedSourcesDirectory != null && sourceRoot.startsWith(generatedSourcesDirectory)) {
+                    iter.remove();
+                }
+            }
+            return List.copyOf(result);
+        }
+
+        List<Path> classpath() {
+            return List.copyOf(classpath);
+        }
+
+        List<Path> processorPath() {
+            return List.copyOf(processorPath);
+        }
+
+        List<String> options() {
+            return List.copyOf(options);
+        }
+
+        Path outputDirectory() {
+            return outputDirectory;
+        }
+
+        Path generatedSourcesDirectory() {
+            return generatedSourcesDirectory;
+        }
+
+        Path indexFile() {
+            return indexFile;
+        }
+
+        Charset encoding() {
+            return encoding;
+        }
+    }
+
+    /**
+     * Records the class files written by the compiler.
+     */
+    private static class RecordingFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+        private final List<Path> classFiles = new ArrayList<>();
+
+        RecordingFileManager(final JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(final Location location, final String className,
+                final JavaFileObject.Kind kind, final FileObject sibling) throws IOException {
+            final JavaFileObject result = super.getJavaFileForOutput(location, className, kind, sibling);
+            if (location == StandardLocation.CLASS_OUTPUT && kind == JavaFileObject.Kind.CLASS) {
+                final URI uri = result.toUri();
+                if ("file".equals(uri.getScheme())) {
+                    classFiles.add(Path.of(uri));
+                }
+            }
+            return result;
+        }
+
+        List<Path> classFiles() {
+            return List.copyOf(classFiles);
+        }
+    }
+}
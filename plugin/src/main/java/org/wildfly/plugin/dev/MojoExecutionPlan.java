@@ -0,0 +1,119 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.BuildPluginManager;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.twdata.maven.mojoexecutor.PlexusConfigurationUtils;
+
+/**
+ * A resolved execution of a goal of a plugin for a project. The mojo descriptor is looked up and the configuration is
+ * merged with the defaults of the mojo once, so executing the plan again only executes the mojo.
+ * <p>
+ * The plan is created from the in-memory model of the project, which is not reloaded while the build runs. Changes
+ * to the {@code pom.xml} are therefore not picked up and require a restart of the goal.
+ * </p>
+ */
+class MojoExecutionPlan {
+
+    /**
+     * Creates the configuration of a mojo.
+     */
+    interface ConfigurationFactory {
+
+        /**
+         * Creates the configuration.
+         *
+         * @return the configuration
+         *
+         * @throws MojoExecutionException if the configuration could not be created
+         */
+        Xpp3Dom create() throws MojoExecutionException;
+    }
+
+    private final BuildPluginManager pluginManager;
+    private final MavenSession session;
+    private final MojoExecution execution;
+    private final long creationTime;
+    private int executions;
+    private long lastExecutionTime;
+
+    private MojoExecutionPlan(final BuildPluginManager pluginManager, final MavenSession session,
+            final MojoExecution execution, final long creationTime) {
+        this.pluginManager = pluginManager;
+        this.session = session;
+        this.execution = execution;
+        this.creationTime = creationTime;
+    }
+
+    /**
+     * Creates the plan. If the project is not the current project of the session, the mojo is executed with a copy of
+     * the session for the project.
+     *
+     * @param pluginManager the plugin manager used to execute the mojo
+     * @param session       the session of the build
+     * @param project       the project the mojo is executed for
+     * @param descriptor    the descriptor of the mojo
+     * @param configuration the configuration of the mojo, which is merged with the default configuration of the mojo
+     * @param start         the {@link System#nanoTime()} the creation of the plan started at
+     *
+     * @return the plan
+     */
+    static MojoExecutionPlan create(final BuildPluginManager pluginManager, final MavenSession session,
+            final MavenProject project, final MojoDescriptor descriptor, final Xpp3Dom configuration,
+            final long start) {
+        final MavenSession projectSession;
+        if (project == session.getCurrentProject()) {
+            projectSession = session;
+        } else {
+            projectSession = session.clone();
+            projectSession.setCurrentProject(project);
+        }
+        final Xpp3Dom defaults = PlexusConfigurationUtils.toXpp3Dom(descriptor.getMojoConfiguration());
+        final MojoExecution execution = new MojoExecution(descriptor,
+                Xpp3Dom.mergeXpp3Dom(configuration, defaults));
+        return new MojoExecutionPlan(pluginManager, projectSession, execution, System.nanoTime() - start);
+    }
+
+    /**
+     * Executes the mojo.
+     *
+     * @throws MojoExecutionException if the execution failed
+     */
+    void execute() throws MojoExecutionException {
+        final long start = System.nanoTime();
+        try {
+            pluginManager.executeMojo(session, execution);
+        } catch (Exception e) {
+            throw new MojoExecutionException("Unable to execute mojo", e);
+        } finally {
+            executions++;
+            lastExecutionTime = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Describes the timings of the last execution. Without the plan, each execution would also have taken the time to
+     * create the plan.
+     *
+     * @return the description of the timings
+     */
+    String describeTimings() {
+        final MojoDescriptor descriptor = execution.getMojoDescriptor();
+        final long creation = TimeUnit.NANOSECONDS.toMillis(creationTime);
+        final long last = TimeUnit.NANOSECONDS.toMillis(lastExecutionTime);
+        return String.format("%s:%s ran in %d ms, %d ms with the plan resolution (run %d, saved %d ms)",
+                descriptor.getPluginDescriptor().getArtifactId(), descriptor.getGoal(), last, last + creation,
+                executions, creation * (executions - 1));
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.Watchable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link WatchService} which polls the registered directories for changes rather than relying on the file system
+ * notifications of the operating system. This can be used when the operating system limits the number of directories
+ * which can be watched, e.g. the inotify watch limit on Linux.
+ * <p>
+ * The changes are found by comparing the registered directories against a {@linkplain FileSnapshot snapshot} of the
+ * files. Directories are registered with {@link #register(Path)} rather than {@link Path#register}.
+ * </p>
+ */
+class PollingWatchService implements WatchService {
+    private static final PollingKey CLOSED = new PollingKey(null, null);
+
+    private final long interval;
+    private final FileSnapshot snapshot = new FileSnapshot();
+    private final Map<Path, PollingKey> keys = new ConcurrentHashMap<>();
+    private final BlockingQueue<PollingKey> signalled = new LinkedBlockingQueue<>();
+    private final Thread poller;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new polling watch service and starts polling.
+     *
+     * @param interval the interval, in milliseconds, in which the registered directories are polled
+     */
+    PollingWatchService(final long interval) {
+        this.interval = Math.max(1L, interval);
+        poller = new Thread(this::pollLoop, "wildfly-dev-poller");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * Registers the directory to be polled for changes of the files in the directory.
+     *
+     * @param dir the directory to poll
+     *
+     * @return the key for the directory
+     *
+     * @throws IOException if the directory cannot be read
+     */
+    WatchKey register(final Path dir) throws IOException {
+        checkOpen();
+        synchronized (snapshot) {
+            snapshot.addDirectory(dir, true);
+        }
+        return keys.computeIfAbsent(dir, (key) -> new PollingKey(this, dir));
+    }
+
+    /**
+     * Polls all registered directories once. This is invoked periodically by the polling thread.
+     */
+    void pollOnce() {
+        for (PollingKey key : keys.values()) {
+            if (!key.isValid()) {
+                continue;
+            }
+            final List<FileSnapshot.Change> changes;
+            synchronized (snapshot) {
+                if (Files.notExists(key.dir)) {
+                    // Like the native watch service, the key is cancelled if the directory was deleted
+                    snapshot.removeDirectory(key.dir);
+                    key.cancel();
+                    signal(key, List.of());
+                    continue;
+                }
+                try {
+                    changes = snapshot.reconcile(key.dir);
+                } catch (IOException e) {
+                    continue;
+                }
+            }
+            if (!changes.isEmpty()) {
+                final List<WatchEvent<?>> events = new ArrayList<>(changes.size());
+                for (FileSnapshot.Change change : changes) {
+                    events.add(change.toEvent());
+                }
+                signal(key, events);
+            }
+        }
+    }
+
+    @Override
+    public WatchKey poll() {
+        checkOpen();
+        return checkKey(signalled.poll());
+    }
+
+    @Override
+    public WatchKey poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+        checkOpen();
+        return checkKey(signalled.poll(timeout, unit));
+    }
+
+    @Override
+    public WatchKey take() throws InterruptedException {
+        checkOpen();
+        return checkKey(signalled.take());
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            poller.interrupt();
+            keys.values().forEach(PollingKey::cancel);
+            keys.clear();
+            signalled.clear();
+            // Wake up any thread waiting for a key
+            signalled.offer(CLOSED);
+        }
+    }
+
+    private void pollLoop() {
+        try {
+            while (!closed) {
+                TimeUnit.MILLISECONDS.sleep(interval);
+                pollOnce();
+            }
+        } catch (InterruptedException ignore) {
+            // The service has been closed
+        }
+    }
+
+    private void signal(final PollingKey key, final List<WatchEvent<?>> events) {
+        if (key.addEvents(events)) {
+            signalled.offer(key);
+        }
+    }
+
+    private WatchKey checkKey(final PollingKey key) {
+        if (key == CLOSED) {
+            signalled.offer(CLOSED);
+            throw new ClosedWatchServiceException();
+        }
+        return key;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new ClosedWatchServiceException();
+        }
+    }
+
+    private static class PollingKey implements WatchKey {
+        private final PollingWatchService service;
+        private final Path dir;
+        private final List<WatchEvent<?>> events = new ArrayList<>();
+        private boolean signalled;
+        private volatile boolean valid = true;
+
+        private PollingKey(final PollingWatchService service, final Path dir) {
+            this.service = service;
+            this.dir = dir;
+        }
+
+        /**
+         * Adds the events to the key.
+         *
+         * @return {@code true} if the key needs to be queued, {@code false} if the key was already signalled
+         */
+        synchronized boolean addEvents(final List<WatchEvent<?>> events) {
+            this.events.addAll(events);
+            if (signalled) {
+                return false;
+            }
+            signalled = true;
+            return true;
+        }
+
+        @Override
+        public boolean isValid() {
+            return valid;
+        }
+
+        @Override
+        public synchronized List<WatchEvent<?>> pollEvents() {
+            final List<WatchEvent<?>> result = List.copyOf(events);
+            events.clear();
+            return result;
+        }
+
+        @Override
+        public synchronized boolean reset() {
+            if (!valid) {
+                return false;
+            }
+            if (events.isEmpty()) {
+                signalled = false;
+            } else {
+                service.signalled.offer(this);
+            }
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+            valid = false;
+            if (service != null) {
+                service.keys.remove(dir, this);
+            }
+        }
+
+        @Override
+        public Watchable watchable() {
+            return dir;
+        }
+    }
+}
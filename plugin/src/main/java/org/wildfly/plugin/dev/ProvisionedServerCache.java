@@ -0,0 +1,180 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jboss.galleon.util.IoUtils;
+
+/**
+ * A bounded cache of provisioned servers keyed by the provisioning configuration. When the discovered layers change
+ * back to a set of layers which was provisioned before, the cached server can be started rather than provisioning a
+ * new server.
+ * <p>
+ * Each cached server is provisioned in its own directory, named after the key, in the cache directory. A marker file
+ * in the directory indicates that the provisioning completed, its last modified time is the last time the server was
+ * used. If the cache is full, the least recently used servers are deleted. The cache is kept between executions of
+ * the goal.
+ * </p>
+ * <p>
+ * Servers provisioned outside the cache directory can be {@linkplain #register(String, Path) registered}, these are
+ * never evicted.
+ * </p>
+ */
+class ProvisionedServerCache {
+    private static final String MARKER = ".provisioned";
+
+    private final Path cacheDir;
+    private final int maxEntries;
+    private final Map<String, Path> registered = new HashMap<>();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param cacheDir   the directory the servers are provisioned in
+     * @param maxEntries the maximum number of servers kept in the cache directory
+     */
+    ProvisionedServerCache(final Path cacheDir, final int maxEntries) {
+        this.cacheDir = cacheDir;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Creates the key for the provisioning configuration.
+     *
+     * @param provisioningConfig the content of the stored provisioning configuration
+     *
+     * @return the key
+     */
+    static String key(final byte[] provisioningConfig) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(provisioningConfig);
+            final StringBuilder result = new StringBuilder();
+            // The first 8 bytes are enough to keep the directory names short
+            for (int i = 0; i < 8; i++) {
+                result.append(String.format("%02x", hash[i]));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Registers a server which was provisioned outside of the cache directory, e.g. the server provisioned when the
+     * goal started.
+     *
+     * @param key       the key of the provisioning configuration
+     * @param serverDir the directory of the provisioned server
+     */
+    void register(final String key, final Path serverDir) {
+        registered.put(key, serverDir);
+    }
+
+    /**
+     * Returns the provisioned server for the key and records the server as used.
+     *
+     * @param key the key of the provisioning configuration
+     *
+     * @return the directory of the provisioned server or {@code null} if no server was provisioned for the key
+     *
+     * @throws IOException if the server could not be marked as used
+     */
+    Path get(final String key) throws IOException {
+        final Path serverDir = registered.get(key);
+        if (serverDir != null && Files.isDirectory(serverDir)) {
+            return serverDir;
+        }
+        final Path cached = cacheDir.resolve(key);
+        final Path marker = cached.resolve(MARKER);
+        if (Files.exists(marker)) {
+            Files.setLastModifiedTime(marker, FileTime.fromMillis(System.currentTimeMillis()));
+            return cached;
+        }
+        return null;
+    }
+
+    /**
+     * Prepares an empty directory to provision the server for the key in. Least recently used servers are deleted to
+     * make room for the new server. The server must be marked as {@linkplain #provisioned(String) provisioned} once
+     * the provisioning completed.
+     *
+     * @param key    the key of the provisioning configuration
+     * @param active the directory of the server currently in use, which is never deleted, or {@code null}
+     *
+     * @return the directory to provision the server in
+     *
+     * @throws IOException if the directory could not be prepared
+     */
+    Path prepare(final String key, final Path active) throws IOException {
+        final Path serverDir = cacheDir.resolve(key);
+        if (Files.exists(serverDir)) {
+            // Incomplete provisioning
+            IoUtils.recursiveDelete(serverDir);
+        }
+        evict(maxEntries - 1, active);
+        Files.createDirectories(serverDir);
+        return serverDir;
+    }
+
+    /**
+     * Marks the server for the key as completely provisioned.
+     *
+     * @param key the key of the provisioning configuration
+     *
+     * @throws IOException if the server could not be marked
+     */
+    void provisioned(final String key) throws IOException {
+        Files.writeString(cacheDir.resolve(key).resolve(MARKER), key);
+    }
+
+    /**
+     * The directories of the servers in the cache directory, the most recently used first.
+     *
+     * @return the cached servers
+     *
+     * @throws IOException if the cache directory could not be read
+     */
+    List<Path> entries() throws IOException {
+        if (Files.notExists(cacheDir)) {
+            return List.of();
+        }
+        try (Stream<Path> dirs = Files.list(cacheDir)) {
+            return dirs.filter((dir) -> Files.exists(dir.resolve(MARKER)))
+                    .sorted(Comparator.comparing(ProvisionedServerCache::lastUsed).reversed())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void evict(final int retained, final Path active) throws IOException {
+        final List<Path> entries = new ArrayList<>(entries());
+        // The active server counts as retained, but is never deleted
+        final int limit = entries.remove(active) ? retained - 1 : retained;
+        for (int i = Math.max(0, limit); i < entries.size(); i++) {
+            IoUtils.recursiveDelete(entries.get(i));
+        }
+    }
+
+    private static FileTime lastUsed(final Path dir) {
+        try {
+            return Files.getLastModifiedTime(dir.resolve(MARKER));
+        } catch (IOException e) {
+            return FileTime.fromMillis(0L);
+        }
+    }
+}
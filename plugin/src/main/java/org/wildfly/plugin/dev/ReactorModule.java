@@ -0,0 +1,292 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchEvent;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * A module of the reactor the deployment depends on. Changes to the sources and resources of the module are collected
+ * until the module is updated. The module is then compiled to its output directory and the library of the module in
+ * the exploded deployment is replaced with the content of the output directory.
+ * <p>
+ * A change of the module is reported to the deployment as a change which requires a redeploy. As the changed classes
+ * are loaded from a library, they are never hot swapped.
+ * </p>
+ */
+class ReactorModule implements WatchHandler {
+    private static final Result NO_CHANGE = new Result() {
+    };
+    private static final Result LIBRARY_CHANGED = new Result() {
+        @Override
+        public boolean requiresRedeploy() {
+            return true;
+        }
+
+        @Override
+        public boolean handlesDelete() {
+            return true;
+        }
+    };
+
+    private final MavenProject project;
+    private final IncrementalCompiler compiler;
+    private final String libraryName;
+    private final List<Path> sourceRoots;
+    private final Path outputDir;
+    private final CompiledSourceHandler sourceHandler;
+    private final ResourceHandler resourceHandler;
+    // Guarded by this
+    private ChangeBatch pending;
+    private boolean modified;
+    private boolean stale;
+
+    /**
+     * Creates a new reactor module.
+     *
+     * @param project     the project of the module
+     * @param compiler    the compiler used to compile the changed sources or {@code null} if the sources are compiled
+     *                        with the {@code maven-compiler-plugin}
+     * @param libraryName the file name of the library in the {@code WEB-INF/lib} directory of the deployment
+     */
+    ReactorModule(final MavenProject project, final IncrementalCompiler compiler, final String libraryName) {
+        this.project = project;
+        this.compiler = compiler;
+        this.libraryName = libraryName;
+        this.sourceRoots = project.getCompileSourceRoots().stream().map(Path::of).collect(Collectors.toList());
+        this.outputDir = Path.of(project.getBuild().getOutputDirectory());
+        this.sourceHandler = new CompiledSourceHandler(compiler);
+        this.resourceHandler = new ResourceHandler(null);
+    }
+
+    @Override
+    public Result handle(final WatchContext context, final WatchEvent<Path> event, final Path file)
+            throws IOException, MojoExecutionException {
+        final boolean source = sourceRoots.stream().anyMatch(file::startsWith);
+        final Result result = source ? sourceHandler.handle(context, event, file)
+                : resourceHandler.handle(context, event, file);
+        if (!result.requiresRecompile() && !result.requiresCopyResources() && !result.requiresRedeploy()
+                && result.deletedSources().isEmpty()) {
+            return NO_CHANGE;
+        }
+        synchronized (this) {
+            if (pending == null) {
+                pending = new ChangeBatch();
+            }
+            if (event.kind() == ENTRY_DELETE) {
+                pending.deleted(result);
+            } else {
+                pending.add(result);
+            }
+        }
+        return LIBRARY_CHANGED;
+    }
+
+    /**
+     * The project of the module.
+     *
+     * @return the project
+     */
+    MavenProject project() {
+        return project;
+    }
+
+    /**
+     * The compiler used to compile the changed sources.
+     *
+     * @return the compiler or {@code null} if the sources are compiled with the {@code maven-compiler-plugin}
+     */
+    IncrementalCompiler compiler() {
+        return compiler;
+    }
+
+    /**
+     * The output directory the module is compiled to.
+     *
+     * @return the output directory
+     */
+    Path outputDirectory() {
+        return outputDir;
+    }
+
+    /**
+     * Returns the changes collected since the last call and marks the module as modified and its library as stale.
+     *
+     * @return the collected changes or {@code null} if the module did not change
+     */
+    synchronized ChangeBatch takeChanges() {
+        final ChangeBatch result = pending;
+        pending = null;
+        if (result != null) {
+            modified = true;
+            stale = true;
+        }
+        return result;
+    }
+
+    /**
+     * Indicates whether the module changed since dev mode started, in which case the library packaged by the
+     * {@code maven-war-plugin} is outdated.
+     *
+     * @return {@code true} if the module was modified
+     */
+    synchronized boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Indicates whether the module was compiled since its library in the exploded deployment was last
+     * {@linkplain #updateLibrary(Path) updated}. The library stays stale if the build of the deployment is superseded
+     * before the library is updated, or if the update failed.
+     *
+     * @return {@code true} if the library is stale
+     */
+    synchronized boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Replaces the library of the module in the library directory of the exploded deployment with the content of the
+     * output directory. The manifest of the existing library is kept. If the library is an exploded directory, the
+     * content of the output directory is copied into the directory and the files which no longer exist in the output
+     * directory are deleted.
+     *
+     * @param libDir the {@code WEB-INF/lib} directory of the exploded deployment
+     *
+     * @return {@code true} if the library was replaced, {@code false} if the deployment does not contain the library
+     *
+     * @throws IOException if the library could not be replaced
+     */
+    boolean updateLibrary(final Path libDir) throws IOException {
+        final Path library = libDir.resolve(libraryName);
+        if (Files.isDirectory(library)) {
+            copyTree(outputDir, library);
+            deleteRemoved(outputDir, library);
+            libraryUpdated();
+            return true;
+        }
+        if (Files.notExists(library)) {
+            libraryUpdated();
+            return false;
+        }
+        Manifest manifest;
+        try (JarFile jarFile = new JarFile(library.toFile())) {
+            manifest = jarFile.getManifest();
+        }
+        // Write the new library next to the existing one, so the deployment never sees a partially written library
+        final Path tmp = Files.createTempFile(libDir, libraryName, ".tmp");
+        try {
+            writeJar(outputDir, tmp, manifest);
+            Files.move(tmp, library, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        libraryUpdated();
+        return true;
+    }
+
+    private synchronized void libraryUpdated() {
+        stale = false;
+    }
+
+    @Override
+    public String toString() {
+        return project.getArtifactId();
+    }
+
+    /**
+     * Writes the content of the directory to a JAR file.
+     *
+     * @param dir      the directory to package
+     * @param jar      the JAR file to write
+     * @param manifest the manifest of the JAR or {@code null} to use the manifest in the directory, if any
+     *
+     * @throws IOException if the JAR could not be written
+     */
+    static void writeJar(final Path dir, final Path jar, final Manifest manifest) throws IOException {
+        final List<Path> paths;
+        try (Stream<Path> stream = Files.walk(dir)) {
+            paths = stream.filter((path) -> !path.equals(dir)).sorted().collect(Collectors.toList());
+        }
+        try (
+                OutputStream out = Files.newOutputStream(jar);
+                JarOutputStream jarOut = manifest == null ? new JarOutputStream(out)
+                        : new JarOutputStream(out, manifest)) {
+            for (Path path : paths) {
+                final String name = dir.relativize(path).toString().replace('\\', '/');
+                if (manifest != null && (name.equals("META-INF") || name.equals(JarFile.MANIFEST_NAME))) {
+                    // Already written with the manifest
+                    continue;
+                }
+                if (Files.isDirectory(path)) {
+                    jarOut.putNextEntry(new JarEntry(name + "/"));
+                    jarOut.closeEntry();
+                } else {
+                    final JarEntry entry = new JarEntry(name);
+                    entry.setLastModifiedTime(Files.getLastModifiedTime(path));
+                    jarOut.putNextEntry(entry);
+                    try (InputStream in = Files.newInputStream(path)) {
+                        in.transferTo(jarOut);
+                    }
+                    jarOut.closeEntry();
+                }
+            }
+        }
+    }
+
+    // Deletes the files and directories of the target which do not exist in the source, except for the manifest
+    private static void deleteRemoved(final Path source, final Path target) throws IOException {
+        final List<Path> paths;
+        try (Stream<Path> stream = Files.walk(target)) {
+            // Reverse order, so the files of a directory are deleted before the directory
+            paths = stream.filter((path) -> !path.equals(target))
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            final String name = target.relativize(path).toString().replace('\\', '/');
+            if (name.equals("META-INF") || name.equals(JarFile.MANIFEST_NAME)) {
+                continue;
+            }
+            if (Files.notExists(source.resolve(name))) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static void copyTree(final Path source, final Path target) throws IOException {
+        final List<Path> paths;
+        try (Stream<Path> stream = Files.walk(source)) {
+            paths = stream.sorted().collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            final Path copy = target.resolve(source.relativize(path).toString());
+            if (Files.isDirectory(path)) {
+                Files.createDirectories(copy);
+            } else {
+                Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A HTTP proxy in front of the HTTP port of the server which defers redeploying changes until the application is
+ * requested. The watcher {@linkplain #changed() records} each queued batch of changes. A request which arrives while
+ * changes are pending is held, which {@linkplain #awaitRequest() releases} the build of the changes, and is only
+ * forwarded once the changes which were pending when the request arrived are {@linkplain #deployed(long) deployed}.
+ * <p>
+ * Requests are held for at most the timeout and then forwarded to the deployment which is currently deployed. WebSocket
+ * upgrades are not supported by the proxy.
+ * </p>
+ */
+class RedeployProxy implements AutoCloseable {
+    // The headers which are only valid for a single connection or which are set by the HTTP client
+    private static final Set<String> EXCLUDED_HEADERS = Set.of("connection", "content-length", "date", "expect", "from",
+            "host", "keep-alive", "proxy-connection", "te", "trailer", "transfer-encoding", "upgrade", "via", "warning");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final String target;
+    private final long timeout;
+    private final Log log;
+    // The number of recorded batches of changes, the number of batches requests waited for and the number of batches
+    // which were deployed
+    private long changes;
+    private long requestedChanges;
+    private long deployedChanges;
+
+    private RedeployProxy(final HttpServer server, final ExecutorService executor, final URI target, final long timeout,
+            final Log log) {
+        this.server = server;
+        this.executor = executor;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofMillis(timeout))
+                .executor(executor)
+                .build();
+        this.target = target.toString().replaceAll("/+$", "");
+        this.timeout = timeout;
+        this.log = log;
+    }
+
+    /**
+     * Starts the proxy.
+     *
+     * @param host    the host name the proxy listens on
+     * @param port    the port the proxy listens on
+     * @param target  the base URI of the HTTP port of the server
+     * @param timeout the maximum time in milliseconds a request is held until the pending changes are deployed
+     * @param log     the log
+     *
+     * @return the started proxy
+     *
+     * @throws IOException if the proxy could not listen on the port
+     */
+    static RedeployProxy start(final String host, final int port, final URI target, final long timeout, final Log log)
+            throws IOException {
+        final ExecutorService executor = Executors.newCachedThreadPool((task) -> {
+            final Thread thread = new Thread(task, "wildfly-dev-proxy");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final HttpServer server;
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw e;
+        }
+        final RedeployProxy proxy = new RedeployProxy(server, executor, target, timeout, log);
+        server.createContext("/", proxy::handle);
+        server.setExecutor(executor);
+        server.start();
+        return proxy;
+    }
+
+    /**
+     * The address the proxy listens on.
+     *
+     * @return the address
+     */
+    InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * Records that a batch of changes was queued. The changes are built once a request arrives.
+     */
+    synchronized void changed() {
+        changes++;
+    }
+
+    /**
+     * The number of recorded batches of changes, which is passed to {@link #deployed(long)} once no further changes
+     * are queued.
+     *
+     * @return the number of recorded batches
+     */
+    synchronized long changes() {
+        return changes;
+    }
+
+    /**
+     * Indicates whether changes were recorded which are not yet deployed.
+     *
+     * @return {@code true} if changes are pending
+     */
+    synchronized boolean hasPendingChanges() {
+        return changes > deployedChanges;
+    }
+
+    /**
+     * Waits until a request is held for pending changes. Changes recorded after the request arrived do not release
+     * further builds until the next request.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    synchronized void awaitRequest() throws InterruptedException {
+        while (requestedChanges <= deployedChanges) {
+            wait();
+        }
+    }
+
+    /**
+     * Records that the changes were deployed, or failed to deploy, and releases the requests which were held for these
+     * changes.
+     *
+     * @param changes the number of recorded batches, read before checking that no further changes are queued
+     */
+    synchronized void deployed(final long changes) {
+        if (changes > deployedChanges) {
+            deployedChanges = changes;
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Waits until the changes which are pending when the request arrived are deployed.
+     *
+     * @return {@code true} if the changes were deployed, {@code false} if the timeout elapsed
+     */
+    private synchronized boolean awaitDeployment() throws InterruptedException {
+        final long pending = changes;
+        if (pending <= deployedChanges) {
+            return true;
+        }
+        if (pending > requestedChanges) {
+            requestedChanges = pending;
+            notifyAll();
+        }
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (pending > deployedChanges) {
+            final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0L) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    private void handle(final HttpExchange exchange) {
+        try {
+            final long start = System.nanoTime();
+            if (!awaitDeployment()) {
+                log.warn(String.format("The changes were not deployed within %d ms, forwarding %s to the current "
+                        + "deployment.", timeout, exchange.getRequestURI()));
+            } else {
+                final long held = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (held > 0L) {
+                    log.info(String.format("Deployed the pending changes for %s in %d ms", exchange.getRequestURI(),
+                            held));
+                }
+            }
+            forward(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "The dev mode is shutting down");
+        } catch (IOException e) {
+            log.debug("Failed to forward " + exchange.getRequestURI() + ": " + e);
+            sendError(exchange, 502, "Failed to forward the request to the server: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void forward(final HttpExchange exchange) throws IOException, InterruptedException {
+        final byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(target + exchange.getRequestURI()))
+                .method(exchange.getRequestMethod(), body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            if (!isExcluded(header.getKey())) {
+                header.getValue().forEach((value) -> builder.header(header.getKey(), value));
+            }
+        }
+        final String host = exchange.getRequestHeaders().getFirst("Host");
+        if (host != null) {
+            builder.header("X-Forwarded-Host", host);
+        }
+        builder.header("X-Forwarded-For", exchange.getRemoteAddress().getAddress().getHostAddress());
+        final HttpResponse<InputStream> response = client.send(builder.build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        final Headers responseHeaders = exchange.getResponseHeaders();
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            final String name = header.getKey();
+            if (isExcluded(name) || name.startsWith(":")) {
+                continue;
+            }
+            if (name.equalsIgnoreCase("Location") && host != null) {
+                // Redirects to the server are sent back to the proxy
+                header.getValue().forEach((value) -> responseHeaders.add(name,
+                        value.startsWith(target) ? "http://" + host + value.substring(target.length()) : value));
+            } else {
+                responseHeaders.put(name, header.getValue());
+            }
+        }
+        final int status = response.statusCode();
+        final long length = response.headers().firstValueAsLong("Content-Length").orElse(0L);
+        try (InputStream in = response.body()) {
+            if (exchange.getRequestMethod().equalsIgnoreCase("HEAD") || status == 204 || status == 304
+                    || (length == 0L && response.headers().firstValue("Content-Length").isPresent())) {
+                exchange.sendResponseHeaders(status, -1L);
+                return;
+            }
+            // A length of 0 sends the body chunked
+            exchange.sendResponseHeaders(status, length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                in.transferTo(out);
+            }
+        }
+    }
+
+    private static boolean isExcluded(final String name) {
+        return EXCLUDED_HEADERS.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    private void sendError(final HttpExchange exchange, final int status, final String message) {
+        if (exchange.getResponseCode() != -1) {
+            // The response has already been started
+            return;
+        }
+        try {
+            final byte[] body = message.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            log.debug("Failed to send the error response: " + e);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationBuilder;
+import org.jboss.as.controller.client.helpers.ClientConstants;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Synchronizes the content of an exploded deployment with a managed exploded deployment on a remote server. The
+ * deployment is initially added with empty content and all files are uploaded. After that only the changed files are
+ * uploaded with the {@code add-content} operation and the removed files are removed with the {@code remove-content}
+ * operation, before the deployment is redeployed.
+ * <p>
+ * The files are compared with the state of the files which were last uploaded. The content of a file is only hashed if
+ * its size or last modified time changed, so a file which was rewritten with the same content is not uploaded again.
+ * </p>
+ */
+class RemoteContentSync {
+    // The maximum number of files uploaded with a single operation
+    private static final int MAX_FILES_PER_OPERATION = 500;
+
+    private final ModelControllerClient client;
+    private final String deploymentName;
+    private final Path contentDir;
+    private final Map<String, FileState> uploaded = new HashMap<>();
+
+    /**
+     * Creates a new synchronizer.
+     *
+     * @param client         the client for the remote server
+     * @param deploymentName the name of the deployment
+     * @param contentDir     the local exploded deployment
+     */
+    RemoteContentSync(final ModelControllerClient client, final String deploymentName, final Path contentDir) {
+        this.client = client;
+        this.deploymentName = deploymentName;
+        this.contentDir = contentDir;
+    }
+
+    /**
+     * Replaces any existing deployment with a managed exploded deployment, uploads all files and deploys it.
+     *
+     * @return the result of the upload
+     *
+     * @throws IOException            if the content could not be read or the server could not be reached
+     * @throws MojoExecutionException if an operation failed
+     */
+    Delta deploy() throws IOException, MojoExecutionException {
+        final long start = System.nanoTime();
+        final ModelNode address = Operations.createAddress(ClientConstants.DEPLOYMENT, deploymentName);
+        final ModelNode readOp = Operations.createReadResourceOperation(address);
+        if (Operations.isSuccessfulOutcome(client.execute(readOp))) {
+            // The deployment may not be deployed, in which case undeploy fails
+            client.execute(Operations.createOperation(ClientConstants.DEPLOYMENT_UNDEPLOY_OPERATION, address));
+            execute(Operations.createRemoveOperation(address));
+        }
+        final ModelNode addOp = Operations.createAddOperation(address);
+        addOp.get(ClientConstants.CONTENT).add().get("empty").set(true);
+        addOp.get(ClientConstants.RUNTIME_NAME).set(deploymentName);
+        execute(addOp);
+        uploaded.clear();
+        final Map<String, FileState> current = scan();
+        final long bytes = upload(new ArrayList<>(current.keySet()), current);
+        execute(Operations.createOperation(ClientConstants.DEPLOYMENT_DEPLOY_OPERATION, address));
+        return new Delta(current.size(), 0, bytes, System.nanoTime() - start);
+    }
+
+    /**
+     * Uploads the changed files, removes the removed files and redeploys the deployment. If nothing changed, the
+     * deployment is not redeployed.
+     *
+     * @return the result of the update
+     *
+     * @throws IOException            if the content could not be read or the server could not be reached
+     * @throws MojoExecutionException if an operation failed
+     */
+    Delta update() throws IOException, MojoExecutionException {
+        final long start = System.nanoTime();
+        final Map<String, FileState> current = scan();
+        final List<String> changed = new ArrayList<>();
+        for (Map.Entry<String, FileState> entry : current.entrySet()) {
+            final FileState previous = uploaded.get(entry.getKey());
+            if (previous == null || !previous.sameContent(entry.getValue())) {
+                changed.add(entry.getKey());
+            } else {
+                // Only the last modified time changed, the content does not need to be hashed again
+                uploaded.put(entry.getKey(), entry.getValue());
+            }
+        }
+        final List<String> removed = uploaded.keySet()
+                .stream()
+                .filter((path) -> !current.containsKey(path))
+                .sorted()
+                .collect(Collectors.toList());
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return new Delta(0, 0, 0L, System.nanoTime() - start);
+        }
+        final ModelNode address = Operations.createAddress(ClientConstants.DEPLOYMENT, deploymentName);
+        if (!removed.isEmpty()) {
+            final ModelNode op = Operations.createOperation("remove-content", address);
+            final ModelNode paths = op.get("paths").setEmptyList();
+            removed.forEach(paths::add);
+            execute(op);
+            removed.forEach(uploaded::remove);
+        }
+        final long bytes = upload(changed, current);
+        execute(Operations.createOperation("redeploy", address));
+        return new Delta(changed.size(), removed.size(), bytes, System.nanoTime() - start);
+    }
+
+    private long upload(final List<String> paths, final Map<String, FileState> current)
+            throws IOException, MojoExecutionException {
+        final ModelNode address = Operations.createAddress(ClientConstants.DEPLOYMENT, deploymentName);
+        long bytes = 0L;
+        for (int i = 0; i < paths.size(); i += MAX_FILES_PER_OPERATION) {
+            final List<String> chunk = paths.subList(i, Math.min(paths.size(), i + MAX_FILES_PER_OPERATION));
+            final ModelNode op = Operations.createOperation("add-content", address);
+            op.get("overwrite").set(true);
+            final ModelNode content = op.get(ClientConstants.CONTENT).setEmptyList();
+            for (int index = 0; index < chunk.size(); index++) {
+                final ModelNode item = content.add();
+                item.get(ClientConstants.INPUT_STREAM_INDEX).set(index);
+                item.get("target-path").set(chunk.get(index));
+            }
+            // The attachments are added in the order of the input stream indexes
+            final OperationBuilder builder = OperationBuilder.create(op, true);
+            for (String path : chunk) {
+                builder.addFileAsAttachment(contentDir.resolve(path));
+                bytes += current.get(path).size;
+            }
+            try (Operation operation = builder.build()) {
+                execute(operation);
+            }
+            for (String path : chunk) {
+                uploaded.put(path, current.get(path));
+            }
+        }
+        return bytes;
+    }
+
+    private Map<String, FileState> scan() throws IOException {
+        final List<Path> files;
+        try (Stream<Path> stream = Files.walk(contentDir)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        final Map<String, FileState> result = new HashMap<>();
+        for (Path file : files) {
+            final String path = contentDir.relativize(file).toString().replace('\\', '/');
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            final FileState previous = uploaded.get(path);
+            if (previous != null && previous.size == attributes.size()
+                    && previous.lastModified == attributes.lastModifiedTime().toMillis()) {
+                result.put(path, previous);
+            } else {
+                result.put(path, new FileState(attributes.size(), attributes.lastModifiedTime().toMillis(), hash(file)));
+            }
+        }
+        return result;
+    }
+
+    private void execute(final ModelNode op) throws IOException, MojoExecutionException {
+        execute(Operation.Factory.create(op));
+    }
+
+    private void execute(final Operation op) throws IOException, MojoExecutionException {
+        final ModelNode result = client.execute(op);
+        if (!Operations.isSuccessfulOutcome(result)) {
+            throw new MojoExecutionException(String.format("Failed to update the content of %s: %s", deploymentName,
+                    Operations.getFailureDescription(result).asString()));
+        }
+    }
+
+    private static byte[] hash(final Path file) throws IOException {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = Files.newInputStream(file)) {
+                final byte[] buffer = new byte[8192];
+                int len;
+                while ((len = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, len);
+                }
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The result of synchronizing the content.
+     */
+    static class Delta {
+        private final int changed;
+        private final int removed;
+        private final long bytes;
+        private final long duration;
+
+        private Delta(final int changed, final int removed, final long bytes, final long duration) {
+            this.changed = changed;
+            this.removed = removed;
+            this.bytes = bytes;
+            this.duration = duration;
+        }
+
+        /**
+         * Indicates whether no file was uploaded or removed.
+         *
+         * @return {@code true} if the content did not change
+         */
+        boolean isEmpty() {
+            return changed == 0 && removed == 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d uploaded, %d removed, %d KB in %d ms", changed, removed, bytes / 1024,
+                    duration / 1_000_000L);
+        }
+    }
+
+    private static class FileState {
+        private final long size;
+        private final long lastModified;
+        private final byte[] hash;
+
+        private FileState(final long size, final long lastModified, final byte[] hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        boolean sameContent(final FileState other) {
+            return size == other.size && Arrays.equals(hash, other.hash);
+        }
+    }
+}
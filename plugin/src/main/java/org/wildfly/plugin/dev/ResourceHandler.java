@@ -13,9 +13,50 @@ import java.nio.file.WatchEvent;
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
 class ResourceHandler implements WatchHandler {
+    private static final Result NO_CHANGE = new Result() {
+    };
+
+    private final ResourceSync sync;
+
+    /**
+     * Creates a new handler for resources.
+     *
+     * @param sync the synchronizer used to copy the changed resources directly or {@code null} if the
+     *                 {@code maven-resources-plugin} is executed for each change
+     */
+    ResourceHandler(final ResourceSync sync) {
+        this.sync = sync;
+    }
 
     @Override
     public Result handle(final WatchContext context, final WatchEvent<Path> event, final Path file) throws IOException {
+        if (sync != null) {
+            switch (sync.sync(file)) {
+                case IGNORED:
+                    return NO_CHANGE;
+                case SYNCED:
+                    final boolean repackage = !sync.updatesDeployment();
+                    return new Result() {
+                        @Override
+                        public boolean requiresRepackage() {
+                            return repackage;
+                        }
+
+                        @Override
+                        public boolean requiresRedeploy() {
+                            return true;
+                        }
+
+                        @Override
+                        public boolean handlesDelete() {
+                            return true;
+                        }
+                    };
+                default:
+                    // Fall back to the maven-resources-plugin
+                    break;
+            }
+        }
         return new Result() {
             @Override
             public boolean requiresCopyResources() {
@@ -0,0 +1,226 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.maven.model.Resource;
+import org.codehaus.plexus.util.SelectorUtils;
+
+/**
+ * Copies single changed resources to the output directory, and the exploded deployment, rather than executing the
+ * {@code maven-resources-plugin} for each change.
+ * <p>
+ * Resources which need to be filtered are not copied, the {@code maven-resources-plugin} should be executed instead.
+ * This ensures filtered resources are always interpolated with the precedence and delimiters of the plugin.
+ * </p>
+ */
+class ResourceSync {
+
+    /**
+     * The outcome of synchronizing a resource.
+     */
+    enum Outcome {
+        /**
+         * The resource is not part of any resource directory, or is excluded, and nothing was done.
+         */
+        IGNORED,
+        /**
+         * The resource was copied or deleted.
+         */
+        SYNCED,
+        /**
+         * The resource could not be synchronized and the {@code maven-resources-plugin} is required.
+         */
+        UNSUPPORTED,
+    }
+
+    // The default non-filtered file extensions of the maven-filtering library
+    private static final Set<String> DEFAULT_NON_FILTERED_EXTENSIONS = Set.of("jpg", "jpeg", "gif", "bmp", "png");
+
+    private final List<Resource> resources;
+    private final Path outputDirectory;
+    private final Path deploymentClassesDir;
+    private final Set<String> nonFilteredExtensions;
+
+    /**
+     * Creates a new resource synchronizer.
+     *
+     * @param resources             the resources of the project
+     * @param outputDirectory       the output directory resources are copied to
+     * @param deploymentClassesDir  the {@code WEB-INF/classes} directory of the exploded deployment or {@code null} if
+     *                                  the resources should only be copied to the output directory
+     * @param nonFilteredExtensions additional file extensions which are never filtered
+     */
+    ResourceSync(final List<Resource> resources, final Path outputDirectory, final Path deploymentClassesDir,
+            final Collection<String> nonFilteredExtensions) {
+        this.resources = List.copyOf(resources);
+        this.outputDirectory = outputDirectory;
+        this.deploymentClassesDir = deploymentClassesDir;
+        final Set<String> extensions = new HashSet<>(DEFAULT_NON_FILTERED_EXTENSIONS);
+        for (String extension : nonFilteredExtensions) {
+            extensions.add(extension.toLowerCase(Locale.ROOT));
+        }
+        this.nonFilteredExtensions = Set.copyOf(extensions);
+    }
+
+    /**
+     * Indicates whether the synchronized resources are also written to the exploded deployment. If not, the
+     * deployment needs to be repackaged.
+     *
+     * @return {@code true} if the exploded deployment is updated
+     */
+    boolean updatesDeployment() {
+        return deploymentClassesDir != null && deploymentClassesDir.getParent() != null
+                && Files.isDirectory(deploymentClassesDir.getParent());
+    }
+
+    /**
+     * Copies the changed resource to the output directory. If the resource no longer exists, it is deleted from the
+     * output directory.
+     *
+     * @param file the changed resource
+     *
+     * @return the outcome of the synchronization
+     *
+     * @throws IOException if an error occurs copying or deleting the resource
+     */
+    Outcome sync(final Path file) throws IOException {
+        Outcome outcome = Outcome.IGNORED;
+        final boolean deleted = Files.notExists(file);
+        if (!deleted && Files.isDirectory(file)) {
+            // The files of a new directory may not be reported individually
+            return Outcome.UNSUPPORTED;
+        }
+        for (Resource resource : resources) {
+            final Path directory = Path.of(resource.getDirectory());
+            if (!file.startsWith(directory)) {
+                continue;
+            }
+            final String relativePath = directory.relativize(file).toString().replace('\\', '/');
+            final Path target = resolveTarget(resource, relativePath);
+            if (deleted) {
+                // A deleted directory does not match the include patterns of files, always remove it
+                if (Files.isDirectory(target) || matches(resource, relativePath)) {
+                    if (delete(target)) {
+                        outcome = Outcome.SYNCED;
+                    }
+                }
+                continue;
+            }
+            if (!matches(resource, relativePath)) {
+                continue;
+            }
+            if (resource.isFiltering() && isFiltered(file)) {
+                // Filtering is left to the maven-resources-plugin
+                return Outcome.UNSUPPORTED;
+            }
+            copy(file, target);
+            outcome = Outcome.SYNCED;
+        }
+        return outcome;
+    }
+
+    private Path resolveTarget(final Resource resource, final String relativePath) {
+        final String targetPath = resource.getTargetPath();
+        final Path base = targetPath == null || targetPath.isBlank() ? outputDirectory
+                : outputDirectory.resolve(targetPath);
+        return base.resolve(relativePath);
+    }
+
+    private boolean isFiltered(final Path file) {
+        final String fileName = file.getFileName().toString();
+        final int dot = fileName.lastIndexOf('.');
+        return dot < 0 || !nonFilteredExtensions.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private void copy(final Path file, final Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+        final Path deploymentTarget = resolveDeploymentTarget(target);
+        if (deploymentTarget != null) {
+            Files.createDirectories(deploymentTarget.getParent());
+            Files.copy(file, deploymentTarget, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private boolean delete(final Path target) throws IOException {
+        boolean deleted = deleteRecursively(target);
+        final Path deploymentTarget = resolveDeploymentTarget(target);
+        if (deploymentTarget != null) {
+            deleted |= deleteRecursively(deploymentTarget);
+        }
+        return deleted;
+    }
+
+    private Path resolveDeploymentTarget(final Path target) {
+        if (!updatesDeployment() || !target.startsWith(outputDirectory)) {
+            return null;
+        }
+        return deploymentClassesDir.resolve(outputDirectory.relativize(target).toString());
+    }
+
+    private static boolean matches(final Resource resource, final String relativePath) {
+        final List<String> includes = resource.getIncludes().isEmpty() ? List.of("**/**") : resource.getIncludes();
+        boolean included = false;
+        for (String include : includes) {
+            if (SelectorUtils.matchPath(normalize(include), relativePath, "/", true)) {
+                included = true;
+                break;
+            }
+        }
+        if (!included) {
+            return false;
+        }
+        for (String exclude : resource.getExcludes()) {
+            if (SelectorUtils.matchPath(normalize(exclude), relativePath, "/", true)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(final String pattern) {
+        final String result = pattern.trim().replace('\\', '/');
+        // A trailing slash includes everything in the directory
+        return result.endsWith("/") ? result + "**" : result;
+    }
+
+    private static boolean deleteRecursively(final Path path) throws IOException {
+        if (Files.notExists(path)) {
+            return false;
+        }
+        if (Files.isDirectory(path)) {
+            Files.walkFileTree(path, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } else {
+            Files.delete(path);
+        }
+        return true;
+    }
+}
@@ -8,6 +8,7 @@ package org.wildfly.plugin.dev;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
+import java.util.Set;
 
 import org.apache.maven.plugin.MojoExecutionException;
 
@@ -60,5 +61,44 @@ public interface WatchHandler {
         default boolean requiresRepackage() {
             return false;
         }
+
+        /**
+         * The source files which need to be compiled. If a {@linkplain #requiresRecompile() recompile is required} and
+         * the returned set is empty, all sources should be compiled.
+         *
+         * @return the source files to compile
+         */
+        default Set<Path> dirtySources() {
+            return Set.of();
+        }
+
+        /**
+         * The deleted source files whose compiled classes need to be removed from the deployment.
+         *
+         * @return the deleted source files
+         */
+        default Set<Path> deletedSources() {
+            return Set.of();
+        }
+
+        /**
+         * Indicates whether the change only affects compiled classes, in which case the redeploy may be replaced by
+         * redefining the changed classes in the running server.
+         *
+         * @return {@code true} if the changed classes may be hot swapped
+         */
+        default boolean allowsHotSwap() {
+            return false;
+        }
+
+        /**
+         * Indicates whether the handler removed a deleted file from the deployment itself. If {@code false}, a deleted
+         * file requires the deployment to be rebuilt.
+         *
+         * @return {@code true} if a delete was already applied to the deployment
+         */
+        default boolean handlesDelete() {
+            return false;
+        }
     }
 }
@@ -25,9 +25,21 @@ class WebAppResourceHandler implements WatchHandler {
             ".js",
             ".css");
 
+    private static final Result NO_CHANGE = new Result() {
+    };
+
     private final Set<String> ignoredFileExtensions;
+    private final WebAppSync sync;
 
-    WebAppResourceHandler(final Collection<String> ignoredFileExtensions) {
+    /**
+     * Creates a new handler for the web application resources.
+     *
+     * @param ignoredFileExtensions the file extensions which do not require a redeploy
+     * @param sync                  the synchronizer used to copy the changed files directly to the exploded deployment or
+     *                                  {@code null} if the deployment is always repackaged
+     */
+    WebAppResourceHandler(final Collection<String> ignoredFileExtensions, final WebAppSync sync) {
+        this.sync = sync;
         this.ignoredFileExtensions = ignoredFileExtensions.stream()
                 .map((value) -> value.charAt(0) == '.' ? value : "." + value)
                 .collect(Collectors.toCollection(HashSet::new));
@@ -41,6 +53,22 @@ class WebAppResourceHandler implements WatchHandler {
         final int dot = fileName.lastIndexOf('.');
         final boolean requiresRedeploy = dot <= 0 ||
                 !ignoredFileExtensions.contains(fileName.substring(dot).toLowerCase(Locale.ROOT));
+        if (sync != null && sync.supports(file)) {
+            if (!sync.sync(file)) {
+                return NO_CHANGE;
+            }
+            return new Result() {
+                @Override
+                public boolean requiresRedeploy() {
+                    return requiresRedeploy;
+                }
+
+                @Override
+                public boolean handlesDelete() {
+                    return true;
+                }
+            };
+        }
         return new Result() {
 
             @Override
@@ -0,0 +1,159 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.dev;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Synchronizes single files of the web application source directory into the exploded deployment. This avoids
+ * executing the {@code maven-war-plugin} for each changed file. A hash of the content of each synchronized file is
+ * kept, which allows files whose content did not change to be skipped.
+ * <p>
+ * Files which require processing by the {@code maven-war-plugin}, e.g. a filtered deployment descriptor, are not
+ * {@linkplain #supports(Path) supported} and the deployment should be repackaged for these.
+ * </p>
+ */
+class WebAppSync {
+    private final Path sourceDirectory;
+    private final Path targetDirectory;
+    private final Set<Path> excluded;
+    // The relative path of the synchronized files mapped to the hash of their content
+    private final Map<Path, byte[]> hashes = new HashMap<>();
+
+    /**
+     * Creates a new synchronizer.
+     *
+     * @param sourceDirectory the web application source directory
+     * @param targetDirectory the exploded deployment directory
+     * @param excluded        the paths, relative to the source directory, which require the {@code maven-war-plugin}
+     */
+    WebAppSync(final Path sourceDirectory, final Path targetDirectory, final Set<Path> excluded) {
+        this.sourceDirectory = sourceDirectory;
+        this.targetDirectory = targetDirectory;
+        this.excluded = Set.copyOf(excluded);
+    }
+
+    /**
+     * Indicates whether the file can be synchronized. The deployment must already be exploded and the file must not
+     * require processing by the {@code maven-war-plugin}.
+     *
+     * @param file the changed file
+     *
+     * @return {@code true} if the file can be synchronized
+     */
+    boolean supports(final Path file) {
+        return file.startsWith(sourceDirectory) && Files.isDirectory(targetDirectory)
+                && !excluded.contains(sourceDirectory.relativize(file));
+    }
+
+    /**
+     * Synchronizes the file with the exploded deployment. If the file no longer exists, it is removed from the
+     * deployment. If the file is a directory, all files in the directory are synchronized.
+     *
+     * @param file the changed file
+     *
+     * @return {@code true} if the deployment was changed, {@code false} if the content was already up-to-date
+     *
+     * @throws IOException if an error occurs copying or deleting the file
+     */
+    boolean sync(final Path file) throws IOException {
+        final Path relativePath = sourceDirectory.relativize(file);
+        final Path target = targetDirectory.resolve(relativePath.toString());
+        if (Files.notExists(file)) {
+            return delete(relativePath, target);
+        }
+        if (Files.isDirectory(file)) {
+            final boolean[] changed = { Files.notExists(target) };
+            Files.createDirectories(target);
+            Files.walkFileTree(file, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(final Path f, final BasicFileAttributes attrs) throws IOException {
+                    if (!excluded.contains(sourceDirectory.relativize(f))) {
+                        changed[0] |= copy(sourceDirectory.relativize(f), f);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return changed[0];
+        }
+        return copy(relativePath, file);
+    }
+
+    private boolean copy(final Path relativePath, final Path file) throws IOException {
+        final Path target = targetDirectory.resolve(relativePath.toString());
+        final byte[] hash = hash(file);
+        byte[] previous = hashes.get(relativePath);
+        if (previous == null && Files.isRegularFile(target)) {
+            previous = hash(target);
+        }
+        if (previous != null && Arrays.equals(hash, previous) && Files.isRegularFile(target)) {
+            hashes.put(relativePath, hash);
+            return false;
+        }
+        final Path parent = target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+        hashes.put(relativePath, hash);
+        return true;
+    }
+
+    private boolean delete(final Path relativePath, final Path target) throws IOException {
+        hashes.keySet().removeIf((path) -> path.startsWith(relativePath));
+        if (Files.notExists(target)) {
+            return false;
+        }
+        if (Files.isDirectory(target)) {
+            Files.walkFileTree(target, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(final Path f, final BasicFileAttributes attrs) throws IOException {
+                    Files.delete(f);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } else {
+            Files.delete(target);
+        }
+        return true;
+    }
+
+    private static byte[] hash(final Path file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        final byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int len;
+            while ((len = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, len);
+            }
+        }
+        return digest.digest();
+    }
+}
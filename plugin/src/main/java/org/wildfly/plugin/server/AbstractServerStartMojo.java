@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -91,6 +92,15 @@ public abstract class AbstractServerStartMojo extends AbstractStartMojo {
     @Parameter(alias = "add-user", property = "wildfly.add-user")
     private AddUser addUser;
 
+    /**
+     * Set to {@code true} to start a standalone server with a dynamic class data sharing (AppCDS) archive, which
+     * requires Java 13 or later. The archive is recorded when the server exits the first time and used by the
+     * following starts. It is stored in the {@code wildfly-cds} directory of the build directory and recorded again
+     * when the JVM or the modules of the server change.
+     */
+    @Parameter(alias = "class-data-sharing", property = PropertyNames.CLASS_DATA_SHARING, defaultValue = "false")
+    protected boolean classDataSharing;
+
     @Override
     protected Path getServerHome() throws MojoExecutionException, MojoFailureException {
         // Validate the environment
@@ -150,6 +160,17 @@ public abstract class AbstractServerStartMojo extends AbstractStartMojo {
             commandBuilder.addJavaOptions(Environment.getModularJvmArguments());
         }
 
+        if (classDataSharing) {
+            final ClassDataSharing cds = createClassDataSharing();
+            if (cds.isSupported(javaHomePath, commandBuilder.getJavaOptions())) {
+                try {
+                    commandBuilder.addJavaOption(cds.javaOption(resolveClassDataSharingArchive(jbossHome)));
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Failed to resolve the class data sharing archive", e);
+                }
+            }
+        }
+
         // Print some server information
         final Log log = getLog();
         log.info("JAVA_HOME : " + commandBuilder.getJavaHome());
@@ -226,10 +247,33 @@ public abstract class AbstractServerStartMojo extends AbstractStartMojo {
         }
     }
 
+    /**
+     * Resolves the class data sharing archive of the server, which does not exist if it has not been recorded yet.
+     * Outdated archives of the server are deleted.
+     *
+     * @param jbossHome the home directory of the server
+     *
+     * @return the archive
+     *
+     * @throws IOException if the server could not be read
+     */
+    protected Path resolveClassDataSharingArchive(final Path jbossHome) throws IOException {
+        final Path javaHomePath = (this.javaHome == null ? Paths.get(System.getProperty("java.home"))
+                : Paths.get(this.javaHome));
+        return createClassDataSharing().resolveArchive(javaHomePath, jbossHome, modulesPath.getModulePaths());
+    }
+
+    private ClassDataSharing createClassDataSharing() {
+        return new ClassDataSharing(getLog(), targetDir.toPath().resolve("wildfly-cds"));
+    }
+
     private void addUsers(final Path wildflyHome, final Path javaHome) throws IOException {
         if (addUser != null && addUser.hasUsers()) {
             getLog().info("Adding users: " + addUser);
-            addUser.addUsers(wildflyHome, javaHome);
+            final long start = System.nanoTime();
+            final int launched = addUser.addUsers(wildflyHome, javaHome);
+            getLog().info(String.format("Added %d user(s) in %d ms, %d with the add-user utility", addUser.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), launched));
         }
     }
 
@@ -6,7 +6,9 @@
 package org.wildfly.plugin.server;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -102,7 +104,7 @@ public abstract class AbstractStartMojo extends AbstractServerConnection {
      * The timeout value to use when starting the server.
      */
     @Parameter(alias = "startup-timeout", defaultValue = "60", property = PropertyNames.STARTUP_TIMEOUT)
-    private long startupTimeout;
+    protected long startupTimeout;
 
     /**
      * The arguments to be passed to the server.
@@ -116,6 +118,13 @@ public abstract class AbstractStartMojo extends AbstractServerConnection {
     @Parameter(defaultValue = "false", property = PropertyNames.SKIP)
     protected boolean skip;
 
+    /**
+     * Set to {@code true} to write a timeline of the boot of a standalone server, parsed from the log messages of the
+     * server, to {@code wildfly-boot-timeline.json} and {@code wildfly-boot-timeline.txt} in the build directory.
+     */
+    @Parameter(alias = "boot-timeline", defaultValue = "false", property = PropertyNames.BOOT_TIMELINE)
+    protected boolean bootTimeline;
+
     /**
      * Specifies the environment variables to be passed to the process being started.
      * <div>
@@ -134,6 +143,7 @@ public abstract class AbstractStartMojo extends AbstractServerConnection {
     private final AtomicBoolean initialized = new AtomicBoolean();
 
     protected ServerManager serverManager;
+    private volatile ServerReadiness readiness;
     protected MavenRepoManager mavenRepoManager;
 
     protected void init() throws MojoExecutionException {
@@ -177,6 +187,22 @@ public abstract class AbstractStartMojo extends AbstractServerConnection {
                 }
             }
             out.getRedirect().ifPresent(launcher::redirectOutput);
+            // The boot-complete message is only logged once by a standalone server
+            final ServerReadiness readiness;
+            if (serverType == ServerType.STANDALONE) {
+                readiness = bootTimeline
+                        ? new ServerReadiness(log, new BootTimeline(log, Paths.get(project.getBuild().getDirectory()))::line)
+                        : new ServerReadiness(log);
+            } else {
+                readiness = null;
+            }
+            if (readiness != null && (out.getTarget() == StandardOutput.Target.FILE
+                    || (out.getTarget() == StandardOutput.Target.INHERIT && Files.isDirectory(server.resolve("standalone"))))) {
+                // The console is not consumed by this process, tail the file it is redirected to or the server log
+                final Path file = out.getTarget() == StandardOutput.Target.FILE ? out.getStdoutPath()
+                        : server.resolve("standalone").resolve("log").resolve("server.log");
+                readiness.tail(file, Files.exists(file) ? Files.size(file) : 0L);
+            }
 
             final Process process = launcher.launch();
             if (serverType == ServerType.DOMAIN) {
@@ -186,8 +212,16 @@ public abstract class AbstractStartMojo extends AbstractServerConnection {
             }
             // Note that if this thread is started and no shutdown goal is executed this stop the stdout and stderr
             // from being logged any longer. The user was warned in the documentation.
-            out.startConsumer(process);
-            if (!serverManager.waitFor(startupTimeout, TimeUnit.SECONDS)) {
+            if (readiness == null) {
+                out.startConsumer(process);
+            } else {
+                out.startConsumer(process, readiness::line);
+            }
+            if (this.readiness != null) {
+                this.readiness.close();
+            }
+            this.readiness = readiness;
+            if (!waitForServer(0L)) {
                 throw new MojoExecutionException(String.format("Server failed to start in %s seconds.", startupTimeout));
             }
             if (!process.isAlive()) {
@@ -218,6 +252,37 @@ public abstract class AbstractStartMojo extends AbstractServerConnection {
 
     protected abstract CommandBuilder createCommandBuilder(final Path jbossHome) throws MojoExecutionException;
 
+    /**
+     * The number of times the server started by this goal logged that it completed its boot. This is passed to
+     * {@link #waitForServer(long)} to wait for the boot after a reload.
+     *
+     * @return the number of completed boots
+     */
+    protected long bootCount() {
+        final ServerReadiness readiness = this.readiness;
+        return readiness == null ? 0L : readiness.bootCount();
+    }
+
+    /**
+     * Waits for the server to be running. For a standalone server started by this goal, waiting ends as soon as the
+     * server logged that it completed the boot following the given number of boots, or the management interface
+     * reports the server as running, whichever comes first. Otherwise the management interface is polled.
+     *
+     * @param previousBoots the {@linkplain #bootCount() number of completed boots} before the boot to wait for
+     *
+     * @return {@code true} if the server is running, {@code false} if the server did not start within the
+     *             {@code startup-timeout}
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    protected boolean waitForServer(final long previousBoots) throws InterruptedException {
+        final ServerReadiness readiness = this.readiness;
+        if (readiness == null) {
+            return serverManager.waitFor(startupTimeout, TimeUnit.SECONDS);
+        }
+        return readiness.await(serverManager, previousBoots, startupTimeout, TimeUnit.SECONDS);
+    }
+
     protected StandardOutput standardOutput() throws IOException {
         return StandardOutput.parse(null, false);
     }
@@ -259,9 +324,10 @@ public abstract class AbstractStartMojo extends AbstractServerConnection {
             // Restart the server process
             return startServer(ServerType.STANDALONE);
         } else if (ClientConstants.CONTROLLER_PROCESS_STATE_RELOAD_REQUIRED.equals(serverState)) {
+            final long boots = bootCount();
             serverManager.executeReload(Operations.createOperation("reload"));
             try {
-                if (!serverManager.waitFor(startupTimeout, TimeUnit.SECONDS)) {
+                if (!waitForServer(boots)) {
                     throw new MojoExecutionException(String.format("Server failed to start in %s seconds.", startupTimeout));
                 }
             } catch (InterruptedException e) {
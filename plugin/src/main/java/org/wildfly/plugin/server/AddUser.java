@@ -29,6 +29,15 @@ public class AddUser {
     @Parameter
     private List<User> users;
 
+    /**
+     * Indicates whether the users are written directly to the properties files of the server, rather than launching
+     * the {@code add-user} utility in a new JVM for each user. Users which cannot be written directly, e.g. because
+     * the realm does not match the realm of the properties files or the password does not meet the password
+     * restrictions of {@code bin/add-user.properties}, are still added with the {@code add-user} utility.
+     */
+    @Parameter(alias = "write-properties", defaultValue = "false")
+    private boolean writeProperties;
+
     /**
      * Allows a user to be set by a string value. Only one user is allowed to be created via this method. The format is
      * {@code user:password:groups:realm:true|false}.
@@ -48,12 +57,32 @@ public class AddUser {
         return users != null && !users.isEmpty();
     }
 
-    void addUsers(final Path wildflyHome, final Path javaHome) throws IOException {
+    /**
+     * Adds the users to the server.
+     *
+     * @param wildflyHome the home directory of the server
+     * @param javaHome    the Java Home used to launch the {@code add-user} utility
+     *
+     * @return the number of users added with the {@code add-user} utility, the other users were written directly
+     *
+     * @throws IOException if a user could not be written
+     */
+    int addUsers(final Path wildflyHome, final Path javaHome) throws IOException {
+        int launched = 0;
         if (users != null) {
+            final UserPropertiesWriter writer = writeProperties ? new UserPropertiesWriter(wildflyHome) : null;
             for (User user : users) {
-                addUser(wildflyHome, user, javaHome);
+                if (writer == null || !writer.write(user)) {
+                    addUser(wildflyHome, user, javaHome);
+                    launched++;
+                }
             }
         }
+        return launched;
+    }
+
+    int size() {
+        return users == null ? 0 : users.size();
     }
 
     private void addUser(final Path wildflyHome, final User user, final Path javaHome) throws IOException {
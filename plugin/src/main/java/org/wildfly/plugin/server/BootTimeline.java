@@ -0,0 +1,393 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.plugin.logging.Log;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Builds the timeline of a server boot from the log messages of the server, which are {@linkplain #line(String)
+ * passed} as they are written. The time of each message is taken from the timestamp of the message, or from the time
+ * the message was received if it has no timestamp.
+ * <p>
+ * The timeline records, for each logger category, the span from the first to the last message logged by the category.
+ * The span is named after the subsystem if the subsystem logged its activation. It is not the time the subsystem took
+ * to start, as a category may log nothing while it works and the spans of categories overlap. The timeline further
+ * records the time each deployment took from {@code WFLYSRV0027} to {@code WFLYSRV0010} and the boot time and service
+ * counts of the boot-complete message. Once the boot completed, the timeline is written as JSON, with the spans in
+ * {@code categories}, and as a text summary. A new timeline is started for each boot, e.g. after a reload.
+ * </p>
+ */
+class BootTimeline {
+    private static final Pattern ANSI_ESCAPE = Pattern.compile("\u001B\\[[;\\d]*m");
+    // [yyyy-MM-dd ]HH:mm:ss,SSS LEVEL [category] (thread) message
+    private static final Pattern LOG_LINE = Pattern.compile(
+            "^(?:\\d{4}-\\d{2}-\\d{2} )?(\\d{2}):(\\d{2}):(\\d{2})[,.](\\d{3})\\s+(\\w+)\\s+\\[([^\\]]+)]\\s+\\([^)]*\\)\\s+(.*)$");
+    private static final Pattern MESSAGE_CODE = Pattern.compile("^([A-Z]+\\d{4,}):\\s*(.*)$");
+    private static final Pattern SERVER_STARTING = Pattern.compile("^(.*) starting$");
+    private static final Pattern BOOT_COMPLETE = Pattern.compile(
+            "^(.*) started (?:\\(with errors\\) )?in (\\d+)ms - Started (\\d+) of (\\d+) services(?: \\((\\d+) services are lazy, passive or on-demand\\))?.*$");
+    private static final Pattern SUBSYSTEM_ACTIVATION = Pattern.compile("(?i)^Activating (.+?) Subsystem\\b.*$");
+    private static final Pattern DEPLOYMENT_NAME = Pattern.compile("\"([^\"]+)\"");
+    private static final Pattern WEB_CONTEXT = Pattern.compile("^Registered web context: '([^']*)'.*$");
+    private static final long DAY = TimeUnit.DAYS.toMillis(1L);
+    private static final int MAX_EVENTS = 2000;
+
+    private final Log log;
+    private final Path jsonFile;
+    private final Path textFile;
+    private Boot boot;
+    private long lastTime = -1L;
+    private long dayOffset;
+    private Report lastReport;
+
+    /**
+     * Creates a new timeline.
+     *
+     * @param log       the log
+     * @param outputDir the directory the {@code wildfly-boot-timeline.json} and {@code wildfly-boot-timeline.txt}
+     *                      files are written to
+     */
+    BootTimeline(final Log log, final Path outputDir) {
+        this.log = log;
+        this.jsonFile = outputDir.resolve("wildfly-boot-timeline.json");
+        this.textFile = outputDir.resolve("wildfly-boot-timeline.txt");
+    }
+
+    /**
+     * Parses a line of the log of the server.
+     *
+     * @param line the line
+     */
+    synchronized void line(final String line) {
+        final Matcher matcher = LOG_LINE.matcher(ANSI_ESCAPE.matcher(line).replaceAll("").trim());
+        if (!matcher.matches()) {
+            return;
+        }
+        final long time = time(matcher);
+        final String category = matcher.group(6);
+        final String message = matcher.group(7);
+        final Matcher codeMatcher = MESSAGE_CODE.matcher(message);
+        final String code = codeMatcher.matches() ? codeMatcher.group(1) : null;
+        final String text = codeMatcher.matches() ? codeMatcher.group(2) : message;
+
+        if ("WFLYSRV0049".equals(code) || boot == null) {
+            final Matcher starting = SERVER_STARTING.matcher(text);
+            boot = new Boot(time, "WFLYSRV0049".equals(code) && starting.matches() ? starting.group(1) : null);
+        }
+        boot.event(time, matcher.group(5), category, code, text);
+        if ("WFLYSRV0025".equals(code) || "WFLYSRV0026".equals(code)) {
+            final Matcher complete = BOOT_COMPLETE.matcher(text);
+            if (complete.matches()) {
+                boot.complete(time, "WFLYSRV0026".equals(code), complete);
+                lastReport = boot.report();
+                boot = null;
+                write(lastReport);
+            }
+        }
+    }
+
+    /**
+     * The report of the last completed boot.
+     *
+     * @return the report or {@code null} if no boot completed
+     */
+    synchronized Report lastReport() {
+        return lastReport;
+    }
+
+    private long time(final Matcher matcher) {
+        long time = TimeUnit.HOURS.toMillis(Long.parseLong(matcher.group(1)))
+                + TimeUnit.MINUTES.toMillis(Long.parseLong(matcher.group(2)))
+                + TimeUnit.SECONDS.toMillis(Long.parseLong(matcher.group(3)))
+                + Long.parseLong(matcher.group(4));
+        // The boot passed midnight
+        if (lastTime >= 0L && time + dayOffset < lastTime - TimeUnit.HOURS.toMillis(1L)) {
+            dayOffset += DAY;
+        }
+        time += dayOffset;
+        lastTime = time;
+        return time;
+    }
+
+    private void write(final Report report) {
+        try {
+            Files.createDirectories(jsonFile.getParent());
+            Files.writeString(jsonFile, report.toJson().toJSONString(false), StandardCharsets.UTF_8);
+            Files.writeString(textFile, report.toText(), StandardCharsets.UTF_8);
+            log.info(String.format("%s, boot timeline written to %s", report.describe(), jsonFile));
+        } catch (IOException e) {
+            log.warn(String.format("Failed to write the boot timeline to %s: %s", jsonFile, e));
+        }
+    }
+
+    /**
+     * The messages of a boot which has not completed yet.
+     */
+    private static class Boot {
+        private final long start;
+        private final String server;
+        private final Map<String, Span> categories = new LinkedHashMap<>();
+        private final Map<String, Deployment> deployments = new LinkedHashMap<>();
+        private final List<ModelNode> events = new ArrayList<>();
+        private int warnings;
+        private int errors;
+        private Report report;
+
+        private Boot(final long start, final String server) {
+            this.start = start;
+            this.server = server;
+        }
+
+        private void event(final long time, final String level, final String category, final String code,
+                final String text) {
+            final long offset = time - start;
+            if ("WARN".equals(level)) {
+                warnings++;
+            } else if ("ERROR".equals(level) || "FATAL".equals(level)) {
+                errors++;
+            }
+            final Span span = categories.computeIfAbsent(category, Span::new);
+            span.add(offset);
+            final Matcher activation = SUBSYSTEM_ACTIVATION.matcher(text);
+            if (activation.matches()) {
+                span.subsystem = activation.group(1);
+            }
+            if (code != null) {
+                final Matcher name = DEPLOYMENT_NAME.matcher(text);
+                if (("WFLYSRV0027".equals(code) || "WFLYSRV0207".equals(code)) && name.find()) {
+                    deployments.computeIfAbsent(name.group(1), Deployment::new).start = offset;
+                } else if ("WFLYSRV0010".equals(code) && name.find()) {
+                    deployments.computeIfAbsent(name.group(1), Deployment::new).end = offset;
+                } else if ("WFLYUT0021".equals(code)) {
+                    final Matcher context = WEB_CONTEXT.matcher(text);
+                    if (context.matches()) {
+                        // The context is registered for the deployment which is being started
+                        deployments.values().stream()
+                                .filter((deployment) -> deployment.end < 0L)
+                                .reduce((first, second) -> second)
+                                .ifPresent((deployment) -> deployment.contexts.add(context.group(1)));
+                    }
+                }
+            }
+            if (events.size() < MAX_EVENTS) {
+                final ModelNode event = new ModelNode();
+                event.get("time").set(offset);
+                event.get("level").set(level);
+                event.get("category").set(category);
+                if (code != null) {
+                    event.get("code").set(code);
+                }
+                event.get("message").set(text);
+                events.add(event);
+            }
+        }
+
+        private void complete(final long time, final boolean withErrors, final Matcher complete) {
+            report = new Report(server == null ? complete.group(1) : server, time - start,
+                    Long.parseLong(complete.group(2)), withErrors, Integer.parseInt(complete.group(3)),
+                    Integer.parseInt(complete.group(4)),
+                    complete.group(5) == null ? -1 : Integer.parseInt(complete.group(5)));
+        }
+
+        private Report report() {
+            report.warnings = warnings;
+            report.errors = errors;
+            report.categories.addAll(categories.values());
+            report.deployments.addAll(deployments.values());
+            report.events.addAll(events);
+            return report;
+        }
+    }
+
+    /**
+     * The time span of the messages of a logger category, relative to the start of the boot.
+     */
+    static class Span {
+        private final String category;
+        private String subsystem;
+        private long first = -1L;
+        private long last;
+        private int messages;
+
+        private Span(final String category) {
+            this.category = category;
+        }
+
+        private void add(final long offset) {
+            if (first < 0L) {
+                first = offset;
+            }
+            last = offset;
+            messages++;
+        }
+
+        String name() {
+            return subsystem == null ? category : subsystem;
+        }
+
+        long duration() {
+            return last - first;
+        }
+    }
+
+    /**
+     * The time a deployment took to deploy, relative to the start of the boot.
+     */
+    static class Deployment {
+        private final String name;
+        private final List<String> contexts = new ArrayList<>();
+        private long start = -1L;
+        private long end = -1L;
+
+        private Deployment(final String name) {
+            this.name = name;
+        }
+
+        String name() {
+            return name;
+        }
+
+        long duration() {
+            return start < 0L || end < 0L ? -1L : end - start;
+        }
+    }
+
+    /**
+     * The timeline of a completed boot.
+     */
+    static class Report {
+        private final String server;
+        private final long measuredTime;
+        private final long bootTime;
+        private final boolean withErrors;
+        private final int startedServices;
+        private final int totalServices;
+        private final int lazyServices;
+        private final List<Span> categories = new ArrayList<>();
+        private final List<Deployment> deployments = new ArrayList<>();
+        private final List<ModelNode> events = new ArrayList<>();
+        private int warnings;
+        private int errors;
+
+        private Report(final String server, final long measuredTime, final long bootTime, final boolean withErrors,
+                final int startedServices, final int totalServices, final int lazyServices) {
+            this.server = server;
+            this.measuredTime = measuredTime;
+            this.bootTime = bootTime;
+            this.withErrors = withErrors;
+            this.startedServices = startedServices;
+            this.totalServices = totalServices;
+            this.lazyServices = lazyServices;
+        }
+
+        /**
+         * The boot time reported by the server.
+         *
+         * @return the boot time in milliseconds
+         */
+        long bootTime() {
+            return bootTime;
+        }
+
+        List<Span> categories() {
+            return categories;
+        }
+
+        List<Deployment> deployments() {
+            return deployments;
+        }
+
+        /**
+         * Describes the boot in a single line.
+         *
+         * @return the description
+         */
+        String describe() {
+            return String.format("%s started in %d ms%s, %d of %d services started, %d deployment(s)", server,
+                    bootTime, withErrors ? " with errors" : "", startedServices, totalServices, deployments.size());
+        }
+
+        ModelNode toJson() {
+            final ModelNode result = new ModelNode();
+            result.get("server").set(server);
+            result.get("bootTime").set(bootTime);
+            result.get("measuredTime").set(measuredTime);
+            result.get("withErrors").set(withErrors);
+            result.get("warnings").set(warnings);
+            result.get("errors").set(errors);
+            final ModelNode services = result.get("services");
+            services.get("started").set(startedServices);
+            services.get("total").set(totalServices);
+            if (lazyServices >= 0) {
+                services.get("lazy").set(lazyServices);
+            }
+            final ModelNode categoryNodes = result.get("categories").setEmptyList();
+            for (Span span : categories) {
+                final ModelNode node = new ModelNode();
+                node.get("name").set(span.name());
+                node.get("category").set(span.category);
+                node.get("start").set(span.first);
+                node.get("end").set(span.last);
+                node.get("duration").set(span.duration());
+                node.get("messages").set(span.messages);
+                categoryNodes.add(node);
+            }
+            final ModelNode deploymentNodes = result.get("deployments").setEmptyList();
+            for (Deployment deployment : deployments) {
+                final ModelNode node = new ModelNode();
+                node.get("name").set(deployment.name);
+                node.get("start").set(deployment.start);
+                node.get("end").set(deployment.end);
+                node.get("duration").set(deployment.duration());
+                final ModelNode contexts = node.get("contexts").setEmptyList();
+                deployment.contexts.forEach(contexts::add);
+                deploymentNodes.add(node);
+            }
+            final ModelNode eventNodes = result.get("events").setEmptyList();
+            events.forEach(eventNodes::add);
+            return result;
+        }
+
+        String toText() {
+            final StringBuilder result = new StringBuilder();
+            result.append(describe()).append(System.lineSeparator());
+            result.append(String.format("Measured from the first message: %d ms, %d warning(s), %d error(s)%n",
+                    measuredTime, warnings, errors));
+            if (lazyServices >= 0) {
+                result.append(String.format("Services: %d started of %d, %d lazy, passive or on-demand%n",
+                        startedServices, totalServices, lazyServices));
+            }
+            result.append(System.lineSeparator()).append("First to last message per logger category (ms from boot start):")
+                    .append(System.lineSeparator());
+            for (Span span : categories) {
+                result.append(String.format("  %8d %8d %8d ms  %s (%d message(s))%n", span.first, span.last,
+                        span.duration(), span.name(), span.messages));
+            }
+            if (!deployments.isEmpty()) {
+                result.append(System.lineSeparator()).append("Deployments:").append(System.lineSeparator());
+                for (Deployment deployment : deployments) {
+                    result.append(String.format("  %8d %8d %8d ms  %s%s%n", deployment.start, deployment.end,
+                            deployment.duration(), deployment.name,
+                            deployment.contexts.isEmpty() ? "" : " " + deployment.contexts));
+                }
+            }
+            return result.toString();
+        }
+    }
+}
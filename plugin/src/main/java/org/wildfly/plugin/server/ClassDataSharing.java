@@ -0,0 +1,196 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+import org.wildfly.plugin.common.Environment;
+
+/**
+ * Resolves the dynamic class data sharing (AppCDS) archive of a server. The archive is recorded with
+ * {@code -XX:ArchiveClassesAtExit} when the server exits the first time and used with {@code -XX:SharedArchiveFile}
+ * for the following starts, which avoids loading and verifying the classes loaded during the boot again.
+ * <p>
+ * The archive is keyed by the Java Home, its {@code release} file, the {@code jboss-modules.jar} and the path, size and
+ * modification time of each JAR and {@code module.xml} of the module directories. An archive of the same server with a
+ * different key, e.g. after a module was updated, is deleted. Dynamic archives require Java 13 or later.
+ * </p>
+ */
+class ClassDataSharing {
+    private static final String EXTENSION = ".jsa";
+
+    private final Log log;
+    private final Path archiveDir;
+
+    /**
+     * Creates a new resolver.
+     *
+     * @param log        the log
+     * @param archiveDir the directory the archives are stored in
+     */
+    ClassDataSharing(final Log log, final Path archiveDir) {
+        this.log = log;
+        this.archiveDir = archiveDir;
+    }
+
+    /**
+     * Checks whether the JVM supports dynamic archives and whether the JVM options already configure class data
+     * sharing.
+     *
+     * @param javaHome    the Java Home the server is launched with
+     * @param javaOptions the JVM options of the server
+     *
+     * @return {@code true} if an archive can be used, otherwise {@code false}
+     */
+    boolean isSupported(final Path javaHome, final Collection<String> javaOptions) {
+        final int version = Environment.getJavaVersion(javaHome);
+        if (version < 13) {
+            log.warn(String.format("Class data sharing requires Java 13 or later, %s is Java %d.", javaHome, version));
+            return false;
+        }
+        for (String option : javaOptions) {
+            if (option.startsWith("-XX:SharedArchiveFile") || option.startsWith("-XX:ArchiveClassesAtExit")
+                    || option.equals("-Xshare:off")) {
+                log.info(String.format("Class data sharing is already configured by the JVM option %s.", option));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolves the archive of the server and deletes the outdated archives of the server.
+     *
+     * @param javaHome    the Java Home the server is launched with
+     * @param jbossHome   the home directory of the server
+     * @param modulePaths the additional module directories
+     *
+     * @return the archive, which does not exist if it must be recorded
+     *
+     * @throws IOException if the server could not be read
+     */
+    Path resolveArchive(final Path javaHome, final Path jbossHome, final Collection<String> modulePaths)
+            throws IOException {
+        final long start = System.nanoTime();
+        final Path home = jbossHome.toRealPath();
+        final MessageDigest digest = sha256();
+        update(digest, javaHome.toRealPath().toString());
+        final Path release = javaHome.resolve("release");
+        if (Files.exists(release)) {
+            digest.update(Files.readAllBytes(release));
+        } else {
+            update(digest, Integer.toString(Environment.getJavaVersion(javaHome)));
+        }
+        hashFile(digest, home, home.resolve("jboss-modules.jar"));
+        final List<Path> moduleDirs = new ArrayList<>();
+        moduleDirs.add(home.resolve("modules"));
+        for (String modulePath : modulePaths) {
+            moduleDirs.add(Path.of(modulePath));
+        }
+        for (Path moduleDir : moduleDirs) {
+            if (Files.isDirectory(moduleDir)) {
+                hashModules(digest, moduleDir);
+            }
+        }
+        final String prefix = hex(sha256().digest(home.toString().getBytes(StandardCharsets.UTF_8))).substring(0, 16)
+                + '-';
+        final Path archive = archiveDir.resolve(prefix + hex(digest.digest()).substring(0, 32) + EXTENSION);
+        if (Files.isDirectory(archiveDir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(archiveDir, prefix + "*" + EXTENSION)) {
+                for (Path outdated : stream) {
+                    if (!outdated.equals(archive)) {
+                        log.info(String.format("Deleting the outdated class data sharing archive %s", outdated));
+                        Files.deleteIfExists(outdated);
+                    }
+                }
+            }
+        }
+        log.debug(String.format("Resolved the class data sharing archive %s in %d ms", archive,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        return archive;
+    }
+
+    /**
+     * Returns the JVM option which records the archive if it does not exist, otherwise the JVM option which uses the
+     * archive.
+     *
+     * @param archive the {@linkplain #resolveArchive(Path, Path, Collection) archive}
+     *
+     * @return the JVM option
+     *
+     * @throws IOException if the archive directory could not be created
+     */
+    String javaOption(final Path archive) throws IOException {
+        if (Files.exists(archive)) {
+            log.info(String.format("Using the class data sharing archive %s", archive));
+            return "-XX:SharedArchiveFile=" + archive;
+        }
+        Files.createDirectories(archive.getParent());
+        log.info(String.format("Recording the class data sharing archive %s when the server exits", archive));
+        return "-XX:ArchiveClassesAtExit=" + archive;
+    }
+
+    private static void hashModules(final MessageDigest digest, final Path moduleDir) throws IOException {
+        // Sort the files as the order of a directory listing is not defined
+        final TreeMap<String, BasicFileAttributes> files = new TreeMap<>();
+        Files.walkFileTree(moduleDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                final String name = file.getFileName().toString();
+                if (name.endsWith(".jar") || name.equals("module.xml")) {
+                    files.put(moduleDir.relativize(file).toString(), attrs);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        update(digest, moduleDir.toString());
+        files.forEach((name, attrs) -> update(digest,
+                name + ':' + attrs.size() + ':' + attrs.lastModifiedTime().toMillis()));
+    }
+
+    private static void hashFile(final MessageDigest digest, final Path base, final Path file) throws IOException {
+        if (Files.exists(file)) {
+            final BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            update(digest, base.relativize(file) + ":" + attrs.size() + ':' + attrs.lastModifiedTime().toMillis());
+        }
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(final byte[] bytes) {
+        final StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+}
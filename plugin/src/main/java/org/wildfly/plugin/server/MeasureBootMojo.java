@@ -0,0 +1,152 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.wildfly.core.launcher.CommandBuilder;
+import org.wildfly.plugin.common.PropertyNames;
+import org.wildfly.plugin.common.StandardOutput;
+
+/**
+ * Measures the time a standalone server takes to start with and without a class data sharing (AppCDS) archive.
+ * <p>
+ * The server is started and shut down the configured number of times without an archive, once to record the archive
+ * and the configured number of times with the archive. The time is measured from launching the server until the server
+ * is running. The output of the server is written to {@code wildfly-measure-boot.log} in the build directory.
+ * </p>
+ */
+@Mojo(name = "measure-boot", requiresDependencyResolution = ResolutionScope.RUNTIME)
+public class MeasureBootMojo extends AbstractServerStartMojo {
+
+    /**
+     * The path to the server configuration to use.
+     */
+    @Parameter(alias = "server-config", property = PropertyNames.SERVER_CONFIG)
+    private String serverConfig;
+
+    /**
+     * The number of times the server is started without and with the archive.
+     */
+    @Parameter(defaultValue = "3", property = "wildfly.measure.iterations")
+    private int iterations;
+
+    // Taken once the command is built, so resolving the archive and adding users are not measured
+    private long launchStart;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().debug("Skipping measuring the boot time");
+            return;
+        }
+        if (iterations < 1) {
+            throw new MojoExecutionException("The number of iterations must be at least 1.");
+        }
+        final Log log = getLog();
+        final Path jbossHome = getServerHome();
+        final List<Long> without = new ArrayList<>();
+        final List<Long> with = new ArrayList<>();
+        final long recording;
+        try {
+            classDataSharing = false;
+            for (int i = 0; i < iterations; i++) {
+                without.add(measure());
+            }
+            classDataSharing = true;
+            // Always record a new archive, so the archive matches the current configuration
+            final Path archive = resolveClassDataSharingArchive(jbossHome);
+            Files.deleteIfExists(archive);
+            recording = measure();
+            if (Files.notExists(archive)) {
+                throw new MojoExecutionException(String.format("The class data sharing archive %s was not recorded. "
+                        + "Check %s for errors of the JVM.", archive, logFile()));
+            }
+            for (int i = 0; i < iterations; i++) {
+                with.add(measure());
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to measure the boot time", e);
+        }
+        final long medianWithout = median(without);
+        final long medianWith = median(with);
+        log.info(String.format("Without class data sharing: median %d ms, min %d ms %s", medianWithout,
+                Collections.min(without), without));
+        log.info(String.format("Recording the archive: %d ms", recording));
+        log.info(String.format("With class data sharing:    median %d ms, min %d ms %s", medianWith,
+                Collections.min(with), with));
+        log.info(String.format("Class data sharing changed the median boot time by %d ms (%.1f%%)",
+                medianWith - medianWithout, (medianWith - medianWithout) * 100.0 / medianWithout));
+    }
+
+    @Override
+    protected CommandBuilder createCommandBuilder(final Path jbossHome) throws MojoExecutionException {
+        final CommandBuilder commandBuilder = createStandaloneCommandBuilder(jbossHome, serverConfig);
+        launchStart = System.nanoTime();
+        return commandBuilder;
+    }
+
+    @Override
+    protected StandardOutput standardOutput() throws IOException {
+        return StandardOutput.parse(logFile().toString(), true, true);
+    }
+
+    @Override
+    public String goal() {
+        return "measure-boot";
+    }
+
+    /**
+     * Starts the server, which is shut down once it is running.
+     *
+     * @return the time in milliseconds from launching the server until the server was running, which does not include
+     *             building the command, e.g. resolving the class data sharing archive
+     */
+    private long measure() throws MojoExecutionException, MojoFailureException, IOException {
+        final ServerContext context = startServer(ServerType.STANDALONE);
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launchStart);
+        try {
+            serverManager.shutdown();
+            // The archive is recorded when the JVM exits
+            if (!context.process().waitFor(startupTimeout, TimeUnit.SECONDS)) {
+                context.process().destroyForcibly();
+                throw new MojoExecutionException(
+                        String.format("The server did not exit within %d seconds after the shutdown.", startupTimeout));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            context.process().destroyForcibly();
+            throw new MojoExecutionException("Interrupted while waiting for the server to exit", e);
+        } finally {
+            serverManager.client().close();
+        }
+        getLog().info(String.format("Server started in %d ms", elapsed));
+        return elapsed;
+    }
+
+    private Path logFile() {
+        return targetDir.toPath().resolve("wildfly-measure-boot.log");
+    }
+
+    private static long median(final List<Long> values) {
+        final List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        final int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 0 ? (sorted.get(middle - 1) + sorted.get(middle)) / 2 : sorted.get(middle);
+    }
+}
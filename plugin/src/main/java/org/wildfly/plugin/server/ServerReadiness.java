@@ -0,0 +1,259 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import org.apache.maven.plugin.logging.Log;
+import org.wildfly.plugin.tools.server.ServerManager;
+
+/**
+ * Detects when a standalone server completed its boot. The console output, or a log file, of the server is scanned
+ * for the boot-complete message ({@code WFLYSRV0025} or {@code WFLYSRV0026}) while the management interface is polled
+ * in parallel. Waiting ends as soon as either reports the server as running, so the start does not pay the polling
+ * interval once the server logged its boot.
+ * <p>
+ * The boot-complete messages are counted, which allows waiting for the boot after a reload of the same process.
+ * </p>
+ */
+class ServerReadiness implements AutoCloseable {
+    private static final Pattern BOOT_COMPLETE = Pattern.compile("\\bWFLYSRV002[56]:");
+    private static final long TAIL_INTERVAL = 20L;
+    private static final int MAX_LINE_LENGTH = 8192;
+    // The time to wait for the polling thread to end after it was interrupted, a request in progress is not interrupted
+    private static final long POLLER_JOIN_TIMEOUT = TimeUnit.SECONDS.toMillis(5L);
+    private static final String BOOT_MESSAGE = "boot message";
+    private static final String MANAGEMENT_POLLING = "management polling";
+
+    private final Log log;
+    private final Consumer<String> listener;
+    private long boots;
+    // Guarded by this
+    private CompletableFuture<String> pending;
+    // The boots reported by the management interface whose boot message was not scanned yet
+    private long unscanned;
+    private boolean closed;
+
+    /**
+     * Creates a new detector.
+     *
+     * @param log the log
+     */
+    ServerReadiness(final Log log) {
+        this(log, null);
+    }
+
+    /**
+     * Creates a new detector which passes each scanned line to the listener.
+     *
+     * @param log      the log
+     * @param listener the listener for the lines or {@code null}
+     */
+    ServerReadiness(final Log log, final Consumer<String> listener) {
+        this.log = log;
+        this.listener = listener;
+    }
+
+    /**
+     * Scans a line of the console output of the server.
+     *
+     * @param line the line
+     */
+    void line(final String line) {
+        if (listener != null) {
+            listener.accept(line);
+        }
+        if (BOOT_COMPLETE.matcher(line).find()) {
+            final CompletableFuture<String> future;
+            synchronized (this) {
+                if (unscanned > 0) {
+                    // The boot was already counted when the management interface reported it
+                    unscanned--;
+                    return;
+                }
+                boots++;
+                future = pending;
+                pending = null;
+            }
+            if (future != null) {
+                future.complete(BOOT_MESSAGE);
+            }
+        }
+    }
+
+    /**
+     * The number of boot-complete messages seen so far.
+     *
+     * @return the number of boots
+     */
+    synchronized long bootCount() {
+        return boots;
+    }
+
+    /**
+     * Tails the file on a background thread and {@linkplain #line(String) scans} each line written after the offset.
+     * If the file is truncated or replaced by a smaller file, it is read from the start again.
+     * <p>
+     * The file is only read while a thread {@linkplain #await(ServerManager, long, long, TimeUnit) waits} for the
+     * server. In between, e.g. once the start goal completed, the file is not polled. The lines written in between are
+     * scanned once the next wait starts.
+     * </p>
+     *
+     * @param file   the file to tail, which may not exist yet
+     * @param offset the offset to start reading at
+     */
+    void tail(final Path file, final long offset) {
+        final Thread thread = new Thread(() -> {
+            long position = offset;
+            final ByteArrayOutputStream line = new ByteArrayOutputStream();
+            final ByteBuffer buffer = ByteBuffer.allocate(8192);
+            try {
+                while (awaitWaiter()) {
+                    if (Files.exists(file)) {
+                        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                            if (channel.size() < position) {
+                                position = 0L;
+                                line.reset();
+                            }
+                            int read;
+                            while ((read = channel.read(buffer, position)) > 0) {
+                                position += read;
+                                buffer.flip();
+                                scan(buffer, line);
+                                buffer.clear();
+                            }
+                        }
+                    }
+                    TimeUnit.MILLISECONDS.sleep(TAIL_INTERVAL);
+                }
+            } catch (IOException e) {
+                log.debug(String.format("Failed to tail %s: %s", file, e));
+            } catch (InterruptedException ignore) {
+            }
+        }, "wildfly-readiness");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits until the server completed the boot following the given number of boots, or until the management interface
+     * reports the server as running.
+     *
+     * @param serverManager the server manager used to poll the management interface
+     * @param previousBoots the {@linkplain #bootCount() number of boots} before the boot which is waited for
+     * @param timeout       the timeout
+     * @param unit          the unit of the timeout
+     *
+     * @return {@code true} if the server is running, {@code false} if the timeout elapsed
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean await(final ServerManager serverManager, final long previousBoots, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        final long start = System.nanoTime();
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        synchronized (this) {
+            if (boots > previousBoots) {
+                return true;
+            }
+            pending = result;
+            // Resumes tailing the file
+            notifyAll();
+        }
+        final Thread poller = new Thread(() -> {
+            try {
+                final boolean running = serverManager.waitFor(timeout, unit);
+                final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (!result.complete(running ? MANAGEMENT_POLLING : null) && running) {
+                    log.debug(String.format("The management interface reported the server as running after %d ms",
+                            elapsed));
+                }
+            } catch (InterruptedException ignore) {
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, "wildfly-readiness-poll");
+        poller.setDaemon(true);
+        poller.start();
+        try {
+            final String signal = result.get(timeout, unit);
+            if (MANAGEMENT_POLLING.equals(signal)) {
+                synchronized (this) {
+                    // Count the boot, so its boot message scanned later is not taken for the next boot
+                    if (boots <= previousBoots) {
+                        boots++;
+                        unscanned++;
+                    }
+                }
+            }
+            if (signal != null) {
+                log.debug(String.format("The server was detected as running by the %s after %d ms", signal,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            }
+            return signal != null;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            synchronized (this) {
+                if (pending == result) {
+                    pending = null;
+                }
+            }
+            // Stop polling the management interface, e.g. once the boot message was found
+            poller.interrupt();
+            poller.join(POLLER_JOIN_TIMEOUT);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Blocks the tailing thread until a thread waits for the server.
+     *
+     * @return {@code true} if the file should be read, {@code false} if the detector was closed
+     */
+    private synchronized boolean awaitWaiter() throws InterruptedException {
+        while (!closed && pending == null) {
+            wait();
+        }
+        return !closed;
+    }
+
+    private void scan(final ByteBuffer buffer, final ByteArrayOutputStream line) {
+        while (buffer.hasRemaining()) {
+            final byte b = buffer.get();
+            if (b == '\n') {
+                // Decoded as a whole line, as the console output, so multibyte characters are not split
+                line(line.toString(StandardCharsets.UTF_8));
+                line.reset();
+            } else if (line.size() < MAX_LINE_LENGTH) {
+                line.write(b);
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.plugin.server;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes users to the properties files of the server in the same format as the {@code add-user} utility, which avoids
+ * launching a JVM for each user. The password is stored as {@code HEX(MD5(username:realm:password))}.
+ * <p>
+ * The users are written to the files of the {@code standalone} and {@code domain} configuration directories which
+ * exist. A user is not written, and must be added with the {@code add-user} utility, if none of the files exist, if the
+ * user name contains characters which would need to be escaped or if the realm of the user does not match the realm of
+ * a file.
+ * </p>
+ * <p>
+ * The password is validated with the password restrictions of {@code bin/add-user.properties}, using the defaults of
+ * the {@code add-user} utility if the file does not exist. A user whose password does not meet the restrictions is not
+ * written either, so the {@code add-user} utility applies its own validation and reports the error or warning.
+ * </p>
+ */
+class UserPropertiesWriter {
+    private static final Pattern REALM_PATTERN = Pattern.compile("^#\\$REALM_NAME=([^$]*)\\$", Pattern.MULTILINE);
+    private static final Pattern USERNAME_PATTERN = Pattern.compile("[A-Za-z0-9_.,@/-]+");
+    private static final String MANAGEMENT_REALM = "ManagementRealm";
+    private static final String APPLICATION_REALM = "ApplicationRealm";
+
+    private final Path wildflyHome;
+    private Properties restrictions;
+
+    /**
+     * Creates a new writer.
+     *
+     * @param wildflyHome the home directory of the server
+     */
+    UserPropertiesWriter(final Path wildflyHome) {
+        this.wildflyHome = wildflyHome;
+    }
+
+    /**
+     * Writes the user and its groups. An existing user with the same name is replaced.
+     *
+     * @param user the user to write
+     *
+     * @return {@code true} if the user was written, {@code false} if the user must be added with the {@code add-user}
+     *             utility
+     *
+     * @throws IOException if the properties files could not be written
+     */
+    boolean write(final User user) throws IOException {
+        final String username = user.getUsername();
+        if (username == null || user.getPassword() == null || !USERNAME_PATTERN.matcher(username).matches()
+                || !isValidPassword(username, user.getPassword())) {
+            return false;
+        }
+        final String usersFileName = user.isApplicationUser() ? "application-users.properties"
+                : "mgmt-users.properties";
+        final String groupsFileName = user.isApplicationUser() ? "application-roles.properties"
+                : "mgmt-groups.properties";
+        final String defaultRealm = user.isApplicationUser() ? APPLICATION_REALM : MANAGEMENT_REALM;
+        final String realm = user.getRealm() == null || user.getRealm().isEmpty() ? null : user.getRealm();
+        // Validate all files first, so a user is either written to all files or to none
+        final List<Path> usersFiles = new ArrayList<>();
+        final List<String> realms = new ArrayList<>();
+        for (String dir : List.of("standalone", "domain")) {
+            final Path usersFile = wildflyHome.resolve(dir).resolve("configuration").resolve(usersFileName);
+            if (Files.notExists(usersFile)) {
+                continue;
+            }
+            final String fileRealm = readRealm(usersFile);
+            if (realm != null && fileRealm != null && !realm.equals(fileRealm)) {
+                return false;
+            }
+            usersFiles.add(usersFile);
+            realms.add(realm != null ? realm : fileRealm != null ? fileRealm : defaultRealm);
+        }
+        if (usersFiles.isEmpty()) {
+            return false;
+        }
+        final String groups = user.getGroups() == null ? "" : String.join(",", user.getGroups());
+        for (int i = 0; i < usersFiles.size(); i++) {
+            final Path usersFile = usersFiles.get(i);
+            update(usersFile, username, hash(username, realms.get(i), user.getPassword()));
+            final Path groupsFile = usersFile.resolveSibling(groupsFileName);
+            if (Files.exists(groupsFile) || !groups.isEmpty()) {
+                update(groupsFile, username, groups);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the hash of the password as stored in the users properties file.
+     *
+     * @param username the user name
+     * @param realm    the realm
+     * @param password the password
+     *
+     * @return the hex encoded hash
+     */
+    static String hash(final String username, final String realm, final String password) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("MD5")
+                    .digest((username + ':' + realm + ':' + password).getBytes(StandardCharsets.UTF_8));
+            final StringBuilder result = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Checks the password against the password restrictions the {@code add-user} utility applies.
+     *
+     * @param username the user name
+     * @param password the password
+     *
+     * @return {@code true} if the password meets all restrictions, otherwise {@code false}
+     *
+     * @throws IOException if {@code bin/add-user.properties} could not be read
+     */
+    boolean isValidPassword(final String username, final String password) throws IOException {
+        final Properties restrictions = restrictions();
+        if (password.isEmpty()) {
+            return false;
+        }
+        if (Boolean.parseBoolean(restrictions.getProperty("password.restriction.mustNotMatchUsername", "true"))
+                && password.equals(username)) {
+            return false;
+        }
+        for (String forbidden : restrictions.getProperty("password.restriction.forbiddenValue", "").split(",")) {
+            if (!forbidden.isBlank() && forbidden.trim().equalsIgnoreCase(password)) {
+                return false;
+            }
+        }
+        int alpha = 0;
+        int digit = 0;
+        int symbol = 0;
+        for (int i = 0; i < password.length(); i++) {
+            final char c = password.charAt(i);
+            if (Character.isLetter(c)) {
+                alpha++;
+            } else if (Character.isDigit(c)) {
+                digit++;
+            } else {
+                symbol++;
+            }
+        }
+        return password.length() >= restriction(restrictions, "minLength", 8)
+                && alpha >= restriction(restrictions, "minAlpha", 1)
+                && digit >= restriction(restrictions, "minDigit", 1)
+                && symbol >= restriction(restrictions, "minSymbol", 1);
+    }
+
+    private Properties restrictions() throws IOException {
+        if (restrictions == null) {
+            final Properties properties = new Properties();
+            final Path file = wildflyHome.resolve("bin").resolve("add-user.properties");
+            if (Files.exists(file)) {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                }
+            }
+            restrictions = properties;
+        }
+        return restrictions;
+    }
+
+    private static int restriction(final Properties restrictions, final String name, final int defaultValue) {
+        final String value = restrictions.getProperty("password.restriction." + name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static String readRealm(final Path file) throws IOException {
+        final Matcher matcher = REALM_PATTERN.matcher(Files.readString(file, StandardCharsets.UTF_8));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static void update(final Path file, final String key, final String value) throws IOException {
+        final List<String> lines = Files.exists(file) ? new ArrayList<>(Files.readAllLines(file, StandardCharsets.UTF_8))
+                : new ArrayList<>();
+        final String entry = key + '=' + value;
+        boolean replaced = false;
+        for (int i = 0; i < lines.size(); i++) {
+            final String line = lines.get(i);
+            final int separator = line.indexOf('=');
+            // Commented lines are kept, these include the examples of the default files
+            if (separator > 0 && !line.startsWith("#") && line.substring(0, separator).trim().equals(key)) {
+                lines.set(i, entry);
+                replaced = true;
+            }
+        }
+        if (!replaced) {
+            lines.add(entry);
+        }
+        final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
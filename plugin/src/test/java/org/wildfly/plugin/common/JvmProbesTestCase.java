@@ -0,0 +1,67 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.common;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class JvmProbesTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testParseVersion() {
+        Assert.assertEquals(8, JvmProbes.parseVersion("1.8.0_292"));
+        Assert.assertEquals(11, JvmProbes.parseVersion("11.0.20"));
+        Assert.assertEquals(21, JvmProbes.parseVersion("21"));
+        Assert.assertEquals(22, JvmProbes.parseVersion("22-ea"));
+        Assert.assertEquals(-1, JvmProbes.parseVersion("unknown"));
+    }
+
+    @Test
+    public void testProbeCached() throws Exception {
+        final Path javaHome = Paths.get(System.getProperty("java.home"));
+        final Path file = folder.getRoot().toPath().resolve("cache/jvm-probes.properties");
+        final JvmProbes.Probe probe = new JvmProbes(file).probe(javaHome, Environment.getJavaCommand(javaHome));
+        Assert.assertTrue(probe.isModular());
+        Assert.assertEquals(Runtime.version().feature(), probe.version());
+
+        final Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Assert.assertEquals(3, properties.size());
+        Assert.assertTrue(properties.containsValue(javaHome.toString()));
+
+        // The probe is loaded from the file, the command is not launched again
+        final JvmProbes.Probe cached = new JvmProbes(file).probe(javaHome, "does-not-exist");
+        Assert.assertTrue(cached.isModular());
+        Assert.assertEquals(probe.version(), cached.version());
+    }
+
+    @Test
+    public void testFailedProbeNotStored() throws Exception {
+        final Path javaHome = folder.newFolder("jdk").toPath();
+        Files.writeString(javaHome.resolve("release"), "JAVA_VERSION=\"17.0.2\"\n");
+        final Path file = folder.getRoot().toPath().resolve("jvm-probes.properties");
+        final JvmProbes.Probe probe = new JvmProbes(file).probe(javaHome, "does-not-exist");
+        Assert.assertFalse(probe.isModular());
+        Assert.assertEquals(17, probe.version());
+        Assert.assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class BuildQueueTestCase {
+
+    @Test
+    public void testMergePending() throws Exception {
+        final BuildQueue queue = new BuildQueue(2);
+        queue.submit(batch("A.java"));
+        queue.submit(batch("B.java"));
+        // The queue is full, the batch is merged into the newest batch
+        queue.submit(batch("C.java"));
+        Assert.assertEquals(2, queue.depth());
+        Assert.assertEquals(1, queue.superseded());
+
+        final ChangeBatch batch = queue.take();
+        Assert.assertEquals(0, queue.depth());
+        Assert.assertEquals(2, queue.superseded());
+        Assert.assertEquals(3, batch.size());
+        Assert.assertEquals(Set.of(Path.of("A.java"), Path.of("B.java"), Path.of("C.java")), batch.dirtySources());
+    }
+
+    @Test
+    public void testRequeue() throws Exception {
+        final BuildQueue queue = new BuildQueue(4);
+        queue.submit(batch("A.java"));
+        final ChangeBatch inFlight = queue.take();
+        Assert.assertFalse(queue.hasPending());
+
+        queue.submit(batch("B.java"));
+        Assert.assertTrue(queue.hasPending());
+        queue.requeue(inFlight);
+        Assert.assertEquals(1, queue.depth());
+        Assert.assertEquals(1, queue.superseded());
+
+        final ChangeBatch batch = queue.take();
+        Assert.assertEquals(Set.of(Path.of("A.java"), Path.of("B.java")), batch.dirtySources());
+    }
+
+    private static ChangeBatch batch(final String source) {
+        final ChangeBatch batch = new ChangeBatch();
+        batch.add(new WatchHandler.Result() {
+            @Override
+            public boolean requiresRecompile() {
+                return true;
+            }
+
+            @Override
+            public Set<Path> dirtySources() {
+                return Set.of(Path.of(source));
+            }
+        });
+        return batch;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class BuildSnapshotTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testBuild() throws Exception {
+        final Path sources = folder.newFolder("src").toPath();
+        final Path source = Files.writeString(sources.resolve("Greeter.java"), "class Greeter {}");
+        final Path deployment = folder.newFolder("app.war").toPath();
+        Files.writeString(deployment.resolve("index.html"), "<html></html>");
+        final Path file = folder.getRoot().toPath().resolve("wildfly-dev/build-snapshot.properties");
+
+        final BuildSnapshot snapshot = BuildSnapshot.load(file);
+        final String inputs = BuildSnapshot.hashInputs("local", List.of(sources));
+        Assert.assertFalse(snapshot.isBuildUpToDate(inputs, deployment));
+        snapshot.recordBuild(snapshot.generation(), inputs, deployment);
+        Assert.assertTrue(BuildSnapshot.load(file).isBuildUpToDate(inputs, deployment));
+
+        // A changed configuration, a changed source or a modified deployment require a build
+        Assert.assertNotEquals(inputs, BuildSnapshot.hashInputs("remote", List.of(sources)));
+        Files.setLastModifiedTime(source, FileTime.fromMillis(System.currentTimeMillis() + 5000L));
+        Assert.assertNotEquals(inputs, BuildSnapshot.hashInputs("local", List.of(sources)));
+        Files.writeString(deployment.resolve("style.css"), "body {}");
+        Assert.assertFalse(BuildSnapshot.load(file).isBuildUpToDate(inputs, deployment));
+        snapshot.recordBuild(snapshot.generation(), inputs, deployment);
+
+        // A build is not recorded if it was invalidated while the inputs were hashed
+        final long generation = snapshot.generation();
+        snapshot.invalidateBuild();
+        Assert.assertFalse(BuildSnapshot.load(file).isBuildUpToDate(inputs, deployment));
+        snapshot.recordBuild(generation, inputs, deployment);
+        Assert.assertFalse(BuildSnapshot.load(file).isBuildUpToDate(inputs, deployment));
+    }
+
+    @Test
+    public void testProvisioning() throws Exception {
+        final Path server = folder.newFolder("server", "standalone").toPath().getParent();
+        final Path file = folder.getRoot().toPath().resolve("build-snapshot.properties");
+        final BuildSnapshot snapshot = BuildSnapshot.load(file);
+        Assert.assertNull(snapshot.serverHome());
+
+        snapshot.recordProvisioning("key", server, "fingerprint");
+        final BuildSnapshot loaded = BuildSnapshot.load(file);
+        Assert.assertEquals(server.toAbsolutePath(), loaded.serverHome());
+        Assert.assertEquals("key", loaded.provisioningKey());
+        Assert.assertEquals("fingerprint", loaded.glowFingerprint());
+
+        loaded.recordGlowFingerprint("changed");
+        Assert.assertEquals("changed", BuildSnapshot.load(file).glowFingerprint());
+        loaded.invalidateProvisioning();
+        Assert.assertNull(BuildSnapshot.load(file).serverHome());
+        Assert.assertNull(BuildSnapshot.load(file).provisioningKey());
+    }
+}
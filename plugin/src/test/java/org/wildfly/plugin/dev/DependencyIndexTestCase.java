@@ -0,0 +1,101 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class DependencyIndexTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        final Path sources = folder.newFolder("src").toPath();
+        final Path classes = folder.newFolder("classes").toPath();
+        final Path indexFile = folder.getRoot().toPath().resolve("dependency-index.bin");
+
+        // A single hub class referenced by every other class, each class also references the previous one
+        final List<Path> files = new ArrayList<>();
+        final Path hub = writeSource(sources, "Hub", "public class Hub { public static int value() { return 1; } }");
+        files.add(hub);
+        for (int i = 0; i < 20; i++) {
+            final String previous = i == 0 ? "Hub" : "Type" + (i - 1);
+            files.add(writeSource(sources, "Type" + i, String.format(
+                    "public class Type%d { %s previous; int value() { return Hub.value(); } }", i, previous)));
+        }
+        compile(sources, classes, files);
+
+        final DependencyIndex index = DependencyIndex.build(classes, List.of(sources));
+        Assert.assertEquals(21, index.size());
+        index.store(indexFile);
+
+        final DependencyIndex loaded = DependencyIndex.load(indexFile, classes, List.of(sources));
+        Assert.assertEquals(index.size(), loaded.size());
+        Assert.assertEquals(0, loaded.sync());
+        Assert.assertEquals(Set.of("org/example/Type3"), loaded.classesOf(sources.resolve("org/example/Type3.java")));
+
+        // Nothing references the last type, every other type references the hub
+        Assert.assertTrue(loaded.dependentSources(Set.of(files.get(files.size() - 1))).isEmpty());
+        Assert.assertEquals(Set.copyOf(files.subList(1, files.size())), loaded.dependentSources(Set.of(hub)));
+        Assert.assertEquals(Set.of(files.get(5)), loaded.dependentSources(Set.of(files.get(4))));
+
+        // An index of another output directory is not used
+        final Path otherClasses = folder.newFolder("other").toPath();
+        Assert.assertEquals(0, DependencyIndex.load(indexFile, otherClasses, List.of(sources)).size());
+    }
+
+    @Test
+    public void testSubtypes() throws Exception {
+        final Path sources = folder.newFolder("src").toPath();
+        final Path classes = folder.newFolder("classes").toPath();
+        final Path a = writeSource(sources, "A", "public class A { public void foo(int value) { } }");
+        final Path b = writeSource(sources, "B", "public class B extends A { }");
+        final Path c = writeSource(sources, "C", "public class C extends B implements I { }");
+        final Path i = writeSource(sources, "I", "public interface I { }");
+        // Only references C, which inherits foo from A
+        final Path d = writeSource(sources, "D", "public class D { void call(C c) { c.foo(1); } }");
+        final Path e = writeSource(sources, "E", "public class E { }");
+        compile(sources, classes, List.of(a, b, c, i, d, e));
+
+        final DependencyIndex index = DependencyIndex.build(classes, List.of(sources));
+        Assert.assertEquals(Set.of(b, c, d), index.dependentSources(Set.of(a)));
+        Assert.assertEquals(Set.of(c, d), index.dependentSources(Set.of(i)));
+        Assert.assertEquals(Set.of(d), index.dependentSources(Set.of(c)));
+        Assert.assertTrue(index.dependentSources(Set.of(e)).isEmpty());
+    }
+
+    private void compile(final Path sources, final Path classes, final List<Path> files) throws Exception {
+        try (IncrementalCompiler compiler = IncrementalCompiler.create(new IncrementalCompiler.CompilerConfiguration()
+                .addSourceRoot(sources)
+                .setOutputDirectory(classes)
+                .setEncoding(StandardCharsets.UTF_8)
+                .addOption("-g"), new SystemStreamLog())) {
+            Assert.assertNotNull("A system Java compiler is required", compiler);
+            compiler.compile(files, null);
+        }
+    }
+
+    private static Path writeSource(final Path sources, final String name, final String body) throws Exception {
+        final Path dir = Files.createDirectories(sources.resolve("org/example"));
+        final Path file = dir.resolve(name + ".java");
+        Files.writeString(file, "package org.example; " + body);
+        return file;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wildfly.plugin.dev.DevLoopMetrics.Phase;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ *
+ */
+public class DevLoopMetricsTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPercentile() {
+        final long[] sorted = { 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L };
+        Assert.assertEquals(5L, DevLoopMetrics.percentile(sorted, 50));
+        Assert.assertEquals(10L, DevLoopMetrics.percentile(sorted, 95));
+        Assert.assertEquals(7L, DevLoopMetrics.percentile(new long[] { 7L }, 95));
+    }
+
+    @Test
+    public void testTimings() {
+        final DevLoopMetrics metrics = new DevLoopMetrics();
+        Assert.assertNull(metrics.describePercentiles());
+
+        final DevLoopMetrics.Timings timings = new DevLoopMetrics.Timings();
+        timings.add(Phase.COMPILE, TimeUnit.MILLISECONDS.toNanos(120L));
+        final DevLoopMetrics.Timings merged = new DevLoopMetrics.Timings();
+        merged.add(Phase.COMPILE, TimeUnit.MILLISECONDS.toNanos(30L));
+        merged.add(Phase.QUEUE, TimeUnit.MILLISECONDS.toNanos(500L));
+        timings.addAll(merged);
+        Assert.assertEquals("compile 150 ms", timings.describe());
+
+        metrics.record(timings, 2);
+        Assert.assertEquals(1, metrics.count());
+        final String summary = metrics.describePercentiles();
+        Assert.assertTrue(summary, summary.contains("compile 150/150 ms"));
+        Assert.assertFalse(summary, summary.contains("redeploy"));
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        Assume.assumeTrue(DevLoopMetrics.isJfrAvailable());
+        final Path file = folder.getRoot().toPath().resolve("dev.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.wildfly.plugin.dev.Change");
+            recording.enable("org.wildfly.plugin.dev.Phase");
+            recording.start();
+            final DevLoopMetrics.Timings timings = new DevLoopMetrics.Timings();
+            timings.start(Phase.REDEPLOY).stop();
+            new DevLoopMetrics().record(timings, 1);
+            recording.stop();
+            recording.dump(file);
+        }
+        final List<String> events = RecordingFile.readAllEvents(file).stream()
+                .map((event) -> event.getEventType().getName())
+                .collect(Collectors.toList());
+        Assert.assertEquals(List.of("org.wildfly.plugin.dev.Change", "org.wildfly.plugin.dev.Phase"),
+                events.stream().sorted().collect(Collectors.toList()));
+        final RecordedEvent phase = RecordingFile.readAllEvents(file).stream()
+                .filter((event) -> event.getEventType().getName().equals("org.wildfly.plugin.dev.Phase"))
+                .findFirst()
+                .orElseThrow();
+        Assert.assertEquals("redeploy", phase.getString("phase"));
+    }
+}
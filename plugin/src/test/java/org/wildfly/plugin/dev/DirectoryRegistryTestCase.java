@@ -0,0 +1,98 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class DirectoryRegistryTestCase {
+
+    private static final WatchHandler HANDLER = (context, event, file) -> new WatchHandler.Result() {
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRegister() throws Exception {
+        final Path root = folder.newFolder("src").toPath();
+        final Path target = Files.createDirectories(root.resolve("target").resolve("classes"));
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                Files.createDirectories(root.resolve("p" + i).resolve("d" + j));
+            }
+        }
+        try (PollingWatchService watcher = new PollingWatchService(TimeUnit.HOURS.toMillis(1L))) {
+            final DirectoryRegistry registry = new DirectoryRegistry(watcher, root.resolve("target"));
+            // The root, 3 packages with 3 directories each, the excluded directory is not registered
+            Assert.assertEquals(13, registry.register(root, HANDLER).size());
+            Assert.assertEquals(13, registry.size());
+            Assert.assertTrue(registry.isRegistered(root.resolve("p1").resolve("d2")));
+            Assert.assertFalse(registry.isRegistered(target));
+
+            // Registering an already registered tree does not register anything
+            Assert.assertTrue(registry.register(root, HANDLER).isEmpty());
+
+            // Only the new directories are registered
+            final Path created = Files.createDirectories(root.resolve("p2").resolve("d0").resolve("new"));
+            Assert.assertEquals(List.of(created), registry.register(created, HANDLER));
+            Assert.assertTrue(registry.register(root, HANDLER).isEmpty());
+            Assert.assertEquals(14, registry.size());
+
+            // A removed directory is registered again
+            final Map.Entry<WatchKey, WatchContext> entry = registry.entries()
+                    .stream()
+                    .filter((e) -> e.getValue().directory().equals(created))
+                    .findFirst()
+                    .orElseThrow();
+            Assert.assertSame(entry.getValue(), registry.get(entry.getKey()));
+            registry.remove(entry.getKey());
+            Assert.assertFalse(registry.isRegistered(created));
+            Assert.assertNull(registry.get(entry.getKey()));
+            // The sub-trees of registered directories are not walked, so the directory itself must be registered
+            Assert.assertTrue(registry.register(root, HANDLER).isEmpty());
+            Assert.assertEquals(List.of(created), registry.register(created, HANDLER));
+        }
+    }
+
+    @Test
+    public void testPolling() throws Exception {
+        final Path root = folder.newFolder("src").toPath();
+        final Path dir = Files.createDirectories(root.resolve("org").resolve("example"));
+        try (PollingWatchService watcher = new PollingWatchService(TimeUnit.HOURS.toMillis(1L))) {
+            final DirectoryRegistry registry = new DirectoryRegistry(watcher, null);
+            Assert.assertEquals(3, registry.register(root, HANDLER).size());
+
+            // A file created in a registered directory is found by polling
+            final Path file = Files.writeString(dir.resolve("Created.java"), "class Created {}");
+            watcher.pollOnce();
+            final WatchKey key = watcher.poll();
+            Assert.assertNotNull(key);
+            Assert.assertEquals(dir, key.watchable());
+            Assert.assertEquals(dir, registry.get(key).directory());
+            final List<WatchEvent<?>> events = key.pollEvents();
+            Assert.assertEquals(1, events.size());
+            Assert.assertEquals(ENTRY_CREATE, events.get(0).kind());
+            Assert.assertEquals(file.getFileName(), events.get(0).context());
+            Assert.assertTrue(key.reset());
+            Assert.assertNull(watcher.poll());
+        }
+    }
+}
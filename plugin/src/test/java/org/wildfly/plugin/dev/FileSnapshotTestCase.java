@@ -0,0 +1,67 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class FileSnapshotTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReconcile() throws Exception {
+        final Path dir = folder.newFolder("src").toPath();
+        final Path modified = Files.writeString(dir.resolve("Modified.java"), "class Modified {}");
+        final Path deleted = Files.writeString(dir.resolve("Deleted.java"), "class Deleted {}");
+        final Path unchanged = Files.writeString(dir.resolve("Unchanged.java"), "class Unchanged {}");
+        final FileSnapshot snapshot = new FileSnapshot();
+        snapshot.addDirectory(dir, true);
+        Assert.assertEquals(3, snapshot.size());
+        Assert.assertTrue(snapshot.reconcile(dir).isEmpty());
+
+        // Changes the watcher missed
+        Files.writeString(modified, "class Modified { int value; }");
+        Files.setLastModifiedTime(modified, FileTime.fromMillis(System.currentTimeMillis() + 5000L));
+        Files.delete(deleted);
+        final Path created = Files.writeString(dir.resolve("Created.java"), "class Created {}");
+        final Path subDir = Files.createDirectory(dir.resolve("sub"));
+        Assert.assertEquals(Map.of(modified, ENTRY_MODIFY, deleted, ENTRY_DELETE, created, ENTRY_CREATE,
+                subDir, ENTRY_CREATE), toMap(snapshot.reconcile(dir)));
+        // Files of a directory which was registered late are reported as created
+        final Path file = Files.writeString(subDir.resolve("Late.java"), "class Late {}");
+        snapshot.addDirectory(subDir, false);
+        Assert.assertTrue(snapshot.reconcile(dir).isEmpty());
+        Assert.assertEquals(Map.of(file, ENTRY_CREATE), toMap(snapshot.reconcile(subDir)));
+
+        // Changes which were handled are not reported again
+        Files.writeString(unchanged, "class Unchanged { int value; }");
+        Files.setLastModifiedTime(unchanged, FileTime.fromMillis(System.currentTimeMillis() + 10000L));
+        snapshot.update(unchanged);
+        Assert.assertTrue(snapshot.reconcile(dir).isEmpty());
+        Assert.assertEquals(List.of(file), snapshot.removeDirectory(subDir));
+    }
+
+    private static Map<Path, Object> toMap(final List<FileSnapshot.Change> changes) {
+        return changes.stream().collect(Collectors.toMap(FileSnapshot.Change::file, FileSnapshot.Change::kind));
+    }
+}
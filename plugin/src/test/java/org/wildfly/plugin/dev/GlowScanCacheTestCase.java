@@ -0,0 +1,78 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class GlowScanCacheTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFingerprint() throws Exception {
+        final Path sources = folder.newFolder("src").toPath();
+        final Path deployment = folder.newFolder("deployment").toPath();
+        final Path classes = Files.createDirectories(deployment.resolve("WEB-INF/classes"));
+        final Path source = Files.createDirectories(sources.resolve("org/example")).resolve("Greeter.java");
+        final GlowScanCache cache = new GlowScanCache();
+
+        Files.writeString(source, "package org.example; public class Greeter { String greet() { return \"Hello\"; } }");
+        compile(sources, classes, source);
+        final String initial = cache.fingerprint(deployment);
+        Assert.assertFalse(cache.isCached(initial));
+        cache.scanned(initial, 1_000_000L);
+        Assert.assertTrue(cache.isCached(cache.fingerprint(deployment)));
+
+        // A change of a method body does not change the used classes
+        Files.writeString(source, "package org.example; public class Greeter { String greet() { return \"Hi\"; } }");
+        compile(sources, classes, source);
+        Assert.assertEquals(initial, cache.fingerprint(deployment));
+
+        // Static web resources are not relevant
+        Files.writeString(deployment.resolve("index.html"), "<html></html>");
+        Assert.assertEquals(initial, cache.fingerprint(deployment));
+
+        // A newly used class changes the fingerprint
+        Files.writeString(source, "package org.example; @Deprecated public class Greeter { "
+                + "String greet() { return java.util.logging.Logger.getGlobal().getName(); } }");
+        compile(sources, classes, source);
+        final String annotated = cache.fingerprint(deployment);
+        Assert.assertNotEquals(initial, annotated);
+
+        // Descriptors and libraries change the fingerprint
+        Files.writeString(Files.createDirectories(deployment.resolve("WEB-INF")).resolve("beans.xml"), "<beans/>");
+        final String descriptor = cache.fingerprint(deployment);
+        Assert.assertNotEquals(annotated, descriptor);
+        Files.write(Files.createDirectories(deployment.resolve("WEB-INF/lib")).resolve("lib.jar"), new byte[] { 1 });
+        Assert.assertNotEquals(descriptor, cache.fingerprint(deployment));
+
+        Assert.assertEquals(1, cache.hits());
+        Assert.assertEquals(1, cache.misses());
+        Assert.assertEquals(1L, cache.savedMillis());
+    }
+
+    private static void compile(final Path sources, final Path classes, final Path source) throws Exception {
+        try (IncrementalCompiler compiler = IncrementalCompiler.create(new IncrementalCompiler.CompilerConfiguration()
+                .addSourceRoot(sources)
+                .setOutputDirectory(classes)
+                .setEncoding(StandardCharsets.UTF_8), new SystemStreamLog())) {
+            Assert.assertNotNull("A system Java compiler is required", compiler);
+            Assert.assertFalse(compiler.compile(List.of(source), null).isEmpty());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchService;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class IgnoreMatcherTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPatterns() throws Exception {
+        final Path root = folder.getRoot().toPath();
+        Files.createDirectories(root.resolve(".git/info"));
+        Files.writeString(root.resolve(".git/info/exclude"), "*.swp\n");
+        Files.writeString(root.resolve(".gitignore"), String.join("\n", "# Build output", "target/", "*.log",
+                "!important.log", "/generated", "**/cache/**", "doc/*.tmp", ""));
+        final Path project = Files.createDirectories(root.resolve("app"));
+        Files.writeString(project.resolve(".gitignore"), "node_modules/\n*.bak\n");
+        final IgnoreMatcher matcher = new IgnoreMatcher(List.of("Test.*\\.java", ".*\\.orig"), true);
+        matcher.addRoot(project);
+        Assert.assertEquals(9, matcher.ruleCount());
+
+        // Names
+        Assert.assertTrue(matcher.isIgnored(project.resolve(".hidden")));
+        Assert.assertTrue(matcher.isIgnored(project.resolve("index.html~")));
+        Assert.assertTrue(matcher.isIgnored(project.resolve("src/TestGreeter.java")));
+        Assert.assertTrue(matcher.isIgnored(project.resolve("web/index.orig")));
+        Assert.assertFalse(matcher.isIgnored(project.resolve("src/Greeter.java")));
+
+        // .gitignore rules
+        Assert.assertTrue(matcher.isIgnored(project.resolve("src/server.log")));
+        Assert.assertFalse(matcher.isIgnored(project.resolve("src/important.log")));
+        Assert.assertTrue(matcher.isIgnored(project.resolve("web/index.swp")));
+        Assert.assertTrue(matcher.isIgnored(project.resolve("web/index.bak")));
+        Assert.assertTrue(matcher.isIgnored(root.resolve("generated")));
+        Assert.assertFalse(matcher.isIgnored(project.resolve("generated")));
+        Assert.assertTrue(matcher.isIgnored(root.resolve("doc/notes.tmp")));
+        Assert.assertFalse(matcher.isIgnored(root.resolve("doc/sub/notes.tmp")));
+        Assert.assertTrue(matcher.isIgnored(project.resolve("web/cache/data.json")));
+
+        // Directory only rules
+        Assert.assertTrue(matcher.isIgnoredDirectory(project.resolve("target")));
+        Assert.assertFalse(matcher.isIgnored(project.resolve("target")));
+        Assert.assertTrue(matcher.isIgnoredDirectory(project.resolve("src/main/webapp/node_modules")));
+        Assert.assertFalse(matcher.isIgnoredDirectory(project.resolve("src/main/webapp")));
+    }
+
+    @Test
+    public void testIgnoredDirectoryContent() throws Exception {
+        final Path project = folder.newFolder("project").toPath();
+        Files.createDirectories(project.resolve(".git"));
+        Files.writeString(project.resolve(".gitignore"), String.join("\n", "dist/", "build", "!dist/keep.js",
+                "!build/keep.js", ""));
+        final IgnoreMatcher matcher = new IgnoreMatcher(List.of(), true);
+        matcher.addRoot(project);
+
+        // A directory only rule applies to the files in the directory
+        Assert.assertTrue(matcher.isIgnoredDirectory(project.resolve("web/dist")));
+        Assert.assertTrue(matcher.isIgnored(project.resolve("web/dist/app.js")));
+        Assert.assertTrue(matcher.isIgnored(project.resolve("web/dist/js/app.js")));
+        Assert.assertTrue(matcher.isIgnoredDirectory(project.resolve("web/dist/js")));
+        Assert.assertFalse(matcher.isIgnored(project.resolve("web/dist")));
+        Assert.assertFalse(matcher.isIgnored(project.resolve("web/distribution/app.js")));
+        // A file in an ignored directory cannot be included again
+        Assert.assertTrue(matcher.isIgnored(project.resolve("dist/keep.js")));
+        Assert.assertTrue(matcher.isIgnored(project.resolve("build/app.js")));
+        Assert.assertTrue(matcher.isIgnored(project.resolve("build/keep.js")));
+    }
+
+    @Test
+    public void testWatchedRoots() throws Exception {
+        final Path project = folder.newFolder("project").toPath();
+        Files.createDirectories(project.resolve(".git"));
+        Files.writeString(project.resolve(".gitignore"), "target/\n*.log\n");
+        final Path generated = project.resolve("target/generated-sources/annotations");
+        final IgnoreMatcher matcher = new IgnoreMatcher(List.of(), true);
+        matcher.addRoot(project);
+        matcher.addWatchedRoot(generated);
+
+        // A declared directory is watched even if it is in an ignored directory
+        Assert.assertFalse(matcher.isIgnoredDirectory(generated));
+        Assert.assertFalse(matcher.isIgnoredDirectory(generated.resolve("org/example")));
+        Assert.assertFalse(matcher.isIgnored(generated.resolve("org/example/Generated.java")));
+        // The rules still apply below the declared directory
+        Assert.assertTrue(matcher.isIgnored(generated.resolve("org/example/build.log")));
+        // Other directories are still ignored
+        Assert.assertTrue(matcher.isIgnoredDirectory(project.resolve("target/classes")));
+        Assert.assertTrue(matcher.isIgnored(project.resolve("target/classes/Greeter.class")));
+    }
+
+    @Test
+    public void testTopDirectory() throws Exception {
+        // Not in a Git repository
+        final Path top = folder.newFolder("multi-module").toPath();
+        Files.writeString(top.resolve(".gitignore"), "*.tmp\n");
+        final Path module = Files.createDirectories(top.resolve("app"));
+        Files.writeString(module.resolve(".gitignore"), "*.bak\n");
+
+        IgnoreMatcher matcher = new IgnoreMatcher(List.of(), true, top);
+        matcher.addRoot(module);
+        Assert.assertEquals(2, matcher.ruleCount());
+        Assert.assertTrue(matcher.isIgnored(module.resolve("src/notes.tmp")));
+        Assert.assertTrue(matcher.isIgnored(module.resolve("src/notes.bak")));
+
+        matcher = new IgnoreMatcher(List.of(), true);
+        matcher.addRoot(module);
+        Assert.assertEquals(1, matcher.ruleCount());
+        Assert.assertFalse(matcher.isIgnored(module.resolve("src/notes.tmp")));
+    }
+
+    @Test
+    public void testIgnoredDirectoriesAreNotWatched() throws Exception {
+        final Path project = folder.newFolder("project").toPath();
+        final Path webapp = Files.createDirectories(project.resolve("src/main/webapp"));
+        Files.createDirectories(webapp.resolve("node_modules/lib/dist"));
+        Files.createDirectories(webapp.resolve("js"));
+        Files.writeString(webapp.resolve(".gitignore"), "node_modules/\n");
+        final IgnoreMatcher matcher = new IgnoreMatcher(List.of(), true);
+        matcher.addRoot(project);
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            final DirectoryRegistry registry = new DirectoryRegistry(watcher, null, matcher);
+            final List<Path> registered = registry.register(webapp, (context, event, file) -> null);
+            Assert.assertEquals(List.of(webapp, webapp.resolve("js")), registered);
+            Assert.assertEquals(1, registry.ignored());
+        }
+    }
+}
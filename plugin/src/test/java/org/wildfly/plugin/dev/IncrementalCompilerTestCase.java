@@ -0,0 +1,189 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class IncrementalCompilerTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCompileChangedAndDependents() throws Exception {
+        final Path sources = folder.newFolder("src").toPath();
+        final Path classes = folder.newFolder("classes").toPath();
+        final Path deployment = folder.newFolder("deployment").toPath();
+        try (IncrementalCompiler compiler = createCompiler(sources, classes, null)) {
+            final Path a = writeSource(sources, "A", "public class A { public static String value() { return \"a\"; } }");
+            final Path b = writeSource(sources, "B", "public class B { public String get() { return A.value(); } }");
+            final Path c = writeSource(sources, "C", "public class C { }");
+
+            Assert.assertEquals(Set.of("org/example/A.class", "org/example/B.class", "org/example/C.class"),
+                    relativize(classes, compiler.compile(List.of(a, b, c), deployment)));
+            Assert.assertTrue(Files.exists(deployment.resolve("org/example/B.class")));
+
+            // Changing A requires B to be recompiled as well, but not C
+            Files.writeString(a, "package org.example; public class A { public static String value() { return \"b\"; } }");
+            final Set<Path> dirty = compiler.dirtySources(a);
+            Assert.assertEquals(Set.of(a, b), dirty);
+            Assert.assertEquals(Set.of("org/example/A.class", "org/example/B.class"),
+                    relativize(classes, compiler.compile(dirty, deployment)));
+
+            // Nothing references C
+            Assert.assertEquals(Set.of(c), compiler.dirtySources(c));
+        }
+    }
+
+    @Test
+    public void testInheritedMemberChanged() throws Exception {
+        final Path sources = folder.newFolder("src").toPath();
+        final Path classes = folder.newFolder("classes").toPath();
+        try (IncrementalCompiler compiler = createCompiler(sources, classes, null)) {
+            final Path a = writeSource(sources, "A", "public class A { public void foo(int value) { } }");
+            final Path b = writeSource(sources, "B", "public class B extends A { }");
+            // C only references B, the call is compiled to B.foo(I)V
+            final Path c = writeSource(sources, "C", "public class C { void call(B b) { b.foo(1); } }");
+            compiler.compile(List.of(a, b, c), null);
+
+            Files.writeString(a, "package org.example; public class A { public void bar(int value) { } }");
+            final Set<Path> dirty = compiler.dirtySources(a);
+            Assert.assertEquals(Set.of(a, b, c), dirty);
+            // The call of the renamed method must be reported rather than left in the stale class file
+            Assert.assertThrows(MojoExecutionException.class, () -> compiler.compile(dirty, null));
+        }
+    }
+
+    @Test
+    public void testIndexReloaded() throws Exception {
+        final Path sources = folder.newFolder("src").toPath();
+        final Path classes = folder.newFolder("classes").toPath();
+        final Path indexFile = folder.getRoot().toPath().resolve("wildfly-dev").resolve("dependency-index.bin");
+        final Path a = writeSource(sources, "A", "public class A { }");
+        final Path b = writeSource(sources, "B", "public class B extends A { }");
+        try (IncrementalCompiler compiler = createCompiler(sources, classes, indexFile)) {
+            compiler.compile(List.of(a, b), null);
+        }
+        Assert.assertTrue(Files.exists(indexFile));
+        try (IncrementalCompiler compiler = createCompiler(sources, classes, indexFile)) {
+            Assert.assertEquals(Set.of(a, b), compiler.dirtySources(a));
+        }
+    }
+
+    @Test
+    public void testRemoveOutputs() throws Exception {
+        final Path sources = folder.newFolder("src").toPath();
+        final Path classes = folder.newFolder("classes").toPath();
+        final Path deployment = folder.newFolder("deployment").toPath();
+        try (IncrementalCompiler compiler = createCompiler(sources, classes, null)) {
+            final Path a = writeSource(sources, "A", "public class A { static class Inner { } Runnable r = () -> { }; }");
+            final Path b = writeSource(sources, "B", "public class B { }");
+            compiler.compile(List.of(a, b), deployment);
+            Assert.assertTrue(Files.exists(deployment.resolve("org/example/A$Inner.class")));
+
+            Files.delete(a);
+            Assert.assertEquals(Set.of(a), compiler.indexedSources(a));
+            Assert.assertEquals(Set.of(a, b), compiler.indexedSources(sources.resolve("org")));
+            Assert.assertEquals(Set.of("org/example/A.class", "org/example/A$Inner.class"),
+                    relativize(classes, compiler.removeOutputs(Set.of(a), deployment)));
+            Assert.assertTrue(Files.notExists(deployment.resolve("org/example/A.class")));
+            Assert.assertTrue(Files.notExists(deployment.resolve("org/example/A$Inner.class")));
+            Assert.assertTrue(Files.exists(deployment.resolve("org/example/B.class")));
+            Assert.assertTrue(compiler.indexedSources(a).isEmpty());
+        }
+    }
+
+    @Test
+    public void testCompileFailure() throws Exception {
+        final Path sources = folder.newFolder("src").toPath();
+        final Path classes = folder.newFolder("classes").toPath();
+        try (IncrementalCompiler compiler = createCompiler(sources, classes, null)) {
+            final Path invalid = writeSource(sources, "Invalid", "public class Invalid { invalid }");
+            Assert.assertThrows(MojoExecutionException.class, () -> compiler.compile(Set.of(invalid), null));
+            // The failed source is compiled again on the next attempt
+            Assert.assertThrows(MojoExecutionException.class, () -> compiler.compile(Set.of(), null));
+        }
+    }
+
+    @Test
+    public void testConstantChanged() throws Exception {
+        final Path sources = folder.newFolder("src").toPath();
+        final Path classes = folder.newFolder("classes").toPath();
+        try (IncrementalCompiler compiler = createCompiler(sources, classes, null)) {
+            final Path a = writeSource(sources, "A", "public class A { public static final String VALUE = \"a\"; }");
+            final Path b = writeSource(sources, "B", "public class B { public String get() { return A.VALUE; } }");
+            final Path c = writeSource(sources, "C", "public class C { }");
+            compiler.compile(List.of(a, b, c), null);
+
+            // Changing a method does not change the constants
+            Files.writeString(a, "package org.example; public class A { public static final String VALUE = \"a\"; "
+                    + "void m() { } }");
+            Assert.assertEquals(Set.of("org/example/A.class"), relativize(classes, compiler.compile(Set.of(a), null)));
+            // Changing the value requires all sources to be compiled
+            Files.writeString(a, "package org.example; public class A { public static final String VALUE = \"b\"; }");
+            Assert.assertEquals(Set.of("org/example/A.class", "org/example/B.class", "org/example/C.class"),
+                    relativize(classes, compiler.compile(Set.of(a), null)));
+        }
+    }
+
+    @Test
+    public void testWithoutSourceFile() throws Exception {
+        final Path sources = folder.newFolder("src").toPath();
+        final Path classes = folder.newFolder("classes").toPath();
+        try (IncrementalCompiler compiler = createCompiler(sources, classes, null, "-g:none")) {
+            final Path a = writeSource(sources, "A", "public class A { }");
+            final Path b = writeSource(sources, "B", "public class B extends A { }");
+            Assert.assertTrue(compiler.isIncremental());
+            compiler.compile(List.of(a, b), null);
+            // The dependents of A cannot be determined
+            Assert.assertFalse(compiler.isIncremental());
+        }
+    }
+
+    private static IncrementalCompiler createCompiler(final Path sources, final Path classes, final Path indexFile)
+            throws Exception {
+        return createCompiler(sources, classes, indexFile, "-g");
+    }
+
+    private static IncrementalCompiler createCompiler(final Path sources, final Path classes, final Path indexFile,
+            final String option) throws Exception {
+        final IncrementalCompiler compiler = IncrementalCompiler.create(new IncrementalCompiler.CompilerConfiguration()
+                .addSourceRoot(sources)
+                .setOutputDirectory(classes)
+                .setIndexFile(indexFile)
+                .setEncoding(StandardCharsets.UTF_8)
+                .addOption(option), new SystemStreamLog());
+        Assert.assertNotNull("A system Java compiler is required", compiler);
+        return compiler;
+    }
+
+    private static Path writeSource(final Path sources, final String name, final String body) throws Exception {
+        final Path dir = Files.createDirectories(sources.resolve("org/example"));
+        final Path file = dir.resolve(name + ".java");
+        Files.writeString(file, "package org.example; " + body);
+        return file;
+    }
+
+    private static Set<String> relativize(final Path dir, final List<Path> files) {
+        return files.stream()
+                .map((file) -> dir.relativize(file).toString().replace('\\', '/'))
+                .collect(Collectors.toSet());
+    }
+}
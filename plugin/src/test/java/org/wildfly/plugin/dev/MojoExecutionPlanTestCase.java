@@ -0,0 +1,92 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.BuildPluginManager;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.configuration.xml.XmlPlexusConfiguration;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class MojoExecutionPlanTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPlan() throws Exception {
+        final MavenProject app = createProject("app");
+        final MavenProject module = createProject("module");
+        @SuppressWarnings("deprecation")
+        final MavenSession session = new MavenSession(null, null, new DefaultMavenExecutionRequest(),
+                new DefaultMavenExecutionResult());
+        session.setCurrentProject(app);
+        final List<MavenProject> executedFor = new ArrayList<>();
+        final List<MojoExecution> executions = new ArrayList<>();
+        final BuildPluginManager pluginManager = (BuildPluginManager) Proxy.newProxyInstance(
+                MojoExecutionPlanTestCase.class.getClassLoader(), new Class<?>[] { BuildPluginManager.class },
+                (proxy, method, args) -> {
+                    if ("executeMojo".equals(method.getName())) {
+                        executedFor.add(((MavenSession) args[0]).getCurrentProject());
+                        executions.add((MojoExecution) args[1]);
+                    }
+                    return null;
+                });
+
+        final MojoDescriptor descriptor = new MojoDescriptor();
+        descriptor.setGoal("compile");
+        final PluginDescriptor pluginDescriptor = new PluginDescriptor();
+        pluginDescriptor.setArtifactId("maven-compiler-plugin");
+        descriptor.setPluginDescriptor(pluginDescriptor);
+        final XmlPlexusConfiguration defaults = new XmlPlexusConfiguration("configuration");
+        defaults.addChild("encoding", "${project.build.sourceEncoding}");
+        defaults.addChild("debug", "true");
+        descriptor.setMojoConfiguration(defaults);
+        final Xpp3Dom config = new Xpp3Dom("configuration");
+        final Xpp3Dom debug = new Xpp3Dom("debug");
+        debug.setValue("false");
+        config.addChild(debug);
+
+        final MojoExecutionPlan plan = MojoExecutionPlan.create(pluginManager, session, module, descriptor, config,
+                System.nanoTime());
+        plan.execute();
+        plan.execute();
+        // The mojo is executed for the module, the session of the build is not changed
+        Assert.assertEquals(List.of(module, module), executedFor);
+        Assert.assertSame(app, session.getCurrentProject());
+        // The configuration is merged with the defaults of the mojo once
+        Assert.assertSame(executions.get(0), executions.get(1));
+        final Xpp3Dom merged = executions.get(0).getConfiguration();
+        Assert.assertEquals("false", merged.getChild("debug").getValue());
+        Assert.assertEquals("${project.build.sourceEncoding}", merged.getChild("encoding").getValue());
+        Assert.assertTrue(plan.describeTimings().startsWith("maven-compiler-plugin:compile ran in"));
+    }
+
+    private MavenProject createProject(final String artifactId) throws Exception {
+        final MavenProject project = new MavenProject();
+        project.setArtifactId(artifactId);
+        final Path pom = Files.writeString(folder.newFolder(artifactId).toPath().resolve("pom.xml"), "<project/>");
+        project.setFile(pom.toFile());
+        return project;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class ProvisionedServerCacheTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws Exception {
+        final Path cacheDir = folder.getRoot().toPath().resolve("servers");
+        final Path initial = folder.newFolder("server").toPath();
+        final ProvisionedServerCache cache = new ProvisionedServerCache(cacheDir, 2);
+        final String initialKey = key("<layers>cdi</layers>");
+        cache.register(initialKey, initial);
+        Assert.assertEquals(initial, cache.get(initialKey));
+
+        final String jaxrs = key("<layers>jaxrs</layers>");
+        Assert.assertNull(cache.get(jaxrs));
+        final Path jaxrsServer = cache.prepare(jaxrs, initial);
+        // An incomplete provisioning is not used
+        Assert.assertNull(cache.get(jaxrs));
+        cache.provisioned(jaxrs);
+        Assert.assertEquals(jaxrsServer, cache.get(jaxrs));
+        age(jaxrsServer, 30_000L);
+
+        final String jpa = key("<layers>jpa</layers>");
+        final Path jpaServer = cache.prepare(jpa, jaxrsServer);
+        cache.provisioned(jpa);
+        age(jpaServer, 20_000L);
+        Assert.assertEquals(List.of(jpaServer, jaxrsServer), cache.entries());
+
+        // Switching back to a known layer set uses the cached server
+        Assert.assertEquals(jaxrsServer, cache.get(jaxrs));
+        Assert.assertEquals(List.of(jaxrsServer, jpaServer), cache.entries());
+
+        // The least recently used server is evicted, the active server is always kept
+        final String ejb = key("<layers>ejb</layers>");
+        final Path ejbServer = cache.prepare(ejb, jaxrsServer);
+        cache.provisioned(ejb);
+        Assert.assertTrue(Files.notExists(jpaServer));
+        Assert.assertEquals(jaxrsServer, cache.get(jaxrs));
+        Assert.assertEquals(ejbServer, cache.get(ejb));
+        Assert.assertNull(cache.get(jpa));
+        // The registered server is never evicted
+        Assert.assertEquals(initial, cache.get(initialKey));
+    }
+
+    private static String key(final String config) {
+        return ProvisionedServerCache.key(config.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void age(final Path server, final long millis) throws Exception {
+        Files.setLastModifiedTime(server.resolve(".provisioned"),
+                FileTime.fromMillis(System.currentTimeMillis() - millis));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.project.MavenProject;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class ReactorModuleTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUpdateLibrary() throws Exception {
+        final Path classes = folder.newFolder("module", "target", "classes").toPath();
+        final Path libDir = folder.newFolder("app", "WEB-INF", "lib").toPath();
+        final Path library = libDir.resolve("module-1.0.jar");
+        final ReactorModule module = new ReactorModule(createProject(classes), null, "module-1.0.jar");
+
+        // The deployment does not contain the library
+        Assert.assertFalse(module.updateLibrary(libDir));
+
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Dependencies", "org.example.api");
+        Files.createDirectories(classes.resolve("META-INF"));
+        Files.writeString(classes.resolve("META-INF/MANIFEST.MF"), "Manifest-Version: 1.0\n");
+        ReactorModule.writeJar(classes, library, manifest);
+
+        Files.write(Files.createDirectories(classes.resolve("org/example")).resolve("Greeter.class"),
+                new byte[] { 1, 2, 3 });
+        Files.writeString(classes.resolve("greeting.properties"), "greeting=Hello");
+        Assert.assertTrue(module.updateLibrary(libDir));
+        try (JarFile jar = new JarFile(library.toFile())) {
+            // The manifest of the packaged library is kept
+            Assert.assertEquals("org.example.api", jar.getManifest().getMainAttributes().getValue("Dependencies"));
+            final List<String> names = Collections.list(jar.entries())
+                    .stream()
+                    .map(ZipEntry::getName)
+                    .collect(Collectors.toList());
+            Assert.assertEquals(List.of(JarFile.MANIFEST_NAME, "greeting.properties", "org/", "org/example/",
+                    "org/example/Greeter.class"), names);
+        }
+        // The temporary library was moved
+        try (Stream<Path> files = Files.list(libDir)) {
+            Assert.assertEquals(List.of(library), files.collect(Collectors.toList()));
+        }
+
+        // An exploded library is updated in place
+        Files.delete(library);
+        final Path exploded = Files.createDirectories(library);
+        Files.createDirectories(exploded.resolve("META-INF"));
+        Files.writeString(exploded.resolve(JarFile.MANIFEST_NAME), "Manifest-Version: 1.0\n");
+        Assert.assertTrue(module.updateLibrary(libDir));
+        Assert.assertTrue(Files.exists(exploded.resolve("org/example/Greeter.class")));
+
+        // Deleted classes are deleted from the exploded library, the manifest is kept
+        Files.delete(classes.resolve("org/example/Greeter.class"));
+        Files.delete(classes.resolve("org/example"));
+        Files.delete(classes.resolve("META-INF/MANIFEST.MF"));
+        Assert.assertTrue(module.updateLibrary(libDir));
+        Assert.assertTrue(Files.notExists(exploded.resolve("org/example")));
+        Assert.assertTrue(Files.exists(exploded.resolve("org")));
+        Assert.assertTrue(Files.exists(exploded.resolve("greeting.properties")));
+        Assert.assertTrue(Files.exists(exploded.resolve(JarFile.MANIFEST_NAME)));
+    }
+
+    @Test
+    public void testStale() throws Exception {
+        final Path classes = folder.newFolder("module", "target", "classes").toPath();
+        final Path resources = folder.newFolder("module", "src", "main", "resources").toPath();
+        final Path libDir = folder.newFolder("app", "WEB-INF", "lib").toPath();
+        final ReactorModule module = new ReactorModule(createProject(classes), null, "module-1.0.jar");
+        Assert.assertNull(module.takeChanges());
+        Assert.assertFalse(module.isStale());
+
+        final FileSnapshot snapshot = new FileSnapshot();
+        snapshot.addDirectory(resources, true);
+        Files.writeString(resources.resolve("greeting.properties"), "greeting=Hello");
+        final WatchContext context = WatchContext.of(resources, module);
+        for (FileSnapshot.Change change : snapshot.reconcile(resources)) {
+            Assert.assertTrue(context.handle(change.toEvent(), change.file()).requiresRedeploy());
+        }
+        final ChangeBatch changes = module.takeChanges();
+        Assert.assertNotNull(changes);
+        Assert.assertTrue(changes.requiresCopyResources());
+        // The library stays stale until it is updated, even if no further change is taken
+        Assert.assertTrue(module.isStale());
+        Assert.assertNull(module.takeChanges());
+        Assert.assertTrue(module.isStale());
+
+        ReactorModule.writeJar(classes, libDir.resolve("module-1.0.jar"), null);
+        Assert.assertTrue(module.updateLibrary(libDir));
+        Assert.assertFalse(module.isStale());
+        Assert.assertTrue(module.isModified());
+    }
+
+    private static MavenProject createProject(final Path classes) {
+        final MavenProject project = new MavenProject();
+        project.setArtifactId("module");
+        final Build build = new Build();
+        build.setOutputDirectory(classes.toString());
+        project.setBuild(build);
+        return project;
+    }
+}
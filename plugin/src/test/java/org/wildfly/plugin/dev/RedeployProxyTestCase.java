@@ -0,0 +1,109 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ *
+ */
+public class RedeployProxyTestCase {
+
+    private final AtomicReference<String> content = new AtomicReference<>("v1");
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    private HttpServer server;
+    private RedeployProxy proxy;
+
+    @Before
+    public void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/app", (exchange) -> {
+            final byte[] body = (content.get() + " " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI().getQuery()).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/redirect", (exchange) -> {
+            exchange.getResponseHeaders().add("Location",
+                    "http://localhost:" + server.getAddress().getPort() + "/app");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.start();
+        final URI target = URI.create("http://localhost:" + server.getAddress().getPort());
+        proxy = RedeployProxy.start("localhost", 0, target, TimeUnit.SECONDS.toMillis(10), new SystemStreamLog());
+    }
+
+    @After
+    public void stop() {
+        proxy.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testForward() throws Exception {
+        final HttpResponse<String> response = client.send(request("/app?name=test")
+                .POST(HttpRequest.BodyPublishers.ofString("body"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assert.assertEquals(200, response.statusCode());
+        Assert.assertEquals("v1 POST name=test", response.body());
+
+        final HttpResponse<Void> redirect = client.send(request("/redirect").build(),
+                HttpResponse.BodyHandlers.discarding());
+        Assert.assertEquals(302, redirect.statusCode());
+        Assert.assertEquals("http://localhost:" + proxy.address().getPort() + "/app",
+                redirect.headers().firstValue("Location").orElse(null));
+    }
+
+    @Test
+    public void testHeldUntilDeployed() throws Exception {
+        proxy.changed();
+        Assert.assertTrue(proxy.hasPendingChanges());
+        final CompletableFuture<Void> released = CompletableFuture.runAsync(() -> {
+            try {
+                proxy.awaitRequest();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        // No request arrived, the changes are not built
+        Assert.assertThrows(TimeoutException.class, () -> released.get(200, TimeUnit.MILLISECONDS));
+
+        final CompletableFuture<HttpResponse<String>> response = client.sendAsync(request("/app").build(),
+                HttpResponse.BodyHandlers.ofString());
+        released.get(10, TimeUnit.SECONDS);
+        Assert.assertFalse(response.isDone());
+        content.set("v2");
+        proxy.deployed(proxy.changes());
+        Assert.assertEquals("v2 GET null", response.get(10, TimeUnit.SECONDS).body());
+        Assert.assertFalse(proxy.hasPendingChanges());
+    }
+
+    private HttpRequest.Builder request(final String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + proxy.address().getPort() + path));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.helpers.Operations;
+import org.jboss.dmr.ModelNode;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class RemoteContentSyncTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDelta() throws Exception {
+        final Path content = folder.newFolder("app").toPath();
+        final Path index = Files.writeString(content.resolve("index.html"), "<html></html>");
+        final Path classFile = Files.createDirectories(content.resolve("WEB-INF/classes"))
+                .resolve("Greeter.class");
+        Files.write(classFile, new byte[] { 1, 2, 3 });
+        final Path removed = Files.writeString(content.resolve("old.css"), "body {}");
+        final List<ModelNode> operations = new ArrayList<>();
+        final RemoteContentSync sync = new RemoteContentSync(createClient(operations), "app.war", content);
+
+        final RemoteContentSync.Delta initial = sync.deploy();
+        Assert.assertFalse(initial.isEmpty());
+        Assert.assertEquals(List.of("read-resource", "add", "add-content", "deploy"), names(operations));
+        Assert.assertEquals(3, operations.get(2).get("content").asList().size());
+
+        // Rewriting a file with the same content does not upload it again
+        operations.clear();
+        Files.writeString(index, "<html></html>");
+        Files.setLastModifiedTime(index, FileTime.fromMillis(System.currentTimeMillis() + 5000L));
+        Assert.assertTrue(sync.update().isEmpty());
+        Assert.assertTrue(operations.isEmpty());
+
+        // Only the changed and removed files are sent
+        Files.write(classFile, new byte[] { 1, 2, 3, 4 });
+        Files.delete(removed);
+        Assert.assertFalse(sync.update().isEmpty());
+        Assert.assertEquals(List.of("remove-content", "add-content", "redeploy"), names(operations));
+        Assert.assertEquals("old.css", operations.get(0).get("paths").get(0).asString());
+        final List<ModelNode> uploaded = operations.get(1).get("content").asList();
+        Assert.assertEquals(1, uploaded.size());
+        Assert.assertEquals("WEB-INF/classes/Greeter.class", uploaded.get(0).get("target-path").asString());
+    }
+
+    private static List<String> names(final List<ModelNode> operations) {
+        return operations.stream().map(Operations::getOperationName).collect(Collectors.toList());
+    }
+
+    private static ModelControllerClient createClient(final List<ModelNode> operations) {
+        return (ModelControllerClient) Proxy.newProxyInstance(RemoteContentSyncTestCase.class.getClassLoader(),
+                new Class<?>[] { ModelControllerClient.class }, (proxy, method, args) -> {
+                    if ("execute".equals(method.getName())) {
+                        final ModelNode op = args[0] instanceof Operation ? ((Operation) args[0]).getOperation()
+                                : (ModelNode) args[0];
+                        operations.add(op.clone());
+                        // The deployment does not exist yet
+                        final ModelNode result = new ModelNode();
+                        if ("read-resource".equals(Operations.getOperationName(op))) {
+                            result.get("outcome").set("failed");
+                            result.get("failure-description").set("not found");
+                        } else {
+                            result.get("outcome").set("success");
+                        }
+                        return result;
+                    }
+                    return null;
+                });
+    }
+}
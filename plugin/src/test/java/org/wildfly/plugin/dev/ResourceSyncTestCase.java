@@ -0,0 +1,69 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.maven.model.Resource;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class ResourceSyncTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSync() throws Exception {
+        final Path resources = folder.newFolder("resources").toPath();
+        final Path classes = folder.newFolder("classes").toPath();
+        final Path deploymentClasses = folder.newFolder("deployment.war", "WEB-INF", "classes").toPath();
+
+        // The properties files are filtered, all other resources are copied as is
+        final Resource filtered = new Resource();
+        filtered.setDirectory(resources.toString());
+        filtered.setFiltering(true);
+        filtered.addInclude("**/*.properties");
+        final Resource copied = new Resource();
+        copied.setDirectory(resources.toString());
+        copied.addExclude("**/*.properties");
+
+        final ResourceSync sync = new ResourceSync(List.of(filtered, copied), classes, deploymentClasses, List.of("xml"));
+        Assert.assertTrue(sync.updatesDeployment());
+
+        // Filtered resources require the maven-resources-plugin
+        final Path properties = resources.resolve("app.properties");
+        Files.writeString(properties, "version=${project.version}");
+        Assert.assertEquals(ResourceSync.Outcome.UNSUPPORTED, sync.sync(properties));
+        Assert.assertTrue(Files.notExists(classes.resolve("app.properties")));
+
+        final Path xml = Files.createDirectories(resources.resolve("META-INF")).resolve("beans.xml");
+        Files.writeString(xml, "<beans>${project.version}</beans>");
+        Assert.assertEquals(ResourceSync.Outcome.SYNCED, sync.sync(xml));
+        Assert.assertEquals("<beans>${project.version}</beans>", Files.readString(classes.resolve("META-INF/beans.xml")));
+        Assert.assertEquals("<beans>${project.version}</beans>",
+                Files.readString(deploymentClasses.resolve("META-INF/beans.xml")));
+
+        // Files with a non-filtered extension are copied even if the resource is filtered
+        final Resource filteredXml = new Resource();
+        filteredXml.setDirectory(resources.toString());
+        filteredXml.setFiltering(true);
+        final ResourceSync nonFiltered = new ResourceSync(List.of(filteredXml), classes, null, List.of("xml"));
+        Assert.assertEquals(ResourceSync.Outcome.SYNCED, nonFiltered.sync(xml));
+        Assert.assertEquals(ResourceSync.Outcome.UNSUPPORTED, nonFiltered.sync(properties));
+
+        Files.delete(xml);
+        Assert.assertEquals(ResourceSync.Outcome.SYNCED, sync.sync(xml));
+        Assert.assertTrue(Files.notExists(classes.resolve("META-INF/beans.xml")));
+        Assert.assertTrue(Files.notExists(deploymentClasses.resolve("META-INF/beans.xml")));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class WebAppSyncTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSync() throws Exception {
+        final Path source = folder.newFolder("webapp").toPath();
+        final Path target = folder.newFolder("deployment.war").toPath();
+        final WebAppSync sync = new WebAppSync(source, target, Set.of(Path.of("WEB-INF", "web.xml")));
+
+        final Path css = Files.createDirectories(source.resolve("css")).resolve("style.css");
+        Files.writeString(css, "body { color: red; }");
+        Assert.assertTrue(sync.sync(css));
+        Assert.assertEquals("body { color: red; }", Files.readString(target.resolve("css/style.css")));
+
+        // The content did not change
+        Files.writeString(css, "body { color: red; }");
+        Assert.assertFalse(sync.sync(css));
+
+        Files.writeString(css, "body { color: blue; }");
+        Assert.assertTrue(sync.sync(css));
+        Assert.assertEquals("body { color: blue; }", Files.readString(target.resolve("css/style.css")));
+
+        // Renaming the directory results in a delete of the old and a create of the new directory
+        final Path styles = source.resolve("styles");
+        Files.move(source.resolve("css"), styles);
+        Assert.assertTrue(sync.sync(source.resolve("css")));
+        Assert.assertTrue(sync.sync(styles));
+        Assert.assertTrue(Files.notExists(target.resolve("css")));
+        Assert.assertEquals("body { color: blue; }", Files.readString(target.resolve("styles/style.css")));
+    }
+
+    @Test
+    public void testSupports() throws Exception {
+        final Path source = folder.newFolder("webapp").toPath();
+        final Path target = folder.getRoot().toPath().resolve("deployment.war");
+        final WebAppSync sync = new WebAppSync(source, target, Set.of(Path.of("WEB-INF", "web.xml")));
+
+        // The deployment is not yet exploded
+        Assert.assertFalse(sync.supports(source.resolve("index.html")));
+        Files.createDirectories(target);
+        Assert.assertTrue(sync.supports(source.resolve("index.html")));
+        Assert.assertFalse(sync.supports(source.resolve("WEB-INF/web.xml")));
+    }
+}
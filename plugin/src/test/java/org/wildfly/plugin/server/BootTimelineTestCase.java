@@ -0,0 +1,96 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.server;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.jboss.dmr.ModelNode;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class BootTimelineTestCase {
+
+    private static final List<String> BOOT = List.of(
+            "23:59:59,100 INFO  [org.jboss.modules] (main) JBoss Modules version 2.1.0.Final",
+            "23:59:59,500 INFO  [org.jboss.as] (MSC service thread 1-2) WFLYSRV0049: WildFly 32.0.0.Final (WildFly Core 24.0.0.Final) starting",
+            "23:59:59,900 INFO  [org.jboss.as.server.deployment.scanner] (MSC service thread 1-1) WFLYDS0013: Started FileSystemDeploymentService for directory /wildfly/standalone/deployments",
+            "\u001B[0m23:59:59,950 INFO  [org.wildfly.extension.undertow] (ServerService Thread Pool -- 11) WFLYUT0014: Activating Undertow Subsystem\u001B[0m",
+            "00:00:00,100 INFO  [org.jboss.as.server.deployment] (MSC service thread 1-3) WFLYSRV0027: Starting deployment of \"app.war\" (runtime-name: \"app.war\")",
+            "00:00:00,300 WARN  [org.jboss.weld.deployer] (MSC service thread 1-4) WFLYWELD0013: Deployment app.war contains CDI annotations",
+            "00:00:00,700 INFO  [org.wildfly.extension.undertow] (ServerService Thread Pool -- 20) WFLYUT0021: Registered web context: '/app' for server 'default-server'",
+            "00:00:00,800 INFO  [org.jboss.as.server] (ServerService Thread Pool -- 36) WFLYSRV0010: Deployed \"app.war\" (runtime-name : \"app.war\")",
+            "00:00:01,000 INFO  [org.jboss.as] (Controller Boot Thread) WFLYSRV0025: WildFly 32.0.0.Final (WildFly Core 24.0.0.Final) started in 1850ms - Started 512 of 734 services (371 services are lazy, passive or on-demand) - Server configuration file in use: standalone.xml");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testBoot() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("target");
+        final BootTimeline timeline = new BootTimeline(new SystemStreamLog(), target);
+        timeline.line("Not a log message");
+        BOOT.forEach(timeline::line);
+
+        final BootTimeline.Report report = timeline.lastReport();
+        Assert.assertNotNull(report);
+        Assert.assertEquals(1850L, report.bootTime());
+
+        final ModelNode json = ModelNode.fromJSONString(Files.readString(target.resolve("wildfly-boot-timeline.json")));
+        Assert.assertEquals("WildFly 32.0.0.Final (WildFly Core 24.0.0.Final)", json.get("server").asString());
+        // Measured across midnight from the WFLYSRV0049 message
+        Assert.assertEquals(1500L, json.get("measuredTime").asLong());
+        Assert.assertEquals(1, json.get("warnings").asInt());
+        Assert.assertEquals(512, json.get("services", "started").asInt());
+        Assert.assertEquals(734, json.get("services", "total").asInt());
+        Assert.assertEquals(371, json.get("services", "lazy").asInt());
+
+        final ModelNode deployment = json.get("deployments").get(0);
+        Assert.assertEquals("app.war", deployment.get("name").asString());
+        Assert.assertEquals(600L, deployment.get("start").asLong());
+        Assert.assertEquals(700L, deployment.get("duration").asLong());
+        Assert.assertEquals("/app", deployment.get("contexts").get(0).asString());
+
+        final ModelNode undertow = json.get("categories").asList().stream()
+                .filter((node) -> node.get("category").asString().equals("org.wildfly.extension.undertow"))
+                .findFirst()
+                .orElseThrow();
+        Assert.assertEquals("Undertow", undertow.get("name").asString());
+        Assert.assertEquals(450L, undertow.get("start").asLong());
+        Assert.assertEquals(750L, undertow.get("duration").asLong());
+        Assert.assertEquals(2, undertow.get("messages").asInt());
+        // The message before the boot started is not part of the timeline
+        Assert.assertEquals(8, json.get("events").asList().size());
+
+        final String text = Files.readString(target.resolve("wildfly-boot-timeline.txt"));
+        Assert.assertTrue(text, text.startsWith("WildFly 32.0.0.Final (WildFly Core 24.0.0.Final) started in 1850 ms"));
+        Assert.assertTrue(text, text.contains("app.war [/app]"));
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        final BootTimeline timeline = new BootTimeline(new SystemStreamLog(), folder.getRoot().toPath());
+        BOOT.forEach(timeline::line);
+        // A reload starts a new timeline
+        timeline.line("00:01:00,000 INFO  [org.jboss.as] (MSC service thread 1-2) WFLYSRV0049: WildFly 32.0.0.Final starting");
+        timeline.line("00:01:00,400 ERROR [org.jboss.as.controller] (Controller Boot Thread) WFLYCTL0013: Operation failed");
+        timeline.line(
+                "00:01:00,500 ERROR [org.jboss.as] (Controller Boot Thread) WFLYSRV0026: WildFly 32.0.0.Final started (with errors) in 520ms - Started 100 of 200 services");
+
+        final ModelNode json = timeline.lastReport().toJson();
+        Assert.assertEquals(520L, json.get("bootTime").asLong());
+        Assert.assertTrue(json.get("withErrors").asBoolean());
+        Assert.assertEquals(2, json.get("errors").asInt());
+        Assert.assertFalse(json.get("services").hasDefined("lazy"));
+        Assert.assertTrue(json.get("deployments").asList().isEmpty());
+    }
+}
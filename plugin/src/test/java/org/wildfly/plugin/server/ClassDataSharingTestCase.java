@@ -0,0 +1,72 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.server;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class ClassDataSharingTestCase {
+
+    private static final Path JAVA_HOME = Paths.get(System.getProperty("java.home"));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testArchive() throws Exception {
+        final Path jbossHome = folder.newFolder("wildfly").toPath();
+        Files.writeString(jbossHome.resolve("jboss-modules.jar"), "jboss-modules");
+        final Path moduleDir = Files.createDirectories(jbossHome.resolve("modules/system/layers/base/org/test/main"));
+        final Path moduleJar = moduleDir.resolve("test.jar");
+        Files.writeString(moduleDir.resolve("module.xml"), "<module name=\"org.test\"/>");
+        Files.writeString(moduleJar, "test");
+        final Path archiveDir = folder.getRoot().toPath().resolve("cds");
+        final ClassDataSharing cds = new ClassDataSharing(new SystemStreamLog(), archiveDir);
+
+        final Path archive = cds.resolveArchive(JAVA_HOME, jbossHome, List.of());
+        Assert.assertEquals(archive, cds.resolveArchive(JAVA_HOME, jbossHome, List.of()));
+        Assert.assertEquals("-XX:ArchiveClassesAtExit=" + archive, cds.javaOption(archive));
+        Assert.assertTrue(Files.isDirectory(archiveDir));
+        Files.writeString(archive, "archive");
+        Assert.assertEquals("-XX:SharedArchiveFile=" + archive, cds.javaOption(archive));
+
+        // An archive of another server is kept
+        final Path otherHome = folder.newFolder("other").toPath();
+        final Path otherArchive = cds.resolveArchive(JAVA_HOME, otherHome, List.of());
+        Assert.assertNotEquals(archive, otherArchive);
+        Files.writeString(otherArchive, "archive");
+
+        // Changing a module invalidates the archive
+        Files.writeString(moduleJar, "changed");
+        final Path changed = cds.resolveArchive(JAVA_HOME, jbossHome, List.of());
+        Assert.assertNotEquals(archive, changed);
+        Assert.assertTrue(Files.notExists(archive));
+        Assert.assertTrue(Files.exists(otherArchive));
+
+        // As does adding a module directory
+        final Path extraModules = folder.newFolder("extra").toPath();
+        Files.writeString(extraModules.resolve("extra.jar"), "extra");
+        Assert.assertNotEquals(changed, cds.resolveArchive(JAVA_HOME, jbossHome, List.of(extraModules.toString())));
+    }
+
+    @Test
+    public void testSupported() {
+        final ClassDataSharing cds = new ClassDataSharing(new SystemStreamLog(), folder.getRoot().toPath());
+        Assert.assertTrue(cds.isSupported(JAVA_HOME, List.of("-Xmx512m")));
+        Assert.assertFalse(cds.isSupported(JAVA_HOME, List.of("-Xshare:off")));
+        Assert.assertFalse(cds.isSupported(JAVA_HOME, List.of("-XX:SharedArchiveFile=app.jsa")));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.server;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wildfly.plugin.tools.server.ServerManager;
+
+/**
+ *
+ */
+public class ServerReadinessTestCase {
+
+    private static final String BOOT_COMPLETE = "10:15:30,123 INFO  [org.jboss.as] (Controller Boot Thread) "
+            + "WFLYSRV0025: WildFly 32.0.0.Final (WildFly Core 24.0.0.Final) started in 2012ms\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testConsole() throws Exception {
+        try (ServerReadiness readiness = new ServerReadiness(new SystemStreamLog())) {
+            final Thread console = new Thread(() -> {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(100L);
+                } catch (InterruptedException ignore) {
+                }
+                readiness.line("WFLYSRV0049: WildFly 32.0.0.Final starting");
+                readiness.line(BOOT_COMPLETE.trim());
+            });
+            console.start();
+            final long start = System.nanoTime();
+            // The management interface would only report the server as running after 10 seconds
+            Assert.assertTrue(readiness.await(serverManager(10_000L, true), 0L, 30L, TimeUnit.SECONDS));
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5L);
+            Assert.assertEquals(1L, readiness.bootCount());
+            // The management interface is no longer polled
+            Assert.assertFalse(isPolling());
+            // The boot has already been logged
+            Assert.assertTrue(readiness.await(serverManager(10_000L, false), 0L, 1L, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testTail() throws Exception {
+        final Path log = folder.getRoot().toPath().resolve("server.log");
+        // The message of the previous boot must not be detected
+        Files.writeString(log, BOOT_COMPLETE);
+        try (ServerReadiness readiness = new ServerReadiness(new SystemStreamLog())) {
+            readiness.tail(log, Files.size(log));
+            TimeUnit.MILLISECONDS.sleep(100L);
+            Assert.assertEquals(0L, readiness.bootCount());
+            Files.writeString(log, BOOT_COMPLETE.replace("WFLYSRV0025", "WFLYSRV0026"), StandardCharsets.UTF_8,
+                    StandardOpenOption.APPEND);
+            Assert.assertTrue(readiness.await(serverManager(10_000L, true), 0L, 30L, TimeUnit.SECONDS));
+            Assert.assertEquals(1L, readiness.bootCount());
+
+            // The file is not read once the wait completed
+            Files.writeString(log, BOOT_COMPLETE, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            TimeUnit.MILLISECONDS.sleep(100L);
+            Assert.assertEquals(1L, readiness.bootCount());
+            // The lines written in between are read by the next wait
+            Assert.assertTrue(readiness.await(serverManager(10_000L, true), 1L, 30L, TimeUnit.SECONDS));
+            Assert.assertEquals(2L, readiness.bootCount());
+        }
+    }
+
+    @Test
+    public void testTailEncoding() throws Exception {
+        final Path log = folder.getRoot().toPath().resolve("server.log");
+        final List<String> lines = new CopyOnWriteArrayList<>();
+        try (ServerReadiness readiness = new ServerReadiness(new SystemStreamLog(), lines::add)) {
+            readiness.tail(log, 0L);
+            Files.writeString(log, "10:15:30,100 INFO  [org.jboss.as.server] (ServerService Thread Pool -- 1) "
+                    + "WFLYSRV0010: Deployed \"café-über.war\" (runtime-name : \"café-über.war\")\n" + BOOT_COMPLETE,
+                    StandardCharsets.UTF_8);
+            Assert.assertTrue(readiness.await(serverManager(10_000L, true), 0L, 30L, TimeUnit.SECONDS));
+            Assert.assertTrue(lines.toString(), lines.get(0).endsWith("Deployed \"café-über.war\" "
+                    + "(runtime-name : \"café-über.war\")"));
+        }
+    }
+
+    @Test
+    public void testManagement() throws Exception {
+        try (ServerReadiness readiness = new ServerReadiness(new SystemStreamLog())) {
+            Assert.assertTrue(readiness.await(serverManager(0L, true), 0L, 30L, TimeUnit.SECONDS));
+            // The boot reported by the management interface is counted
+            Assert.assertEquals(1L, readiness.bootCount());
+            // Its boot message is scanned late and must not be taken for the next boot
+            readiness.line(BOOT_COMPLETE.trim());
+            Assert.assertEquals(1L, readiness.bootCount());
+            Assert.assertFalse(readiness.await(serverManager(0L, false), 1L, 30L, TimeUnit.SECONDS));
+            readiness.line(BOOT_COMPLETE.trim());
+            Assert.assertEquals(2L, readiness.bootCount());
+        }
+    }
+
+    private static boolean isPolling() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch((thread) -> thread.getName().equals("wildfly-readiness-poll") && thread.isAlive());
+    }
+
+    private static ServerManager serverManager(final long delay, final boolean running) {
+        return (ServerManager) Proxy.newProxyInstance(ServerManager.class.getClassLoader(),
+                new Class<?>[] { ServerManager.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("waitFor")) {
+                        TimeUnit.MILLISECONDS.sleep(delay);
+                        return running;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.plugin.server;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ */
+public class UserPropertiesWriterTestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path wildflyHome;
+
+    @Before
+    public void createHome() throws Exception {
+        wildflyHome = folder.getRoot().toPath();
+        for (String dir : List.of("standalone", "domain")) {
+            final Path configDir = Files.createDirectories(wildflyHome.resolve(dir).resolve("configuration"));
+            Files.writeString(configDir.resolve("mgmt-users.properties"), "#\n"
+                    + "#$REALM_NAME=ManagementRealm$ This line is used by the add-user utility to identify the realm name already used in this file.\n"
+                    + "#\n"
+                    + "#admin=2a0923285184943425d1f53ddd58ec7a\n");
+            Files.writeString(configDir.resolve("mgmt-groups.properties"), "#\n#admin=PowerUser,BillingAdmin,\n");
+            Files.writeString(configDir.resolve("application-users.properties"),
+                    "#$REALM_NAME=ApplicationRealm$\n");
+        }
+    }
+
+    @Test
+    public void testHash() {
+        // The hash of the add-user utility for admin:ManagementRealm:admin
+        Assert.assertEquals("c22052286cd5d72239a90fe193737253",
+                UserPropertiesWriter.hash("admin", "ManagementRealm", "admin"));
+    }
+
+    @Test
+    public void testWrittenEntry() throws Exception {
+        Assert.assertTrue(new UserPropertiesWriter(wildflyHome).write(user("user1:user.1234:Monitor")));
+        // The same entry the add-user utility writes, HEX(MD5(username:realm:password))
+        final String expected = "user1=" + String.format("%032x", new BigInteger(1, MessageDigest.getInstance("MD5")
+                .digest("user1:ManagementRealm:user.1234".getBytes(StandardCharsets.UTF_8))));
+        for (String dir : List.of("standalone", "domain")) {
+            final Path configDir = wildflyHome.resolve(dir).resolve("configuration");
+            final List<String> users = Files.readAllLines(configDir.resolve("mgmt-users.properties"),
+                    StandardCharsets.UTF_8);
+            Assert.assertEquals(expected, users.get(users.size() - 1));
+            Assert.assertTrue(Files.readAllLines(configDir.resolve("mgmt-groups.properties"), StandardCharsets.UTF_8)
+                    .contains("user1=Monitor"));
+        }
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        final UserPropertiesWriter writer = new UserPropertiesWriter(wildflyHome);
+        Assert.assertTrue(writer.write(user("admin:admin.1234:SuperUser,Monitor")));
+        Assert.assertTrue(writer.write(user("app:app.1234:guest::true")));
+        // Replaces the existing user
+        Assert.assertTrue(writer.write(user("admin:changed.1234")));
+
+        for (String dir : List.of("standalone", "domain")) {
+            final Path configDir = wildflyHome.resolve(dir).resolve("configuration");
+            final List<String> users = Files.readAllLines(configDir.resolve("mgmt-users.properties"),
+                    StandardCharsets.UTF_8);
+            Assert.assertTrue(users.contains("#admin=2a0923285184943425d1f53ddd58ec7a"));
+            Assert.assertTrue(users.contains("admin=" + UserPropertiesWriter.hash("admin", "ManagementRealm",
+                    "changed.1234")));
+            Assert.assertEquals(5, users.size());
+            Assert.assertEquals(List.of("#", "#admin=PowerUser,BillingAdmin,", "admin="),
+                    Files.readAllLines(configDir.resolve("mgmt-groups.properties"), StandardCharsets.UTF_8));
+            Assert.assertTrue(Files.readAllLines(configDir.resolve("application-users.properties"),
+                    StandardCharsets.UTF_8)
+                    .contains("app=" + UserPropertiesWriter.hash("app", "ApplicationRealm", "app.1234")));
+            Assert.assertEquals(List.of("app=guest"),
+                    Files.readAllLines(configDir.resolve("application-roles.properties"), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testNotWritten() throws Exception {
+        final UserPropertiesWriter writer = new UserPropertiesWriter(wildflyHome);
+        // The realm does not match the realm of the file
+        Assert.assertFalse(writer.write(user("admin:admin.1234::OtherRealm")));
+        // The user name requires escaping
+        Assert.assertFalse(writer.write(user("a=b:admin.1234")));
+        Assert.assertFalse(new UserPropertiesWriter(folder.newFolder("empty").toPath()).write(user("admin:admin.1234")));
+        Assert.assertFalse(Files.readString(wildflyHome.resolve("standalone/configuration/mgmt-users.properties"))
+                .contains("\nadmin="));
+    }
+
+    @Test
+    public void testPasswordRestrictions() throws Exception {
+        final UserPropertiesWriter writer = new UserPropertiesWriter(wildflyHome);
+        // The default restrictions of the add-user utility
+        Assert.assertTrue(writer.isValidPassword("admin", "admin.1234"));
+        Assert.assertFalse(writer.isValidPassword("admin", "a.1234"));
+        Assert.assertFalse(writer.isValidPassword("admin", "admin1234"));
+        Assert.assertFalse(writer.isValidPassword("admin", "admin.abcd"));
+        Assert.assertFalse(writer.isValidPassword("admin", "...12345"));
+        Assert.assertFalse(writer.isValidPassword("admin.1234", "admin.1234"));
+        Assert.assertFalse(writer.write(user("admin:admin")));
+        Assert.assertFalse(Files.readString(wildflyHome.resolve("standalone/configuration/mgmt-users.properties"))
+                .contains("\nadmin="));
+
+        // The restrictions of the server are used
+        Files.writeString(Files.createDirectories(wildflyHome.resolve("bin")).resolve("add-user.properties"),
+                "password.restriction.minLength=12\n"
+                        + "password.restriction.minSymbol=0\n"
+                        + "password.restriction.forbiddenValue=wildfly.12345\n");
+        final UserPropertiesWriter restricted = new UserPropertiesWriter(wildflyHome);
+        Assert.assertFalse(restricted.isValidPassword("admin", "admin.1234"));
+        Assert.assertTrue(restricted.isValidPassword("admin", "adminadmin1234"));
+        Assert.assertFalse(restricted.isValidPassword("admin", "WildFly.12345"));
+        // Users with a rejected password are left to the add-user utility
+        Assert.assertFalse(restricted.write(user("user1:user.1234")));
+        Assert.assertFalse(restricted.write(user("user2:wildfly.12345")));
+        Assert.assertTrue(restricted.write(user("user3:user3user1234")));
+        final String users = Files.readString(wildflyHome.resolve("standalone/configuration/mgmt-users.properties"));
+        Assert.assertFalse(users.contains("\nuser1="));
+        Assert.assertFalse(users.contains("\nuser2="));
+        Assert.assertTrue(users.contains("\nuser3="));
+    }
+
+    private static User user(final String value) {
+        final User user = new User();
+        user.set(value);
+        return user;
+    }
+}